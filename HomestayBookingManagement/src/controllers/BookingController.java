@@ -32,9 +32,7 @@ public class BookingController {
 
                 if (bookingService.addBookingWithValidation(newBooking)) {
                     view.displayMessage("Booking added successfully!");
-                    bookingService.saveToFile();
-                    // Tour status updated in service, save tour file:
-                    tourService.saveToFile();
+                    // Booking and tour status were committed together by the service
                 } else {
                     view.displayError("Failed to add booking (Tour unavailable/Invalid date).");
                 }
@@ -51,8 +49,6 @@ public class BookingController {
 
                 if (bookingService.removeBookingWithValidation(id)) {
                     view.displayMessage("Booking removed successfully!");
-                    bookingService.saveToFile();
-                    tourService.saveToFile();
                 } else {
                     view.displayError("Failed to remove booking.");
                 }
@@ -77,8 +73,6 @@ public class BookingController {
 
                 if (bookingService.updateBookingWithValidation(newBooking, oldBooking)) {
                     view.displayMessage("Booking updated successfully!");
-                    bookingService.saveToFile();
-                    tourService.saveToFile();
                 } else {
                     view.displayError("Failed to update booking (Tour unavailable/Invalid date).");
                 }
@@ -97,9 +91,7 @@ public class BookingController {
 
             java.util.List<models.Booking> results = null;
             try {
-                results = bookingService.getAll().stream()
-                        .filter(b -> b.getFullName().toLowerCase().contains(name.toLowerCase()))
-                        .collect(java.util.stream.Collectors.toList());
+                results = bookingService.findByCustomerName(name);
             } catch (Exception streamException) {
                 throw new Exception("Error processing booking data: " + streamException.getMessage());
             }
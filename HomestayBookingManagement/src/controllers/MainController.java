@@ -1,6 +1,13 @@
 package controllers;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import middlewares.MiddlewareChain;
+import utilities.AppConstants;
+import utilities.CheckpointScheduler;
 import utilities.ErrorHandler;
 import services.BookingService;
 import services.HomestayService;
@@ -38,6 +45,9 @@ public class MainController {
     private BookingService bookingService; // Logic nghiệp vụ booking
     private HomestayService homestayService; // Logic nghiệp vụ homestay
 
+    // ===== LƯU NỀN =====
+    private CheckpointScheduler checkpointer; // Ghi snapshot định kỳ trên luồng nền
+
     /**
      * Constructor với Dependency Injection
      * Khởi tạo tất cả services và tải dữ liệu từ files
@@ -56,9 +66,7 @@ public class MainController {
         // Quan trọng: Tải dữ liệu trước khi tạo sub-controllers
         try {
             System.out.println(">> System: Loading data...");
-            homestayService.loadFromFile(); // Tải homestays trước (được tham chiếu bởi tours)
-            tourService.loadFromFile(); // Tải tours thứ hai (được tham chiếu bởi bookings)
-            bookingService.loadFromFile(); // Tải bookings cuối cùng
+            loadAllData();
             System.out.println(">> System: Data loaded successfully.");
         } catch (Exception e) {
             // Lỗi nghiêm trọng: Không thể tiếp tục mà không có dữ liệu
@@ -68,12 +76,77 @@ public class MainController {
             System.exit(1); // Kết thúc ứng dụng
         }
 
+        // ===== CHECKPOINT NỀN =====
+        // Định kỳ ghi snapshot (file tạm + rename) để journal không phình to
+        this.checkpointer = new CheckpointScheduler(AppConstants.CHECKPOINT_INTERVAL_MS)
+                .register(tourService::checkpoint)
+                .register(bookingService::checkpoint);
+        checkpointer.start();
+
         // ===== KHỞI TẠO SUB-CONTROLLER =====
         // Tạo sub-controllers sau khi dữ liệu đã được tải
         this.tourController = new TourController(tourService, homestayService);
         this.bookingController = new BookingController(bookingService, tourService);
     }
 
+    /**
+     * Tải dữ liệu theo từng giai đoạn song song
+     * 
+     * Giai đoạn 1: đọc 3 file cùng lúc (các file độc lập với nhau)
+     * Giai đoạn 2: kiểm tra tham chiếu, mỗi bước chạy ngay khi đủ dữ liệu đầu vào
+     * - tours -> homestays (cần homestays + tours)
+     * - bookings -> tours (cần tours + bookings)
+     * Thời gian khởi động ~ file chậm nhất thay vì tổng 3 file
+     * 
+     * @throws Exception Lỗi đầu tiên của bất kỳ giai đoạn nào
+     */
+    private void loadAllData() throws Exception {
+        long start = System.nanoTime();
+        ExecutorService loader = Executors.newFixedThreadPool(3, r -> {
+            Thread t = new Thread(r, "loader");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            // ===== GIAI ĐOẠN 1: ĐỌC FILE =====
+            CompletableFuture<Void> homestays = CompletableFuture
+                    .runAsync(() -> timed("homestays", homestayService::loadFromFile), loader);
+            CompletableFuture<Void> tours = CompletableFuture
+                    .runAsync(() -> timed("tours", tourService::loadFromFile), loader);
+            CompletableFuture<Void> bookings = CompletableFuture
+                    .runAsync(() -> timed("bookings", bookingService::loadFromFile), loader);
+
+            // ===== GIAI ĐOẠN 2: KIỂM TRA THAM CHIẾU =====
+            CompletableFuture<Void> tourRefs = homestays.runAfterBoth(tours,
+                    () -> timed("tour reference check", () -> warnOrphans("Tour",
+                            tourService.findToursWithUnknownHomestay().size(), "homestay")));
+            CompletableFuture<Void> bookingRefs = tours.runAfterBoth(bookings,
+                    () -> timed("booking reference check", () -> warnOrphans("Booking",
+                            bookingService.findBookingsWithUnknownTour().size(), "tour")));
+
+            CompletableFuture.allOf(tourRefs, bookingRefs).join();
+        } catch (CompletionException e) {
+            // Ném lại lỗi gốc để thông báo CRITICAL ERROR hiển thị đúng nguyên nhân
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } finally {
+            loader.shutdown();
+        }
+        System.out.println(">> System: Startup loading took " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    // Chạy một giai đoạn và in thời gian thực hiện
+    private static void timed(String stage, Runnable work) {
+        long start = System.nanoTime();
+        work.run();
+        System.out.println(">> System: " + stage + " ready in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    private static void warnOrphans(String entity, int count, String target) {
+        if (count > 0) {
+            System.err.println(">> Warning: " + count + " " + entity + "(s) reference an unknown " + target);
+        }
+    }
+
     /**
      * Vòng lặp chính của ứng dụng
      * Hiển thị menu, lấy lựa chọn người dùng, và định tuyến tới controller thích
@@ -157,7 +230,10 @@ public class MainController {
                 System.out.println(">> Saving data...");
 
                 try {
-                    // Lưu tất cả dữ liệu đã sửa đổi vào files
+                    // Dừng checkpoint nền trước khi ghi lần cuối
+                    checkpointer.stop();
+                    // Lưu dữ liệu đã sửa đổi: file không đổi được bỏ qua,
+                    // thay đổi nhỏ chỉ cần fsync journal
                     tourService.saveToFile(); // Lưu thay đổi tour
                     bookingService.saveToFile(); // Lưu thay đổi booking
                     // Lưu ý: Dữ liệu Homestay chỉ đọc trong ứng dụng này
@@ -40,7 +40,7 @@ public class TourController {
                 // Delegate to Service
                 if (tourService.addTourWithValidation(newTour)) {
                     view.displayMessage("Tour added successfully!");
-                    tourService.saveToFile();
+                    tourService.commit();
                     view.displayMessage("Tour data saved successfully!");
                 } else {
                     view.displayError("Failed to add tour. Check errors above (Capacity/Overlap).");
@@ -69,7 +69,7 @@ public class TourController {
                     // Delegate to Service
                     if (tourService.updateTourWithValidation(newTour, oldTour)) {
                         view.displayMessage("Tour updated successfully!");
-                        tourService.saveToFile();
+                        tourService.commit();
                         view.displayMessage("Tour data saved successfully!");
                     } else {
                         view.displayError("Failed to update tour. Check validation errors.");
@@ -83,12 +83,11 @@ public class TourController {
         // phương thức liệt kê
         view.displayMessage("----- LIST LATER THAN TODAY -----");
         try {
-            List<Tour> tours = tourService.getLaterThanToday();
+            List<Tour> tours = tourService.getUpcomingToursByRevenue();
             if (tours.isEmpty()) {
                 view.displayMessage("No tours found with departure date later than today.");
             } else {
-                // Sort by total amount descending
-                tours.sort((t1, t2) -> Double.compare(t2.getTotalAmount(), t1.getTotalAmount()));
+                // Already sorted by total amount descending in the repository
                 view.displayList(tours);
             }
         } catch (Exception e) {
@@ -107,6 +106,8 @@ public class TourController {
             } else {
                 view.displayStatistics(stats);
             }
+            view.displayMessage("Booked tours: " + tourService.countTours(true)
+                    + " | Available tours: " + tourService.countTours(false));
         } catch (Exception e) {
             view.displayError(e.getMessage());
         }
@@ -115,9 +116,7 @@ public class TourController {
     void listEarlierThanToday() {
         view.displayMessage("----- LIST EARLIER THAN TODAY -----");
         try {
-            List<Tour> tours = tourService.getAll().stream()
-                    .filter(t -> t.getDepartureDate().isBefore(java.time.LocalDate.now()))
-                    .collect(java.util.stream.Collectors.toList());
+            List<Tour> tours = tourService.getExpiredTours();
             if (tours.isEmpty()) {
                 view.displayMessage("No tours found with departure date earlier than today.");
             } else {
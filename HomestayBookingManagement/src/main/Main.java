@@ -4,12 +4,16 @@ import controllers.MainController;
 import repositories.BookingRepository;
 import repositories.HomestayRepository;
 import repositories.TourRepository;
+import repositories.concurrent.ConcurrentBookingRepository;
+import repositories.concurrent.ConcurrentHomestayRepository;
+import repositories.concurrent.ConcurrentTourRepository;
 import repositories.interfaces.IBookingRepository;
 import repositories.interfaces.IHomestayRepository;
 import repositories.interfaces.ITourRepository;
 import services.BookingService;
 import services.HomestayService;
 import services.TourService;
+import utilities.AppConstants;
 
 /**
  * Điểm Khởi Đầu Ứng Dụng Chính - Hệ Thống Quản Lý Đặt Phòng Homestay
@@ -58,9 +62,11 @@ public class Main {// dependency injection
         // ===== BƯỚC 1: KHỞI TẠO LỚP DỮ LIỆU =====
         // Tạo các instance repository để truy cập dữ liệu
         // Chúng xử lý file I/O và lưu trữ dữ liệu
-        IHomestayRepository homestayRepo = new HomestayRepository();
-        ITourRepository tourRepo = new TourRepository();
-        IBookingRepository bookingRepo = new BookingRepository();
+        // Bản concurrent (ConcurrentHashMap + StampedLock) dành cho server đa luồng
+        boolean concurrent = AppConstants.CONCURRENT_REPOSITORIES;
+        IHomestayRepository homestayRepo = concurrent ? new ConcurrentHomestayRepository() : new HomestayRepository();
+        ITourRepository tourRepo = concurrent ? new ConcurrentTourRepository() : new TourRepository();
+        IBookingRepository bookingRepo = concurrent ? new ConcurrentBookingRepository() : new BookingRepository();
 
         // ===== BƯỚC 2: KHỞI TẠO LỚP NGHIỆP VỤ =====
         // Tạo các instance service với dependency injection
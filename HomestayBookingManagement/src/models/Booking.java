@@ -1,6 +1,9 @@
 package models;
 
 import java.time.LocalDate;
+
+import utilities.CsvRecord;
+import utilities.DateCodec;
 // import java.time.format.DateTimeFormatter;
 
 /**
@@ -20,7 +23,7 @@ import java.time.LocalDate;
  * @version 1.0
  * @since 2025
  */
-public class Booking {
+public class Booking implements CsvRecord {
 
     // ===== CÁC THUỘC TÍNH CHÍNH =====
     private String bookingID; // Mã định danh booking duy nhất (định dạng B00001)
@@ -67,6 +70,22 @@ public class Booking {
         this.phone = phone;
     }
 
+    /**
+     * Independent copy of the current state (for read-only snapshots); the
+     * values are not validated again
+     */
+    public Booking copy() {
+        return new Booking(this);
+    }
+
+    private Booking(Booking other) {
+        this.bookingID = other.bookingID;
+        this.fullName = other.fullName;
+        this.tourID = other.tourID;
+        this.bookingDate = other.bookingDate;
+        this.phone = other.phone;
+    }
+
     // ===== GETTERS AND SETTERS =====
 
     /**
@@ -185,12 +204,23 @@ public class Booking {
     @Override
     public String toString() {
         try {
-            String formattedDate = bookingDate.format(utilities.AppConstants.DATE_FMT);
-            return String.format("%s,%s,%s,%s,%s",
-                    bookingID, fullName, tourID, formattedDate, phone);
+            return appendTo(new StringBuilder(64)).toString();
         } catch (Exception e) {
             System.err.println("Error formatting booking: " + e.getMessage());
             return bookingID + ",ERROR,ERROR,ERROR,ERROR";
         }
     }
+
+    /**
+     * Write the booking in file format into a caller-supplied StringBuilder
+     * (no String.format)
+     *
+     * @param sb Caller's buffer
+     * @return sb
+     */
+    @Override
+    public StringBuilder appendTo(StringBuilder sb) {
+        sb.append(bookingID).append(',').append(fullName).append(',').append(tourID).append(',');
+        return DateCodec.format(bookingDate, sb).append(',').append(phone);
+    }
 }
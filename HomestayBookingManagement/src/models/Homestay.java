@@ -42,6 +42,13 @@ public class Homestay {
         this.maximumCapacity = maximumCapacity; // QUAN TRỌNG: Sử dụng trong xác thực tour
     }
 
+    /**
+     * Bản sao độc lập của trạng thái hiện tại (dùng cho snapshot chỉ đọc)
+     */
+    public Homestay copy() {
+        return new Homestay(homeID, homeName, roomNumber, address, maximumCapacity);
+    }
+
     // ===== CÁC GETTERS VÀ SETTERS =====
     
     /**
@@ -1,6 +1,11 @@
 package models;
 
 import java.time.LocalDate;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import utilities.CsvRecord;
+import utilities.DateCodec;
 
 /**
  * Lớp Model Tour - Đại diện cho gói tour
@@ -14,7 +19,7 @@ import java.time.LocalDate;
  * 
  * @author ThanhDuy
  */
-public class Tour implements Comparable<Tour> {
+public class Tour implements Comparable<Tour>, CsvRecord {
 
     // ===== CÁC THUỘC TÍNH =====
     private String tourId; // Định dạng: T00001
@@ -25,7 +30,11 @@ public class Tour implements Comparable<Tour> {
     private LocalDate departureDate; // Ngày bắt đầu
     private LocalDate endDate; // Ngày kết thúc
     private int numberTourist; // Số khách du lịch
-    private boolean isBooked; // Trạng thái đặt chỗ
+    private volatile int booked; // Trạng thái đặt chỗ: 1 = đã đặt, đổi nguyên tử qua tryReserve/release
+
+    // CAS trên trường booked, không cần thêm đối tượng AtomicBoolean cho mỗi tour
+    private static final AtomicIntegerFieldUpdater<Tour> BOOKED = AtomicIntegerFieldUpdater.newUpdater(Tour.class,
+            "booked");
 
     // Formatter tĩnh cho định dạng ngày nhất quán
     // private static final DateTimeFormatter DATE_FMT =
@@ -60,7 +69,14 @@ public class Tour implements Comparable<Tour> {
         this.departureDate = departureDate;
         this.endDate = endDate;
         this.numberTourist = numberTourist;
-        this.isBooked = isBooked;
+        this.booked = isBooked ? 1 : 0;
+    }
+
+    /**
+     * Bản sao độc lập của trạng thái hiện tại (dùng cho snapshot chỉ đọc)
+     */
+    public Tour copy() {
+        return new Tour(tourId, tourName, time, price, homeID, departureDate, endDate, numberTourist, isBooked());
     }
 
     // ... [Giữ nguyên các Getters và Setters của bạn] ...
@@ -135,11 +151,30 @@ public class Tour implements Comparable<Tour> {
     }
 
     public boolean isBooked() {
-        return isBooked;
+        return booked != 0;
     }
 
     public void setIsBooked(boolean isBooked) {
-        this.isBooked = isBooked;
+        this.booked = isBooked ? 1 : 0;
+    }
+
+    /**
+     * Đặt chỗ nguyên tử (compare-and-set): chỉ một luồng thắng khi nhiều
+     * luồng cùng đặt một tour
+     * 
+     * @return true nếu tour chuyển từ trống sang đã đặt bởi lời gọi này
+     */
+    public boolean tryReserve() {
+        return BOOKED.compareAndSet(this, 0, 1);
+    }
+
+    /**
+     * Hủy đặt chỗ nguyên tử
+     * 
+     * @return true nếu tour chuyển từ đã đặt sang trống bởi lời gọi này
+     */
+    public boolean release() {
+        return BOOKED.compareAndSet(this, 1, 0);
     }
 
     /**
@@ -219,7 +254,7 @@ public class Tour implements Comparable<Tour> {
         if (isExpired()) {
             return TourStatus.EXPIRED;
         }
-        if (isBooked) {
+        if (isBooked()) {
             return TourStatus.BOOKED;
         }
         return TourStatus.AVAILABLE;
@@ -247,15 +282,37 @@ public class Tour implements Comparable<Tour> {
     @Override
     public String toString() {
         try {
-            String bookedStr = isBooked() ? "TRUE" : "FALSE";
-            String sDeparture = departureDate.format(utilities.AppConstants.DATE_FMT);
-            String sEnd = endDate.format(utilities.AppConstants.DATE_FMT);
-
-            return String.format("%s,%s,%s,%.1f,%s,%s,%s,%d,%s",
-                    tourId, tourName, time, price, homeID, sDeparture, sEnd, numberTourist, bookedStr);
+            return appendTo(new StringBuilder(96)).toString();
         } catch (Exception e) {
             System.err.println("Error formatting tour: " + e.getMessage());
             return tourId + ",ERROR,ERROR,ERROR,ERROR,ERROR,ERROR,ERROR,ERROR";
         }
     }
+
+    /**
+     * Ghi tour theo định dạng file vào StringBuilder có sẵn (không qua String.format)
+     *
+     * @param sb Bộ đệm của người gọi
+     * @return sb
+     */
+    @Override
+    public StringBuilder appendTo(StringBuilder sb) {
+        sb.append(tourId).append(',').append(tourName).append(',').append(time).append(',');
+        appendPrice(sb, price);
+        sb.append(',').append(homeID).append(',');
+        DateCodec.format(departureDate, sb).append(',');
+        DateCodec.format(endDate, sb).append(',');
+        return sb.append(numberTourist).append(',').append(isBooked() ? "TRUE" : "FALSE");
+    }
+
+    // Cùng kết quả với "%.1f" cho giá có tối đa một chữ số thập phân
+    private static void appendPrice(StringBuilder sb, double value) {
+        double tenths = value * 10;
+        if (Double.compare(value, 0.0) >= 0 && tenths < 1e15 && tenths == Math.rint(tenths)) {
+            long t = (long) tenths;
+            sb.append(t / 10).append('.').append(t % 10);
+        } else {
+            sb.append(String.format(Locale.ROOT, "%.1f", value));
+        }
+    }
 }
@@ -0,0 +1,142 @@
+package repositories;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import models.Booking;
+import repositories.interfaces.IBookingRepository;
+import utilities.AppConstants;
+import utilities.ColumnarFileHandler;
+import utilities.ColumnarSchema;
+import utilities.FieldCursor;
+import utilities.ImportReport;
+import utilities.TextFileHandler;
+
+/**
+ * Booking Repository base - File format and persistence shared by
+ * BookingRepository and ConcurrentBookingRepository
+ *
+ * Strict Rule Compliance:
+ * - Uses TextFileHandler (CSV)
+ * - Uses AppConstants for paths/formats
+ * - Safe parsing logic (returns null on error)
+ *
+ * Storage and indexes belong to the subclass, which receives the loaded rows
+ * through rebuild(). Every write must be published to snapshot() before it
+ * is journaled (see captureRows).
+ */
+public abstract class AbstractBookingRepository extends TextFileHandler<Booking> implements IBookingRepository {
+
+    protected final String FILE_NAME = AppConstants.FILE_BOOKINGS;
+
+    // Binary snapshot layout (ColumnarFileHandler)
+    public static final ColumnarSchema<Booking> COLUMNS = new ColumnarSchema<Booking>(
+            row -> new Booking(row.str(0), row.str(1), row.str(2), row.date(3), row.str(4)))
+            .string("bookingID", Booking::getBookingID)
+            .string("fullName", Booking::getFullName)
+            .string("tourID", Booking::getTourID)
+            .date("bookingDate", Booking::getBookingDate)
+            .string("phone", Booking::getPhone);
+
+    protected AbstractBookingRepository() {
+        if (AppConstants.BINARY_SNAPSHOTS) {
+            setSnapshotStore(new ColumnarFileHandler<>(COLUMNS), AppConstants.BINARY_SNAPSHOT_SUFFIX);
+        }
+    }
+
+    @Override
+    public Booking parseLine(String line) {
+        if (line == null || line.trim().isEmpty() || line.startsWith("BookingID")) {
+            return null; // Skip header/empty
+        }
+
+        // Handle BOM if present
+        if (line.startsWith("\uFEFF")) {
+            line = line.substring(1);
+        }
+
+        try {
+            FieldCursor fields = new FieldCursor(line, ',');
+            if (fields.fieldCount() < 5) {
+                return reject(ImportReport.Category.FIELD_COUNT, line,
+                        "expected 5 fields, got " + fields.fieldCount());
+            }
+
+            String bId = fields.nextString();
+            String name = fields.nextString();
+            String tId = fields.nextString();
+
+            // dd/MM/yyyy, or yyyy-MM-dd in legacy data: DateCodec tells them
+            // apart by separator position instead of try/catch
+            LocalDate date = fields.nextDate();
+
+            String phone = fields.nextString();
+
+            // Basic validation
+            if (!bId.matches(AppConstants.REGEX_BOOKING_ID)) {
+                // Log warning or skip? Strict rule says return null for malformed
+                // System.err.println("Skipping invalid Booking ID: " + bId);
+                // return null;
+                // Currently keeping lenient unless ID validates strongly
+            }
+
+            return new Booking(bId, name, tId, date, phone);
+
+        } catch (Exception e) {
+            return reject(ImportReport.Category.of(e), line, String.valueOf(e.getMessage()));
+        }
+    }
+
+    // ===== PERSISTENCE =====
+
+    /**
+     * Replace the contents with freshly loaded rows (file order, journal
+     * applied); no other thread uses the repository meanwhile
+     *
+     * @return Rows skipped because their ID was already taken
+     */
+    protected abstract List<Booking> rebuild(List<Booking> loaded);
+
+    @Override
+    public synchronized void loadFromFile() {
+        List<Booking> loaded = new ArrayList<>();
+        loadSnapshot(loaded, FILE_NAME);
+        int replayed = replayAndOpenJournal(loaded, FILE_NAME, Booking::getBookingID);
+        if (replayed > 0) {
+            System.out.println(">> Replayed " + replayed + " journal record(s) for " + FILE_NAME);
+        }
+        for (Booking dup : rebuild(loaded)) {
+            System.err.println(">> Skipping duplicate Booking ID: " + dup.getBookingID());
+        }
+    }
+
+    @Override
+    public void saveToFile() {
+        persist(this::pinnedRows, FILE_NAME); // Skip, flush the journal or rewrite, depending on what changed
+    }
+
+    /**
+     * Rewrite the snapshot if the journal holds anything, then drop the
+     * journal records it covers (background checkpoint)
+     */
+    public void compact() {
+        if (hasPendingJournal() || isDirty()) {
+            checkpoint(this::pinnedRows, FILE_NAME);
+        }
+    }
+
+    private List<Booking> pinnedRows() {
+        return snapshot().inInsertionOrder(); // File order, as findAll()
+    }
+
+    /**
+     * No repository lock: the rows are a pinned version, and every write is
+     * published there before it is journaled
+     */
+    @Override
+    protected List<Booking> captureRows(Supplier<List<Booking>> capture) {
+        return capture.get();
+    }
+}
@@ -0,0 +1,71 @@
+package repositories;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import models.Homestay;
+import repositories.interfaces.IHomestayRepository;
+import utilities.AppConstants; // [UPDATE]
+import utilities.FieldCursor;
+import utilities.ImportReport;
+import utilities.TextFileHandler;
+
+/**
+ * Homestay Repository base - File format and loading shared by
+ * HomestayRepository and ConcurrentHomestayRepository
+ *
+ * Storage and indexes belong to the subclass, which receives the loaded rows
+ * through rebuild().
+ */
+public abstract class AbstractHomestayRepository extends TextFileHandler<Homestay> implements IHomestayRepository {
+
+    // [UPDATE] Use AppConstants
+    protected final String FILE_NAME = AppConstants.FILE_HOMESTAYS;
+
+    @Override
+    public Homestay parseLine(String line) {
+        if (line == null || line.trim().isEmpty())
+            return null;
+
+        try {
+            // Logic handled "-" separated values as seen in original code
+            FieldCursor fields = new FieldCursor(line, '-');
+            if (fields.fieldCount() < 5) {
+                return reject(ImportReport.Category.FIELD_COUNT, line,
+                        "expected 5 fields, got " + fields.fieldCount());
+            }
+            String homeId = fields.nextString();
+            String homeName = fields.nextString();
+            int roomNumber = fields.nextInt();
+
+            // Address may contain dashes: it runs up to the last '-'
+            String address = fields.nextGreedy().asString();
+
+            int maximumcapacity = fields.nextInt();
+            return new Homestay(homeId, homeName, roomNumber, address, maximumcapacity);
+        } catch (Exception e) {
+            return reject(ImportReport.Category.of(e), line, String.valueOf(e.getMessage()));
+        }
+    }
+
+    /**
+     * Replace the contents with freshly loaded rows (file order); no other
+     * thread uses the repository meanwhile
+     *
+     * @return Rows skipped because their ID was already taken
+     */
+    protected abstract List<Homestay> rebuild(List<Homestay> loaded);
+
+    @Override
+    public synchronized void loadFromFile() {
+        List<Homestay> loaded = new ArrayList<>();
+        super.load(loaded, FILE_NAME);
+        for (Homestay dup : rebuild(loaded)) {
+            System.err.println(">> Skipping duplicate Homestay ID: " + dup.getHomeID());
+        }
+
+        // [STRICT RULE] Ensure IDs are consistent if using auto-increment,
+        // but Homestay ID seems to be String (manual entry?)
+        // If needed, we would update ID generator state here.
+    }
+}
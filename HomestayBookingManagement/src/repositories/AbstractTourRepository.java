@@ -0,0 +1,181 @@
+package repositories;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import models.Tour;
+import repositories.interfaces.ITourRepository;
+import utilities.AppConstants;
+import utilities.ColumnarFileHandler;
+import utilities.ColumnarSchema;
+import utilities.FieldCursor;
+import utilities.ImportReport;
+import utilities.TextFileHandler;
+
+/**
+ * Tour Repository base - File format and persistence shared by
+ * TourRepository and ConcurrentTourRepository
+ *
+ * Parses the tours file, loads snapshot + journal and saves/compacts from
+ * snapshot(). Storage and indexes belong to the subclass, which receives the
+ * loaded rows through rebuild(). Every write must be published to snapshot()
+ * before it is journaled (see captureRows).
+ */
+public abstract class AbstractTourRepository extends TextFileHandler<Tour> implements ITourRepository {
+
+    protected final String FILE_NAME = AppConstants.FILE_TOURS;
+
+    // Binary snapshot layout (ColumnarFileHandler)
+    public static final ColumnarSchema<Tour> COLUMNS = new ColumnarSchema<Tour>(
+            row -> new Tour(row.str(0), row.str(1), row.str(2), row.dbl(3), row.str(4),
+                    row.date(5), row.date(6), row.i32(7), row.bool(8)))
+            .string("tourId", Tour::getTourId)
+            .string("tourName", Tour::getTourName)
+            .string("time", Tour::getTime)
+            .decimal("price", Tour::getPrice)
+            .string("homeID", Tour::getHomeID)
+            .date("departureDate", Tour::getDepartureDate)
+            .date("endDate", Tour::getEndDate)
+            .integer("numberTourist", Tour::getNumberTourist)
+            .bool("isBooked", Tour::isBooked);
+
+    protected AbstractTourRepository() {
+        if (AppConstants.BINARY_SNAPSHOTS) {
+            setSnapshotStore(new ColumnarFileHandler<>(COLUMNS), AppConstants.BINARY_SNAPSHOT_SUFFIX);
+        }
+    }
+
+    @Override
+    public Tour parseLine(String line) {
+        if (line == null || line.trim().isEmpty()) {
+            return null;
+        }
+
+        try {
+            FieldCursor fields = new FieldCursor(line, ',');
+            int fieldCount = fields.fieldCount();
+            if (fieldCount < 9) {
+                return reject(ImportReport.Category.FIELD_COUNT, line, "expected 9 fields, got " + fieldCount);
+            }
+
+            fields.next();
+            if (fields.is("TourID")) {
+                return null; // Skip header
+            }
+            if (fields.isEmpty()) {
+                return reject(ImportReport.Category.MISSING_FIELD, line, "empty TourID");
+            }
+            String tourId = fields.asString();
+
+            String tourName = fields.nextString();
+            String time = fields.nextString();
+            double price = fields.nextDouble();
+            String homeID = fields.nextString();
+
+            // [UPDATE] dd/MM/yyyy (AppConstants.DATE_FMT), decoded by DateCodec
+            LocalDate departureDate = fields.nextDate();
+            LocalDate endDate = fields.nextDate();
+
+            int numberTourist = fields.nextInt();
+            boolean isBooked = fields.nextBoolean();
+
+            return new Tour(tourId, tourName, time, price, homeID, departureDate, endDate, numberTourist, isBooked);
+
+        } catch (DateTimeParseException e) {
+            return reject(ImportReport.Category.DATE, line,
+                    "expected " + AppConstants.DATE_TIME_PATTERN + " - " + e.getMessage());
+        } catch (Exception e) {
+            return reject(ImportReport.Category.of(e), line, String.valueOf(e.getMessage()));
+        }
+    }
+
+    // ===== BUSINESS QUERIES =====
+
+    /**
+     * Business Method: Count booked (true) or available (false) tours
+     */
+    public abstract int countByBooked(boolean isBooked);
+
+    /**
+     * Business Method: Top K upcoming tours by revenue (desc)
+     */
+    public abstract List<Tour> topUpcomingByRevenue(int k);
+
+    /**
+     * Business Method: Get upcoming tours sorted by revenue (desc)
+     */
+    public List<Tour> getUpcomingToursByRevenue() {
+        return topUpcomingByRevenue(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Business Method: Get expired tours
+     */
+    public List<Tour> getExpiredTours() {
+        return findByDateBefore(LocalDate.now());
+    }
+
+    /**
+     * Business Method: Check if tour conflicts with existing tours
+     * Only the tours of the same homestay whose dates intersect are examined.
+     */
+    public boolean hasTimeConflict(Tour newTour) {
+        return findOverlapping(newTour.getHomeID(), newTour.getDepartureDate(), newTour.getEndDate())
+                .stream()
+                .anyMatch(existing -> existing.isOverlapWith(newTour));
+    }
+
+    // ===== PERSISTENCE =====
+
+    /**
+     * Replace the contents with freshly loaded rows (file order, journal
+     * applied); no other thread uses the repository meanwhile
+     *
+     * @return Rows skipped because their ID was already taken
+     */
+    protected abstract List<Tour> rebuild(List<Tour> loaded);
+
+    @Override
+    public synchronized void loadFromFile() {
+        List<Tour> loaded = new ArrayList<>();
+        loadSnapshot(loaded, FILE_NAME);
+        int replayed = replayAndOpenJournal(loaded, FILE_NAME, Tour::getTourId);
+        if (replayed > 0) {
+            System.out.println(">> Replayed " + replayed + " journal record(s) for " + FILE_NAME);
+        }
+        for (Tour dup : rebuild(loaded)) {
+            System.err.println(">> Skipping duplicate Tour ID: " + dup.getTourId());
+        }
+    }
+
+    @Override
+    public void saveToFile() {
+        persist(this::pinnedRows, FILE_NAME); // Skip, flush the journal or rewrite, depending on what changed
+    }
+
+    /**
+     * Rewrite the snapshot if the journal holds anything, then drop the
+     * journal records it covers (background checkpoint)
+     */
+    public void compact() {
+        if (hasPendingJournal() || isDirty()) {
+            checkpoint(this::pinnedRows, FILE_NAME);
+        }
+    }
+
+    private List<Tour> pinnedRows() {
+        return snapshot().inInsertionOrder(); // File order, as findAll()
+    }
+
+    /**
+     * No repository lock: the rows are a pinned version, and every write is
+     * published there before it is journaled
+     */
+    @Override
+    protected List<Tour> captureRows(Supplier<List<Tour>> capture) {
+        return capture.get();
+    }
+}
@@ -1,149 +1,111 @@
 package repositories;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeParseException;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import models.Booking;
-import repositories.interfaces.IBookingRepository;
-import utilities.AppConstants; // [UPDATE] Import AppConstants
-import utilities.TextFileHandler;
+import repositories.indexes.PrimaryKeyIndex;
+import repositories.indexes.SecondaryIndex;
+import repositories.indexes.TrigramIndex;
+import repositories.indexes.VersionedMap;
+import repositories.interfaces.Snapshot;
 
 /**
  * Booking Repository - Handles CRUD + Business Queries
- * Strict Rule Compliance:
- * - Uses TextFileHandler (CSV)
- * - Uses AppConstants for paths/formats
- * - Safe parsing logic (returns null on error)
+ *
+ * Reads and writes of the indexes hold the repository monitor (the indexes
+ * are plain hash maps); snapshot() readers need no lock.
  */
-public class BookingRepository extends TextFileHandler<Booking> implements IBookingRepository {
-
-    private final List<Booking> bookings = new ArrayList<>();
-
-    // [UPDATE] Use AppConstants
-    private final String FILE_NAME = AppConstants.FILE_BOOKINGS;
+public class BookingRepository extends AbstractBookingRepository {
+
+    // Primary storage: bookingID -> Booking (B00001 decoded to an int key, file order kept)
+    private final PrimaryKeyIndex<Booking> bookings = new PrimaryKeyIndex<>(Booking::getBookingID, "B", 5, 5);
+    // Secondary index: tourID -> bookings of that tour
+    private final SecondaryIndex<Booking> bookingsByTour = new SecondaryIndex<>(Booking::getBookingID,
+            Booking::getTourID);
+    // Trigram index over customer names for substring search
+    private final TrigramIndex<Booking> nameIndex = new TrigramIndex<>(Booking::getBookingID, Booking::getFullName);
+    // Immutable versions for snapshot readers (reports, checkpoints)
+    private final VersionedMap<Booking> versions = new VersionedMap<>(Booking::getBookingID, Booking::copy);
 
     @Override
-    public Booking parseLine(String line) {
-        if (line == null || line.trim().isEmpty() || line.startsWith("BookingID")) {
-            return null; // Skip header/empty
-        }
-
-        // Handle BOM if present
-        if (line.startsWith("\uFEFF")) {
-            line = line.substring(1);
-        }
-
-        try {
-            String[] parts = line.split(",");
-            if (parts.length < 5) {
-                // Not enough fields
-                return null;
-            }
-
-            String bId = parts[0].trim();
-            String name = parts[1].trim();
-            String tId = parts[2].trim();
-
-            // [UPDATE] Use AppConstants for date parsing (or fallback logic if file
-            // inconsistent)
-            // Prioritize standard format first
-            String dateStr = parts[3].trim();
-            LocalDate date;
-            try {
-                date = LocalDate.parse(dateStr, AppConstants.DATE_FMT); // dd/MM/yyyy
-            } catch (DateTimeParseException e) {
-                // Fallback often needed for legacy data
-                date = LocalDate.parse(dateStr, java.time.format.DateTimeFormatter.ISO_LOCAL_DATE); // yyyy-MM-dd
-            }
-
-            String phone = parts[4].trim();
-
-            // Basic validation
-            if (!bId.matches(AppConstants.REGEX_BOOKING_ID)) {
-                // Log warning or skip? Strict rule says return null for malformed
-                // System.err.println("Skipping invalid Booking ID: " + bId);
-                // return null;
-                // Currently keeping lenient unless ID validates strongly
-            }
-
-            return new Booking(bId, name, tId, date, phone);
-
-        } catch (Exception e) {
-            String sanitizedLine = line.replaceAll("[\r\n\t]", "_");
-            System.err.println(">> Error parsing booking line: " + sanitizedLine + " [" + e.getMessage() + "]");
-            return null;
-        }
+    public synchronized List<Booking> findAll() {
+        return bookings.values();
     }
 
     @Override
-    public List<Booking> findAll() {
-        return new ArrayList<>(bookings);
+    public synchronized Booking findById(String id) {
+        return bookings.get(id);
     }
 
     @Override
-    public Booking findById(String id) {
-        return bookings.stream()
-                .filter(b -> b.getBookingID().equalsIgnoreCase(id))
-                .findFirst()
-                .orElse(null);
+    public synchronized boolean save(Booking entity) {
+        if (!bookings.insert(entity)) {
+            return false;
+        }
+        bookingsByTour.add(entity);
+        nameIndex.add(entity);
+        versions.put(entity);
+        journalUpsert(entity.getBookingID(), entity);
+        return true;
     }
 
     @Override
-    public boolean save(Booking entity) {
-        if (exists(entity.getBookingID())) {
+    public synchronized boolean update(Booking entity) {
+        if (bookings.replace(entity) == null) {
             return false;
         }
-        return bookings.add(entity);
+        bookingsByTour.update(entity);
+        nameIndex.update(entity);
+        versions.put(entity);
+        journalUpsert(entity.getBookingID(), entity);
+        return true;
     }
 
     @Override
-    public boolean update(Booking entity) {
-        Booking existing = findById(entity.getBookingID());
-        if (existing == null) {
+    public synchronized boolean delete(String id) {
+        if (bookings.remove(id) == null) {
             return false;
         }
-        int index = bookings.indexOf(existing);
-        bookings.set(index, entity);
+        bookingsByTour.remove(id);
+        nameIndex.remove(id);
+        versions.remove(id);
+        journalDelete(id);
         return true;
     }
 
     @Override
-    public boolean delete(String id) {
-        return bookings.removeIf(b -> b.getBookingID().equalsIgnoreCase(id));
+    public synchronized boolean exists(String id) {
+        return bookings.contains(id);
     }
 
+    /**
+     * Current version, ordered by booking ID; writers never wait for its readers
+     */
     @Override
-    public boolean exists(String id) {
-        return findById(id) != null;
+    public Snapshot<Booking> snapshot() {
+        return versions.snapshot();
     }
 
     // ===== BUSINESS QUERIES =====
 
     @Override
-    public List<Booking> findByTourId(String tourId) {
-        return bookings.stream()
-                .filter(b -> b.getTourID().equalsIgnoreCase(tourId))
-                .collect(Collectors.toList());
+    public synchronized List<Booking> findByTourId(String tourId) {
+        return bookingsByTour.get(tourId);
     }
 
     @Override
-    public List<Booking> findByCustomerName(String name) {
-        return bookings.stream()
-                .filter(b -> b.getFullName().toLowerCase()
-                        .contains(name.toLowerCase()))
-                .collect(Collectors.toList());
+    public synchronized List<Booking> findByCustomerName(String name) {
+        return nameIndex.search(name);
     }
 
-    @Override
-    public void loadFromFile() {
-        super.load(bookings, FILE_NAME);
-    }
+    // ===== PERSISTENCE =====
 
     @Override
-    public void saveToFile() {
-        super.save(bookings, FILE_NAME);
+    protected List<Booking> rebuild(List<Booking> loaded) {
+        List<Booking> duplicates = bookings.rebuild(loaded);
+        bookingsByTour.rebuild(bookings.view());
+        nameIndex.rebuild(bookings.view());
+        versions.rebuild(bookings.view());
+        return duplicates;
     }
-}
\ No newline at end of file
+}
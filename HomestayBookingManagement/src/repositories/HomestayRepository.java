@@ -1,114 +1,88 @@
 package repositories;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import models.Homestay;
-import repositories.interfaces.IHomestayRepository;
-import utilities.AppConstants; // [UPDATE]
-import utilities.TextFileHandler;
+import repositories.indexes.PrimaryKeyIndex;
+import repositories.indexes.TrigramIndex;
+import repositories.indexes.VersionedMap;
+import repositories.interfaces.Snapshot;
 
 /**
  * Homestay Repository - Handles CRUD + Business Queries
  */
-public class HomestayRepository extends TextFileHandler<Homestay> implements IHomestayRepository {
+public class HomestayRepository extends AbstractHomestayRepository {
 
-    private final List<Homestay> homestays = new ArrayList<>();
-
-    // [UPDATE] Use AppConstants
-    private final String FILE_NAME = AppConstants.FILE_HOMESTAYS;
-
-    @Override
-    public Homestay parseLine(String line) {
-        if (line == null || line.trim().isEmpty())
-            return null;
-
-        try {
-            // Logic handled "-" separated values as seen in original code
-            String[] parts = line.split("-");
-            if (parts.length >= 5) {
-                String homeId = parts[0].trim();
-                String homeName = parts[1].trim();
-                int roomNumber = Integer.parseInt(parts[2].trim());
-
-                // Address might contain dashes? Original logic re-assembled it:
-                String address = parts[3].trim();
-                if (parts.length > 5) {
-                    for (int i = 4; i < parts.length - 1; i++) {
-                        address += "-" + parts[i];
-                    }
-                }
-
-                int maximumcapacity = Integer.parseInt(parts[parts.length - 1].trim());
-                return new Homestay(homeId, homeName, roomNumber, address, maximumcapacity);
-            }
-        } catch (NumberFormatException e) {
-            String sanitizedLine = line.replaceAll("[\r\n\t]", "_");
-            System.err.println(">> Lỗi định dạng số ở dòng: " + sanitizedLine);
-        } catch (Exception e) {
-            String sanitizedLine = line.replaceAll("[\r\n\t]", "_");
-            System.err.println(">> Bỏ qua dòng lỗi: " + sanitizedLine + " [" + e.getMessage() + "]");
-        }
-        return null;
-    }
+    // Primary storage: homeID -> Homestay (HS0001 decoded to an int key, file order kept)
+    private final PrimaryKeyIndex<Homestay> homestays = new PrimaryKeyIndex<>(Homestay::getHomeID, "HS", 4, 6);
+    // Folded name keys (diacritic-insensitive), computed once per record
+    private final TrigramIndex<Homestay> nameIndex = new TrigramIndex<>(Homestay::getHomeID, Homestay::getHomeName);
+    // Immutable versions for snapshot readers (reports)
+    private final VersionedMap<Homestay> versions = new VersionedMap<>(Homestay::getHomeID, Homestay::copy);
 
     @Override
     public List<Homestay> findAll() {
-        return new ArrayList<>(homestays);
+        return homestays.values();
     }
 
     @Override
     public Homestay findById(String id) {
-        return homestays.stream()
-                .filter(h -> h.getHomeID().equalsIgnoreCase(id))
-                .findFirst()
-                .orElse(null);
+        return homestays.get(id);
     }
 
     @Override
     public boolean save(Homestay entity) {
-        if (exists(entity.getHomeID())) {
+        if (!homestays.insert(entity)) {
             return false;
         }
-        return homestays.add(entity);
+        nameIndex.add(entity);
+        versions.put(entity);
+        return true;
     }
 
     @Override
     public boolean update(Homestay entity) {
-        Homestay existing = findById(entity.getHomeID());
-        if (existing == null) {
+        if (homestays.replace(entity) == null) {
             return false;
         }
-        int index = homestays.indexOf(existing);
-        homestays.set(index, entity);
+        nameIndex.update(entity);
+        versions.put(entity);
         return true;
     }
 
     @Override
     public boolean delete(String id) {
-        return homestays.removeIf(h -> h.getHomeID().equalsIgnoreCase(id));
+        if (homestays.remove(id) == null) {
+            return false;
+        }
+        nameIndex.remove(id);
+        versions.remove(id);
+        return true;
     }
 
     @Override
     public boolean exists(String id) {
-        return findById(id) != null;
+        return homestays.contains(id);
     }
 
+    /**
+     * Current version, ordered by homestay ID
+     */
     @Override
-    public List<Homestay> findByName(String name) {
-        return homestays.stream()
-                .filter(h -> h.getHomeName().toLowerCase()
-                        .contains(name.toLowerCase()))
-                .collect(Collectors.toList());
+    public Snapshot<Homestay> snapshot() {
+        return versions.snapshot();
     }
 
     @Override
-    public void loadFromFile() {
-        super.load(homestays, FILE_NAME);
+    public List<Homestay> findByName(String name) {
+        return nameIndex.search(name);
+    }
 
-        // [STRICT RULE] Ensure IDs are consistent if using auto-increment,
-        // but Homestay ID seems to be String (manual entry?)
-        // If needed, we would update ID generator state here.
+    @Override
+    protected List<Homestay> rebuild(List<Homestay> loaded) {
+        List<Homestay> duplicates = homestays.rebuild(loaded);
+        nameIndex.rebuild(homestays.view());
+        versions.rebuild(homestays.view());
+        return duplicates;
     }
 }
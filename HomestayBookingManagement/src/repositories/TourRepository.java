@@ -1,182 +1,259 @@
 package repositories;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeParseException;
-import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import models.Tour;
-import repositories.interfaces.ITourRepository;
-import utilities.AppConstants; // [UPDATE]
-import utilities.TextFileHandler;
+import repositories.indexes.BitsetIndex;
+import repositories.indexes.DateIndex;
+import repositories.indexes.IntervalIndex;
+import repositories.indexes.PrimaryKeyIndex;
+import repositories.indexes.RankedIndex;
+import repositories.indexes.SecondaryIndex;
+import repositories.indexes.VersionedMap;
+import repositories.interfaces.Snapshot;
 
 /**
  * Tour Repository - Handles CRUD + Business Queries
+ *
+ * Reads and writes of the indexes hold the repository monitor (the indexes
+ * are plain hash maps and trees); snapshot() readers need no lock.
  */
-public class TourRepository extends TextFileHandler<Tour> implements ITourRepository {
+public class TourRepository extends AbstractTourRepository {
 
-    private final List<Tour> tours = new ArrayList<>();
-    // [UPDATE] Use AppConstants
-    private final String FILE_NAME = AppConstants.FILE_TOURS;
+    // Primary storage: tourId -> Tour (T00001 decoded to an int key, file order kept)
+    private final PrimaryKeyIndex<Tour> tours = new PrimaryKeyIndex<>(Tour::getTourId, "T", 5, 5);
+    // Secondary index: homeID -> tours of that homestay
+    private final SecondaryIndex<Tour> toursByHome = new SecondaryIndex<>(Tour::getTourId, Tour::getHomeID);
+    // Interval index: homeID -> [departureDate, endDate] tree for overlap checks
+    private final IntervalIndex<Tour> schedule = new IntervalIndex<>(Tour::getTourId, Tour::getHomeID,
+            Tour::getDepartureDate, Tour::getEndDate);
+    // Sorted index: departureDate -> tours, for past/upcoming range queries
+    private final DateIndex<Tour> byDeparture = new DateIndex<>(Tour::getTourId, Tour::getDepartureDate);
+    // Materialized ranking by total amount, holding only tours departing after rankingCutoff
+    private final RankedIndex<Tour> upcomingByRevenue = new RankedIndex<>(Tour::getTourId, Tour::getTotalAmount);
+    private LocalDate rankingCutoff = LocalDate.now();
+    // Booked/available flags over dense tour slots
+    private final BitsetIndex<Tour> bookedFlags = new BitsetIndex<>(Tour::getTourId, Tour::isBooked);
+    // Immutable versions for snapshot readers (reports, checkpoints)
+    private final VersionedMap<Tour> versions = new VersionedMap<>(Tour::getTourId, Tour::copy);
 
     @Override
-    public Tour parseLine(String line) {
-        if (line == null || line.trim().isEmpty()) {
-            return null;
-        }
-
-        try {
-            String[] parts = line.split(",");
-            if (parts.length < 9) {
-                System.err.println(">> Invalid format - Expected 9 fields, got " + parts.length + ": " + line);
-                return null;
-            }
-
-            String tourId = parts[0].trim();
-            if (tourId.isEmpty() || tourId.equalsIgnoreCase("TourID")) {
-                return null; // Skip header or empty ID
-            }
-
-            String tourName = parts[1].trim();
-            String time = parts[2].trim();
-            double price = Double.parseDouble(parts[3].trim());
-            String homeID = parts[4].trim();
-
-            // [UPDATE] Use AppConstants.DATE_FMT
-            LocalDate departureDate = LocalDate.parse(parts[5].trim(), AppConstants.DATE_FMT);
-            LocalDate endDate = LocalDate.parse(parts[6].trim(), AppConstants.DATE_FMT);
-
-            int numberTourist = Integer.parseInt(parts[7].trim());
-            boolean isBooked = Boolean.parseBoolean(parts[8].trim());
-
-            return new Tour(tourId, tourName, time, price, homeID, departureDate, endDate, numberTourist, isBooked);
-
-        } catch (DateTimeParseException e) {
-            String sanitizedLine = line.replaceAll("[\r\n\t]", "_");
-            System.err.println(">> Date parsing failed (expected " + AppConstants.DATE_TIME_PATTERN + "): "
-                    + sanitizedLine + " - " + e.getMessage());
-        } catch (NumberFormatException e) {
-            String sanitizedLine = line.replaceAll("[\r\n\t]", "_");
-            System.err.println(">> Number parsing failed: " + sanitizedLine + " - " + e.getMessage());
-        } catch (ArrayIndexOutOfBoundsException e) {
-            String sanitizedLine = line.replaceAll("[\r\n\t]", "_");
-            System.err.println(">> Missing required fields: " + sanitizedLine);
-        } catch (Exception e) {
-            String sanitizedLine = line.replaceAll("[\r\n\t]", "_");
-            System.err.println(">> Unexpected error parsing line: " + sanitizedLine + " - " + e.getMessage());
-        }
-        return null;
+    public synchronized List<Tour> findAll() {
+        return tours.values();
     }
 
     @Override
-    public List<Tour> findAll() {
-        return new ArrayList<>(tours);
+    public synchronized Tour findById(String id) {
+        return tours.get(id);
     }
 
     @Override
-    public Tour findById(String id) {
-        return tours.stream()
-                .filter(t -> t.getTourId().equalsIgnoreCase(id))
-                .findFirst()
-                .orElse(null);
+    public synchronized boolean save(Tour entity) {
+        if (!tours.insert(entity)) {
+            return false;
+        }
+        toursByHome.add(entity);
+        schedule.add(entity);
+        byDeparture.add(entity);
+        rankIfUpcoming(entity);
+        bookedFlags.update(entity);
+        versions.put(entity);
+        journalUpsert(entity.getTourId(), entity);
+        return true;
     }
 
     @Override
-    public boolean save(Tour entity) {
-        if (exists(entity.getTourId())) {
+    public synchronized boolean update(Tour entity) {
+        if (tours.replace(entity) == null) {
             return false;
         }
-        return tours.add(entity);
+        toursByHome.update(entity);
+        schedule.update(entity);
+        byDeparture.update(entity);
+        rankIfUpcoming(entity);
+        bookedFlags.update(entity);
+        versions.put(entity);
+        journalUpsert(entity.getTourId(), entity);
+        return true;
     }
 
     @Override
-    public boolean update(Tour entity) {
-        Tour existing = findById(entity.getTourId());
-        if (existing == null) {
+    public synchronized boolean delete(String id) {
+        if (tours.remove(id) == null) {
             return false;
         }
-        int index = tours.indexOf(existing);
-        tours.set(index, entity);
+        toursByHome.remove(id);
+        schedule.remove(id);
+        byDeparture.remove(id);
+        upcomingByRevenue.remove(id);
+        bookedFlags.remove(id);
+        versions.remove(id);
+        journalDelete(id);
         return true;
     }
 
     @Override
-    public boolean delete(String id) {
-        return tours.removeIf(t -> t.getTourId().equalsIgnoreCase(id));
+    public synchronized boolean exists(String id) {
+        return tours.contains(id);
     }
 
+    /**
+     * Current version, ordered by tour ID; writers never wait for its readers
+     */
     @Override
-    public boolean exists(String id) {
-        return findById(id) != null;
+    public Snapshot<Tour> snapshot() {
+        return versions.snapshot();
+    }
+
+    /**
+     * The booked flag itself flips with one CAS on the Tour, outside the
+     * repository lock (the lookup holds it only briefly): of several
+     * concurrent callers exactly one wins and the losers never wait for it.
+     * Only the winner takes the lock again, to refresh the booked index and
+     * journal the new state.
+     */
+    @Override
+    public boolean tryReserve(String tourId) {
+        while (true) {
+            Tour tour = findById(tourId);
+            if (tour == null || !tour.tryReserve()) {
+                return false;
+            }
+            if (bookedChanged(tour)) {
+                return true;
+            }
+            tour.release(); // Replaced by update() meanwhile: retry on the current instance
+        }
+    }
+
+    @Override
+    public boolean release(String tourId) {
+        while (true) {
+            Tour tour = findById(tourId);
+            if (tour == null || !tour.release()) {
+                return false;
+            }
+            if (bookedChanged(tour)) {
+                return true;
+            }
+            tour.tryReserve();
+        }
+    }
+
+    // Index and journal the tour's current booked state (not the value the
+    // caller set: a later flip may already have happened)
+    private synchronized boolean bookedChanged(Tour tour) {
+        if (tours.get(tour.getTourId()) != tour) {
+            return false;
+        }
+        bookedFlags.update(tour);
+        versions.put(tour);
+        journalUpsert(tour.getTourId(), tour);
+        return true;
     }
 
     // ===== BUSINESS QUERIES =====
 
     @Override
-    public List<Tour> findByHomestayId(String homeId) {
-        return tours.stream()
-                .filter(t -> t.getHomeID().equalsIgnoreCase(homeId))
-                .collect(Collectors.toList());
+    public synchronized List<Tour> findByHomestayId(String homeId) {
+        return toursByHome.get(homeId);
     }
 
     @Override
     public List<Tour> findByDateAfter(LocalDate date) {
-        return tours.stream()
-                .filter(t -> t.getDepartureDate().isAfter(date))
-                .sorted(Comparator.comparing(Tour::getTotalAmount).reversed())
-                .collect(Collectors.toList());
+        List<Tour> result;
+        synchronized (this) {
+            result = byDeparture.after(date);
+        }
+        result.sort(Comparator.comparing(Tour::getTotalAmount).reversed());
+        return result;
+    }
+
+    @Override
+    public synchronized List<Tour> findByDateBefore(LocalDate date) {
+        return byDeparture.before(date);
     }
 
     @Override
-    public List<Tour> findByDateBefore(LocalDate date) {
-        return tours.stream()
-                .filter(t -> t.getDepartureDate().isBefore(date))
-                .collect(Collectors.toList());
+    public synchronized List<Tour> findByDepartureBetween(LocalDate from, LocalDate to) {
+        return byDeparture.between(from, to);
     }
 
     @Override
-    public List<Tour> findByBooked(boolean isBooked) {
-        return tours.stream()
-                .filter(t -> t.isBooked() == isBooked)
-                .collect(Collectors.toList());
+    public synchronized List<Tour> findByBooked(boolean isBooked) {
+        return bookedFlags.find(isBooked);
     }
 
     /**
-     * Business Method: Check if tour conflicts with existing tours
+     * O(1), from the bitset's cached counts
      */
-    public boolean hasTimeConflict(Tour newTour) {
-        return tours.stream()
-                .anyMatch(existing -> existing.isOverlapWith(newTour));
+    @Override
+    public synchronized int countByBooked(boolean isBooked) {
+        return bookedFlags.count(isBooked);
+    }
+
+    @Override
+    public synchronized List<Tour> findOverlapping(String homeId, LocalDate from, LocalDate to) {
+        return schedule.findOverlapping(homeId, from, to);
     }
 
     /**
-     * Business Method: Get upcoming tours sorted by revenue (desc)
+     * Read from the materialized ranking without sorting. Equal revenue is
+     * ordered by tour ID.
      */
-    public List<Tour> getUpcomingToursByRevenue() {
-        return tours.stream()
-                .filter(Tour::isUpcoming)
-                .sorted(Comparator.comparing(Tour::getTotalAmount).reversed())
-                .collect(Collectors.toList());
+    @Override
+    public List<Tour> topUpcomingByRevenue(int k) {
+        return topUpcomingByRevenue(k, LocalDate.now());
     }
 
     /**
-     * Business Method: Get expired tours
+     * Top K tours departing after the given day, by revenue (desc)
      */
-    public List<Tour> getExpiredTours() {
-        return tours.stream()
-                .filter(Tour::isExpired)
-                .collect(Collectors.toList());
+    public synchronized List<Tour> topUpcomingByRevenue(int k, LocalDate today) {
+        advanceRankingCutoff(today);
+        return upcomingByRevenue.top(k);
     }
 
-    @Override
-    public void loadFromFile() {
-        super.load(tours, FILE_NAME);
+    // Keep the ranking limited to tours departing after the cutoff
+    private void rankIfUpcoming(Tour tour) {
+        if (tour.getDepartureDate() != null && tour.getDepartureDate().isAfter(rankingCutoff)) {
+            upcomingByRevenue.update(tour);
+        } else {
+            upcomingByRevenue.remove(tour.getTourId());
+        }
+    }
+
+    /**
+     * When the day rolls over, evict only the tours that stopped being upcoming
+     * (found through the departure-date index) instead of re-ranking everything.
+     * Called with the repository lock held, like the writers that rank tours.
+     */
+    private void advanceRankingCutoff(LocalDate today) {
+        if (today.isAfter(rankingCutoff)) {
+            for (Tour t : byDeparture.between(rankingCutoff.plusDays(1), today)) {
+                upcomingByRevenue.remove(t.getTourId());
+            }
+            rankingCutoff = today;
+        } else if (today.isBefore(rankingCutoff)) {
+            rankingCutoff = today; // Clock moved back: rebuild
+            upcomingByRevenue.rebuild(byDeparture.after(today));
+        }
     }
 
+    // ===== PERSISTENCE =====
+
     @Override
-    public void saveToFile() {
-        super.save(tours, FILE_NAME);
+    protected List<Tour> rebuild(List<Tour> loaded) {
+        List<Tour> duplicates = tours.rebuild(loaded);
+        toursByHome.rebuild(tours.view());
+        schedule.rebuild(tours.view());
+        byDeparture.rebuild(tours.view());
+        rankingCutoff = LocalDate.now();
+        upcomingByRevenue.rebuild(byDeparture.after(rankingCutoff));
+        bookedFlags.rebuild(tours.view());
+        versions.rebuild(tours.view());
+        return duplicates;
     }
-}
\ No newline at end of file
+}
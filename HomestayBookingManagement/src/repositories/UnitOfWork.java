@@ -0,0 +1,441 @@
+package repositories;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import models.Booking;
+import models.Tour;
+import repositories.indexes.PrimaryKeyIndex;
+import repositories.interfaces.IBookingRepository;
+import repositories.interfaces.ITourRepository;
+import utilities.ErrorHandler;
+import utilities.TextFileHandler;
+import utilities.TransactionLog;
+
+/**
+ * Unit of Work - One all-or-nothing change across the tour and booking
+ * repositories
+ *
+ * Writes are buffered, nothing touches the repositories until commit():
+ * <ol>
+ * <li>validate every step against the current data plus the earlier steps
+ * (e.g. a tour released earlier in the same unit may be reserved again);
+ * nothing is applied if any step is invalid</li>
+ * <li>apply the steps in order; if one fails (another client won a race, a
+ * repository refused) the applied ones are undone in reverse order</li>
+ * <li>append the commit marker to the TransactionLog, then group-commit the
+ * journals once per repository</li>
+ * </ol>
+ *
+ * Applying and appending the marker happen under the transaction log's
+ * publish gate, and the journal records written meanwhile are tagged with
+ * one transaction ID. Readers
+ * holding the gate (read(), checkpoints) see the unit entirely or not at
+ * all; replay after a crash applies its records in both journals only if
+ * the marker made it, so a half-written unit is never restored.
+ *
+ * <pre>
+ * UnitOfWork tx = new UnitOfWork(tourRepository, bookingRepository)
+ *         .reserveTour(booking.getTourID())
+ *         .saveBooking(booking);
+ * if (!tx.commit()) {
+ *     ErrorHandler.logError(new Exception(tx.getFailure()));
+ * }
+ * </pre>
+ *
+ * Validation takes no global lock and the gate is held only while applying
+ * (in memory, appends to the OS; fsync happens after it). Reservations are
+ * claimed by compare-and-set (tryReserve); callers that need more isolation
+ * hold the per-tour stripes of the tours involved (see BookingService).
+ */
+public class UnitOfWork {
+
+    /**
+     * One buffered write and its inverse
+     */
+    private abstract static class Step {
+        /**
+         * @return null if valid, otherwise the reason
+         */
+        abstract String validate();
+
+        abstract boolean apply();
+
+        abstract boolean undo();
+
+        abstract String describe();
+
+        /**
+         * Reason reported when apply() returns false
+         */
+        String applyFailure() {
+            return "Could not " + describe() + ".";
+        }
+    }
+
+    private final ITourRepository tourRepository;
+    private final IBookingRepository bookingRepository;
+    private final TransactionLog transactions;
+    private final List<Step> steps = new ArrayList<>();
+    // State as seen by the steps validated so far (normalized ID -> booked / present)
+    private final Map<String, Boolean> tourBooked = new HashMap<>();
+    private final Map<String, Boolean> bookingPresent = new HashMap<>();
+    private boolean tourChanged;
+    private boolean bookingChanged;
+    private boolean finished;
+    private String failure;
+
+    /**
+     * @throws IllegalArgumentException if the repositories journal to
+     *                                  different transaction logs
+     */
+    public UnitOfWork(ITourRepository tourRepository, IBookingRepository bookingRepository) {
+        this.tourRepository = tourRepository;
+        this.bookingRepository = bookingRepository;
+        this.transactions = transactionLog(tourRepository, bookingRepository);
+    }
+
+    /**
+     * Run a read across both repositories that sees every unit of work
+     * entirely or not at all (e.g. never a reserved tour whose booking is not
+     * saved yet). The reader must not commit a unit of work.
+     */
+    public static <R> R read(ITourRepository tourRepository, IBookingRepository bookingRepository,
+            Supplier<R> reader) {
+        return transactionLog(tourRepository, bookingRepository).read(reader);
+    }
+
+    private static TransactionLog transactionLog(ITourRepository tourRepository,
+            IBookingRepository bookingRepository) {
+        TransactionLog tours = tourRepository instanceof TextFileHandler
+                ? ((TextFileHandler<?>) tourRepository).getTransactionLog() : null;
+        TransactionLog bookings = bookingRepository instanceof TextFileHandler
+                ? ((TextFileHandler<?>) bookingRepository).getTransactionLog() : null;
+        if (tours != null && bookings != null && tours != bookings) {
+            throw new IllegalArgumentException("Tour and booking repositories use different transaction logs");
+        }
+        return tours != null ? tours : bookings != null ? bookings : TransactionLog.shared();
+    }
+
+    // ===== BUFFERED WRITES =====
+
+    /**
+     * Mark a tour as booked; invalid if it does not exist or is already booked
+     */
+    public UnitOfWork reserveTour(String tourId) {
+        return add(new Step() {
+            @Override
+            String validate() {
+                Boolean booked = isTourBooked(tourId);
+                if (booked == null) {
+                    return "Tour " + tourId + " does not exist.";
+                }
+                if (booked) {
+                    return "Tour " + tourId + " is already booked.";
+                }
+                tourBooked.put(PrimaryKeyIndex.normalize(tourId), true);
+                return null;
+            }
+
+            @Override
+            boolean apply() {
+                tourChanged = true;
+                return tourRepository.tryReserve(tourId);
+            }
+
+            @Override
+            boolean undo() {
+                return tourRepository.release(tourId);
+            }
+
+            @Override
+            String describe() {
+                return "reserve tour " + tourId;
+            }
+
+            @Override
+            String applyFailure() {
+                return "Tour " + tourId + " is already booked."; // Lost the race to another client
+            }
+        });
+    }
+
+    /**
+     * Make a tour available; a tour that is already available is left alone
+     */
+    public UnitOfWork releaseTour(String tourId) {
+        return add(new Step() {
+            private boolean needed;
+
+            @Override
+            String validate() {
+                Boolean booked = isTourBooked(tourId);
+                if (booked == null) {
+                    return "Tour " + tourId + " does not exist.";
+                }
+                needed = booked;
+                tourBooked.put(PrimaryKeyIndex.normalize(tourId), false);
+                return null;
+            }
+
+            @Override
+            boolean apply() {
+                if (!needed) {
+                    return true;
+                }
+                tourChanged = true;
+                return tourRepository.release(tourId);
+            }
+
+            @Override
+            boolean undo() {
+                return !needed || tourRepository.tryReserve(tourId);
+            }
+
+            @Override
+            String describe() {
+                return "release tour " + tourId;
+            }
+        });
+    }
+
+    public UnitOfWork saveBooking(Booking booking) {
+        String id = booking.getBookingID();
+        return add(new Step() {
+            @Override
+            String validate() {
+                if (isBookingPresent(id)) {
+                    return "Booking " + id + " already exists.";
+                }
+                bookingPresent.put(PrimaryKeyIndex.normalize(id), true);
+                return null;
+            }
+
+            @Override
+            boolean apply() {
+                bookingChanged = true;
+                return bookingRepository.save(booking);
+            }
+
+            @Override
+            boolean undo() {
+                return bookingRepository.delete(id);
+            }
+
+            @Override
+            String describe() {
+                return "save booking " + id;
+            }
+        });
+    }
+
+    public UnitOfWork updateBooking(Booking booking) {
+        String id = booking.getBookingID();
+        return add(new Step() {
+            private Booking previous;
+
+            @Override
+            String validate() {
+                if (!isBookingPresent(id)) {
+                    return "Booking " + id + " does not exist.";
+                }
+                Booking current = bookingRepository.findById(id);
+                previous = current == null ? null : current.copy(); // null: saved earlier in this unit
+                return null;
+            }
+
+            @Override
+            boolean apply() {
+                bookingChanged = true;
+                return bookingRepository.update(booking);
+            }
+
+            @Override
+            boolean undo() {
+                return previous == null || bookingRepository.update(previous);
+            }
+
+            @Override
+            String describe() {
+                return "update booking " + id;
+            }
+        });
+    }
+
+    public UnitOfWork deleteBooking(String bookingId) {
+        return add(new Step() {
+            private Booking previous;
+
+            @Override
+            String validate() {
+                if (!isBookingPresent(bookingId)) {
+                    return "Booking " + bookingId + " does not exist.";
+                }
+                Booking current = bookingRepository.findById(bookingId);
+                previous = current == null ? null : current.copy();
+                bookingPresent.put(PrimaryKeyIndex.normalize(bookingId), false);
+                return null;
+            }
+
+            @Override
+            boolean apply() {
+                bookingChanged = true;
+                return bookingRepository.delete(bookingId);
+            }
+
+            @Override
+            boolean undo() {
+                return previous == null || bookingRepository.save(previous);
+            }
+
+            @Override
+            String describe() {
+                return "delete booking " + bookingId;
+            }
+        });
+    }
+
+    private UnitOfWork add(Step step) {
+        if (finished) {
+            throw new IllegalStateException("Unit of work already committed");
+        }
+        steps.add(step);
+        return this;
+    }
+
+    // ===== COMMIT =====
+
+    /**
+     * Validate, then apply all steps or none
+     *
+     * @return true if every step was applied; false if the unit was invalid
+     *         or rolled back (see getFailure())
+     */
+    public boolean commit() {
+        if (finished) {
+            throw new IllegalStateException("Unit of work already committed");
+        }
+        finished = true;
+
+        for (Step step : steps) {
+            failure = step.validate();
+            if (failure != null) {
+                return false; // Nothing applied yet
+            }
+        }
+
+        boolean markerWritten;
+        long stamp = transactions.beginPublish();
+        try {
+            long txid = transactions.enter();
+            boolean journaled;
+            try {
+                if (!applyAll()) {
+                    return false;
+                }
+            } finally {
+                journaled = transactions.leave();
+            }
+            markerWritten = txid == 0 || !journaled || transactions.commit(txid);
+        } finally {
+            transactions.endPublish(stamp);
+        }
+
+        flush(markerWritten);
+        return true;
+    }
+
+    // Apply in order, undoing the applied steps if one fails
+    private boolean applyAll() {
+        List<Step> applied = new ArrayList<>(steps.size());
+        try {
+            for (Step step : steps) {
+                if (!step.apply()) {
+                    failure = step.applyFailure();
+                    rollback(applied);
+                    return false;
+                }
+                applied.add(step);
+            }
+            return true;
+        } catch (RuntimeException e) {
+            failure = String.valueOf(e.getMessage());
+            rollback(applied);
+            throw e;
+        }
+    }
+
+    /**
+     * @return Why the last commit() failed, or null
+     */
+    public String getFailure() {
+        return failure;
+    }
+
+    private void rollback(List<Step> applied) {
+        for (int i = applied.size() - 1; i >= 0; i--) {
+            Step step = applied.get(i);
+            try {
+                if (!step.undo()) {
+                    ErrorHandler.logError(new Exception("Rollback incomplete: could not undo " + step.describe()));
+                }
+            } catch (RuntimeException e) {
+                ErrorHandler.logError(e);
+            }
+        }
+    }
+
+    // One group commit per repository that changed, then the marker's; a
+    // full save where there is no journal, it failed or the marker is missing
+    // (the unit's records would not replay)
+    private void flush(boolean markerWritten) {
+        if (tourChanged && !journaled(tourRepository, markerWritten)) {
+            tourRepository.saveToFile();
+        }
+        if (bookingChanged && !journaled(bookingRepository, markerWritten)) {
+            bookingRepository.saveToFile();
+        }
+        transactions.flush();
+    }
+
+    // true if the repository's journal holds the unit and was group-committed
+    private static boolean journaled(Object repository, boolean markerWritten) {
+        if (!(repository instanceof TextFileHandler)) {
+            return false;
+        }
+        TextFileHandler<?> handler = (TextFileHandler<?>) repository;
+        if (!markerWritten) {
+            handler.requireCheckpoint();
+            return false;
+        }
+        return handler.commitJournal();
+    }
+
+    // ===== STATE SEEN BY VALIDATION =====
+
+    // null: no such tour
+    private Boolean isTourBooked(String tourId) {
+        String key = PrimaryKeyIndex.normalize(tourId);
+        if (key == null) {
+            return null;
+        }
+        if (tourBooked.containsKey(key)) {
+            return tourBooked.get(key);
+        }
+        Tour tour = tourRepository.findById(tourId);
+        Boolean booked = tour == null ? null : tour.isBooked();
+        tourBooked.put(key, booked);
+        return booked;
+    }
+
+    private boolean isBookingPresent(String bookingId) {
+        String key = PrimaryKeyIndex.normalize(bookingId);
+        if (key == null) {
+            return false;
+        }
+        return bookingPresent.computeIfAbsent(key, k -> bookingRepository.exists(bookingId));
+    }
+}
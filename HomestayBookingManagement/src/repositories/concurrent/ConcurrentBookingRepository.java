@@ -0,0 +1,102 @@
+package repositories.concurrent;
+
+import java.util.Collection;
+import java.util.List;
+
+import models.Booking;
+import repositories.AbstractBookingRepository;
+import repositories.indexes.SecondaryIndex;
+import repositories.indexes.TrigramIndex;
+import repositories.interfaces.Snapshot;
+
+/**
+ * Booking Repository for multi-threaded servers
+ *
+ * Same contract, parsing and file format as BookingRepository (both extend
+ * AbstractBookingRepository); storage and locking as in
+ * ConcurrentTourRepository.
+ */
+public class ConcurrentBookingRepository extends AbstractBookingRepository {
+
+    private final ConcurrentStore<Booking> bookings = new ConcurrentStore<>(Booking::getBookingID, Booking::copy);
+    private final GuardedIndex<SecondaryIndex<Booking>> bookingsByTour = new GuardedIndex<>(
+            new SecondaryIndex<>(Booking::getBookingID, Booking::getTourID));
+    private final GuardedIndex<TrigramIndex<Booking>> nameIndex = new GuardedIndex<>(
+            new TrigramIndex<>(Booking::getBookingID, Booking::getFullName));
+
+    @Override
+    public List<Booking> findAll() {
+        return bookings.values();
+    }
+
+    /**
+     * Weakly consistent live view of all bookings, without copying
+     */
+    public Collection<Booking> view() {
+        return bookings.view();
+    }
+
+    @Override
+    public Booking findById(String id) {
+        return bookings.get(id);
+    }
+
+    @Override
+    public boolean exists(String id) {
+        return bookings.contains(id);
+    }
+
+    @Override
+    public Snapshot<Booking> snapshot() {
+        return bookings.snapshot();
+    }
+
+    @Override
+    public boolean save(Booking entity) {
+        return bookings.insert(entity, booking -> {
+            bookingsByTour.write(index -> index.add(booking));
+            nameIndex.write(index -> index.add(booking));
+            journalUpsert(booking.getBookingID(), booking);
+        });
+    }
+
+    @Override
+    public boolean update(Booking entity) {
+        return bookings.replace(entity, (previous, booking) -> {
+            bookingsByTour.write(index -> index.update(booking));
+            nameIndex.write(index -> index.update(booking));
+            journalUpsert(booking.getBookingID(), booking);
+        });
+    }
+
+    @Override
+    public boolean delete(String id) {
+        return bookings.remove(id, booking -> {
+            bookingsByTour.write(index -> index.remove(id));
+            nameIndex.write(index -> index.remove(id));
+            journalDelete(id);
+        });
+    }
+
+    // ===== BUSINESS QUERIES =====
+
+    @Override
+    public List<Booking> findByTourId(String tourId) {
+        return bookingsByTour.read(index -> index.get(tourId));
+    }
+
+    @Override
+    public List<Booking> findByCustomerName(String name) {
+        return nameIndex.read(index -> index.search(name));
+    }
+
+    // ===== PERSISTENCE =====
+
+    @Override
+    protected List<Booking> rebuild(List<Booking> loaded) {
+        List<Booking> duplicates = bookings.rebuild(loaded);
+        bookingsByTour.write(index -> index.rebuild(bookings.view()));
+        nameIndex.write(index -> index.rebuild(bookings.view()));
+        return duplicates;
+    }
+}
@@ -0,0 +1,77 @@
+package repositories.concurrent;
+
+import java.util.Collection;
+import java.util.List;
+
+import models.Homestay;
+import repositories.AbstractHomestayRepository;
+import repositories.indexes.TrigramIndex;
+import repositories.interfaces.Snapshot;
+
+/**
+ * Homestay Repository for multi-threaded servers
+ *
+ * Same contract and parsing as HomestayRepository (both extend
+ * AbstractHomestayRepository); storage and locking as in
+ * ConcurrentTourRepository.
+ */
+public class ConcurrentHomestayRepository extends AbstractHomestayRepository {
+
+    private final ConcurrentStore<Homestay> homestays = new ConcurrentStore<>(Homestay::getHomeID, Homestay::copy);
+    private final GuardedIndex<TrigramIndex<Homestay>> nameIndex = new GuardedIndex<>(
+            new TrigramIndex<>(Homestay::getHomeID, Homestay::getHomeName));
+
+    @Override
+    public List<Homestay> findAll() {
+        return homestays.values();
+    }
+
+    /**
+     * Weakly consistent live view of all homestays, without copying
+     */
+    public Collection<Homestay> view() {
+        return homestays.view();
+    }
+
+    @Override
+    public Homestay findById(String id) {
+        return homestays.get(id);
+    }
+
+    @Override
+    public boolean exists(String id) {
+        return homestays.contains(id);
+    }
+
+    @Override
+    public Snapshot<Homestay> snapshot() {
+        return homestays.snapshot();
+    }
+
+    @Override
+    public boolean save(Homestay entity) {
+        return homestays.insert(entity, homestay -> nameIndex.write(index -> index.add(homestay)));
+    }
+
+    @Override
+    public boolean update(Homestay entity) {
+        return homestays.replace(entity, (previous, homestay) -> nameIndex.write(index -> index.update(homestay)));
+    }
+
+    @Override
+    public boolean delete(String id) {
+        return homestays.remove(id, homestay -> nameIndex.write(index -> index.remove(id)));
+    }
+
+    @Override
+    public List<Homestay> findByName(String name) {
+        return nameIndex.read(index -> index.search(name));
+    }
+
+    @Override
+    protected List<Homestay> rebuild(List<Homestay> loaded) {
+        List<Homestay> duplicates = homestays.rebuild(loaded);
+        nameIndex.write(index -> index.rebuild(homestays.view()));
+        return duplicates;
+    }
+}
@@ -0,0 +1,182 @@
+package repositories.concurrent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import repositories.indexes.PrimaryKeyIndex;
+import repositories.indexes.VersionedMap;
+import repositories.interfaces.Snapshot;
+import utilities.AppConstants;
+import utilities.StripedLock;
+
+/**
+ * Primary storage of the concurrent repositories: ID -> entity in a
+ * ConcurrentHashMap (case-insensitive keys, like PrimaryKeyIndex).
+ *
+ * Lookups take no lock. Writes to one ID are serialized by a lock stripe, so
+ * the follow-up work passed to insert/replace/remove (index updates, journal
+ * record) runs in the same order as the map changes. The map and the
+ * snapshot versions are always changed first: a record that reaches the
+ * journal is already visible to a checkpoint capture (see
+ * TextFileHandler.captureRows).
+ *
+ * @param <T> Entity type
+ */
+final class ConcurrentStore<T> {
+
+    private final ConcurrentHashMap<String, T> items = new ConcurrentHashMap<>();
+    private final StripedLock keyLocks = new StripedLock(AppConstants.REPOSITORY_LOCK_STRIPES);
+    private final VersionedMap<T> versions;
+    private final Function<T, String> idOf;
+
+    /**
+     * @param idOf   Extracts the primary key
+     * @param freeze Copies an entity for the snapshot versions
+     */
+    ConcurrentStore(Function<T, String> idOf, UnaryOperator<T> freeze) {
+        this.idOf = idOf;
+        this.versions = new VersionedMap<>(idOf, freeze);
+    }
+
+    T get(String id) {
+        return id == null ? null : items.get(PrimaryKeyIndex.normalize(id));
+    }
+
+    boolean contains(String id) {
+        return id != null && items.containsKey(PrimaryKeyIndex.normalize(id));
+    }
+
+    /**
+     * @param then Runs under the ID's lock once the entity is in the map
+     * @return false if the ID is taken
+     */
+    boolean insert(T entity, Consumer<T> then) {
+        String id = idOf.apply(entity);
+        if (id == null) {
+            return false;
+        }
+        return locked(id, () -> {
+            if (items.putIfAbsent(PrimaryKeyIndex.normalize(id), entity) != null) {
+                return false;
+            }
+            versions.put(entity);
+            then.accept(entity);
+            return true;
+        });
+    }
+
+    /**
+     * @param then Runs under the ID's lock with (previous, entity)
+     * @return false if the ID does not exist
+     */
+    boolean replace(T entity, BiConsumer<T, T> then) {
+        String id = idOf.apply(entity);
+        if (id == null) {
+            return false;
+        }
+        return locked(id, () -> {
+            T previous = items.replace(PrimaryKeyIndex.normalize(id), entity);
+            if (previous == null) {
+                return false;
+            }
+            versions.put(entity);
+            then.accept(previous, entity);
+            return true;
+        });
+    }
+
+    /**
+     * @param then Runs under the ID's lock with the removed entity
+     * @return false if the ID does not exist
+     */
+    boolean remove(String id, Consumer<T> then) {
+        if (id == null) {
+            return false;
+        }
+        return locked(id, () -> {
+            T removed = items.remove(PrimaryKeyIndex.normalize(id));
+            if (removed == null) {
+                return false;
+            }
+            versions.remove(id);
+            then.accept(removed);
+            return true;
+        });
+    }
+
+    /**
+     * Run an action while holding the ID's lock (writes to that ID wait)
+     */
+    <R> R locked(String id, Supplier<R> action) {
+        ReentrantLock[] held = keyLocks.lock(id);
+        try {
+            return action.get();
+        } finally {
+            StripedLock.unlock(held);
+        }
+    }
+
+    /**
+     * Publish the entity's current state to snapshot readers; call with the
+     * ID's lock held, after an in-place change (e.g. the booked flag)
+     */
+    void republish(T entity) {
+        versions.put(entity);
+    }
+
+    Snapshot<T> snapshot() {
+        return versions.snapshot();
+    }
+
+    /**
+     * Replace the contents (loading, no concurrent writers)
+     *
+     * @return Rows skipped because their ID was already taken
+     */
+    List<T> rebuild(List<T> rows) {
+        items.clear();
+        List<T> kept = new ArrayList<>(rows.size());
+        List<T> duplicates = new ArrayList<>();
+        for (T item : rows) {
+            if (items.putIfAbsent(PrimaryKeyIndex.normalize(idOf.apply(item)), item) != null) {
+                duplicates.add(item);
+            } else {
+                kept.add(item);
+            }
+        }
+        versions.rebuild(kept); // File order: saves write the rows back in it
+        return duplicates;
+    }
+
+    /**
+     * Weakly consistent live view: iterating it takes no lock and never
+     * throws ConcurrentModificationException; it sees every entity present
+     * for the whole iteration and may or may not see later changes
+     */
+    Collection<T> view() {
+        return Collections.unmodifiableCollection(items.values());
+    }
+
+    /**
+     * Copy ordered by ID (hash order would make listings and files shuffle)
+     */
+    List<T> values() {
+        List<T> result = new ArrayList<>(items.values());
+        result.sort(Comparator.comparing(item -> PrimaryKeyIndex.normalize(idOf.apply(item))));
+        return result;
+    }
+
+    int size() {
+        return items.size();
+    }
+}
@@ -0,0 +1,211 @@
+package repositories.concurrent;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import models.Tour;
+import repositories.AbstractTourRepository;
+import repositories.indexes.BitsetIndex;
+import repositories.indexes.DateIndex;
+import repositories.indexes.IntervalIndex;
+import repositories.indexes.SecondaryIndex;
+import repositories.interfaces.Snapshot;
+
+/**
+ * Tour Repository for multi-threaded servers
+ *
+ * Same contract, parsing and file format as TourRepository (both extend
+ * AbstractTourRepository), but safe to call from many threads at once: tours
+ * live in a ConcurrentHashMap (lock-free lookups, writes locked per ID), the
+ * secondary indexes sit behind StampedLocks (GuardedIndex), and snapshot
+ * readers and checkpoints use the pinned versions published on every write,
+ * under no lock.
+ *
+ * findAll() is ordered by tour ID rather than by insertion; saved files keep
+ * the insertion (file) order of the snapshot versions.
+ * loadFromFile() must not run while other threads use the repository.
+ */
+public class ConcurrentTourRepository extends AbstractTourRepository {
+
+    private final ConcurrentStore<Tour> tours = new ConcurrentStore<>(Tour::getTourId, Tour::copy);
+    private final GuardedIndex<SecondaryIndex<Tour>> toursByHome = new GuardedIndex<>(
+            new SecondaryIndex<>(Tour::getTourId, Tour::getHomeID));
+    private final GuardedIndex<IntervalIndex<Tour>> schedule = new GuardedIndex<>(
+            new IntervalIndex<>(Tour::getTourId, Tour::getHomeID, Tour::getDepartureDate, Tour::getEndDate));
+    private final GuardedIndex<DateIndex<Tour>> byDeparture = new GuardedIndex<>(
+            new DateIndex<>(Tour::getTourId, Tour::getDepartureDate));
+    private final GuardedIndex<BitsetIndex<Tour>> bookedFlags = new GuardedIndex<>(
+            new BitsetIndex<>(Tour::getTourId, Tour::isBooked));
+
+    @Override
+    public List<Tour> findAll() {
+        return tours.values();
+    }
+
+    /**
+     * Weakly consistent live view of all tours, without copying
+     */
+    public Collection<Tour> view() {
+        return tours.view();
+    }
+
+    @Override
+    public Tour findById(String id) {
+        return tours.get(id);
+    }
+
+    @Override
+    public boolean exists(String id) {
+        return tours.contains(id);
+    }
+
+    @Override
+    public Snapshot<Tour> snapshot() {
+        return tours.snapshot();
+    }
+
+    @Override
+    public boolean save(Tour entity) {
+        return tours.insert(entity, tour -> {
+            toursByHome.write(index -> index.add(tour));
+            schedule.write(index -> index.add(tour));
+            byDeparture.write(index -> index.add(tour));
+            bookedFlags.write(index -> index.update(tour));
+            journalUpsert(tour.getTourId(), tour);
+        });
+    }
+
+    @Override
+    public boolean update(Tour entity) {
+        return tours.replace(entity, (previous, tour) -> {
+            toursByHome.write(index -> index.update(tour));
+            schedule.write(index -> index.update(tour));
+            byDeparture.write(index -> index.update(tour));
+            bookedFlags.write(index -> index.update(tour));
+            journalUpsert(tour.getTourId(), tour);
+        });
+    }
+
+    @Override
+    public boolean delete(String id) {
+        return tours.remove(id, tour -> {
+            toursByHome.write(index -> index.remove(id));
+            schedule.write(index -> index.remove(id));
+            byDeparture.write(index -> index.remove(id));
+            bookedFlags.write(index -> index.remove(id));
+            journalDelete(id);
+        });
+    }
+
+    /**
+     * The booked flag flips with one CAS on the Tour, as in TourRepository;
+     * only the winner takes the tour's lock, to index and journal the change
+     */
+    @Override
+    public boolean tryReserve(String tourId) {
+        while (true) {
+            Tour tour = tours.get(tourId);
+            if (tour == null || !tour.tryReserve()) {
+                return false;
+            }
+            if (bookedChanged(tour)) {
+                return true;
+            }
+            tour.release(); // Replaced by update() meanwhile: retry on the current instance
+        }
+    }
+
+    @Override
+    public boolean release(String tourId) {
+        while (true) {
+            Tour tour = tours.get(tourId);
+            if (tour == null || !tour.release()) {
+                return false;
+            }
+            if (bookedChanged(tour)) {
+                return true;
+            }
+            tour.tryReserve();
+        }
+    }
+
+    private boolean bookedChanged(Tour tour) {
+        return tours.locked(tour.getTourId(), () -> {
+            if (tours.get(tour.getTourId()) != tour) {
+                return false;
+            }
+            tours.republish(tour);
+            bookedFlags.write(index -> index.update(tour));
+            journalUpsert(tour.getTourId(), tour);
+            return true;
+        });
+    }
+
+    // ===== BUSINESS QUERIES =====
+
+    @Override
+    public List<Tour> findByHomestayId(String homeId) {
+        return toursByHome.read(index -> index.get(homeId));
+    }
+
+    @Override
+    public List<Tour> findByDateAfter(LocalDate date) {
+        List<Tour> result = byDeparture.read(index -> index.after(date));
+        result.sort(Comparator.comparing(Tour::getTotalAmount).reversed());
+        return result;
+    }
+
+    @Override
+    public List<Tour> findByDateBefore(LocalDate date) {
+        return byDeparture.read(index -> index.before(date));
+    }
+
+    @Override
+    public List<Tour> findByDepartureBetween(LocalDate from, LocalDate to) {
+        return byDeparture.read(index -> index.between(from, to));
+    }
+
+    @Override
+    public List<Tour> findByBooked(boolean isBooked) {
+        return bookedFlags.read(index -> index.find(isBooked));
+    }
+
+    /**
+     * Two cached counters: read optimistically, without locking
+     */
+    @Override
+    public int countByBooked(boolean isBooked) {
+        return bookedFlags.peek(index -> index.count(isBooked));
+    }
+
+    @Override
+    public List<Tour> findOverlapping(String homeId, LocalDate from, LocalDate to) {
+        return schedule.read(index -> index.findOverlapping(homeId, from, to));
+    }
+
+    /**
+     * Upcoming tours by revenue, from the departure-date index (no
+     * materialized ranking: rolling its cutoff over would need its own lock)
+     */
+    @Override
+    public List<Tour> topUpcomingByRevenue(int k) {
+        List<Tour> upcoming = findByDateAfter(LocalDate.now());
+        int limit = Math.max(k, 0);
+        return limit < upcoming.size() ? new ArrayList<>(upcoming.subList(0, limit)) : upcoming;
+    }
+
+    // ===== PERSISTENCE =====
+
+    @Override
+    protected List<Tour> rebuild(List<Tour> loaded) {
+        List<Tour> duplicates = tours.rebuild(loaded);
+        toursByHome.write(index -> index.rebuild(tours.view()));
+        schedule.write(index -> index.rebuild(tours.view()));
+        byDeparture.write(index -> index.rebuild(tours.view()));
+        bookedFlags.write(index -> index.rebuild(tours.view()));
+        return duplicates;
+    }
+}
@@ -0,0 +1,67 @@
+package repositories.concurrent;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Guarded Index - Shares one single-threaded index (see repositories.indexes)
+ * between threads through a StampedLock
+ *
+ * Writers hold the write lock only for the index update itself. peek() reads
+ * optimistically: it writes nothing to the lock, validates the stamp
+ * afterwards and repeats the read under the read lock only if a writer got
+ * in between. Use it for queries that read a few fields (counts, sizes).
+ * Queries that walk trees or lists use read() instead, because a walk that
+ * races a rotation can follow a half-updated link and never end.
+ *
+ * @param <I> Index type
+ */
+public final class GuardedIndex<I> {
+
+    private final StampedLock lock = new StampedLock();
+    private final I index;
+
+    public GuardedIndex(I index) {
+        this.index = index;
+    }
+
+    /**
+     * Optimistic read, retried under the read lock on conflict
+     */
+    public <R> R peek(Function<I, R> query) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                R result = query.apply(index);
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                // Torn read of a concurrent write: retry below
+            }
+        }
+        return read(query);
+    }
+
+    /**
+     * Shared read; many readers run together, writers wait
+     */
+    public <R> R read(Function<I, R> query) {
+        long stamp = lock.readLock();
+        try {
+            return query.apply(index);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public void write(Consumer<I> update) {
+        long stamp = lock.writeLock();
+        try {
+            update.accept(index);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package repositories.indexes;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Bitset Index - Boolean flag (e.g. isBooked) over dense entity slots
+ *
+ * Every entity gets a dense slot number (freed slots are reused). One bitset
+ * marks live slots, another marks slots whose flag is set. Counts come from
+ * cached cardinalities in O(1); listing or combining with other masks is a
+ * word-parallel BitSet operation (O(n/64)).
+ *
+ * @param <T> Entity type
+ */
+public class BitsetIndex<T> {
+
+    private final Map<String, Integer> slotOfId = new HashMap<>();
+    private final List<T> slots = new ArrayList<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+    private final BitSet flagged = new BitSet();
+    private int liveCount;
+    private int flaggedCount;
+    private final Function<T, String> idOf;
+    private final Predicate<T> flagOf;
+
+    /**
+     * @param idOf   Extracts the primary key
+     * @param flagOf Flag to index (e.g. Tour::isBooked)
+     */
+    public BitsetIndex(Function<T, String> idOf, Predicate<T> flagOf) {
+        this.idOf = idOf;
+        this.flagOf = flagOf;
+    }
+
+    // ===== MAINTENANCE =====
+
+    public void add(T entity) {
+        String id = PrimaryKeyIndex.normalize(idOf.apply(entity));
+        Integer slot = slotOfId.get(id);
+        if (slot == null) {
+            slot = freeSlots.isEmpty() ? slots.size() : freeSlots.pop();
+            if (slot == slots.size()) {
+                slots.add(null);
+            }
+            slotOfId.put(id, slot);
+            live.set(slot);
+            liveCount++;
+        }
+        slots.set(slot, entity);
+        setFlag(slot, flagOf.test(entity));
+    }
+
+    public void remove(String rawId) {
+        Integer slot = slotOfId.remove(PrimaryKeyIndex.normalize(rawId));
+        if (slot == null) {
+            return;
+        }
+        setFlag(slot, false);
+        live.clear(slot);
+        liveCount--;
+        slots.set(slot, null);
+        freeSlots.push(slot);
+    }
+
+    /**
+     * Re-read the flag (entity may have been mutated in place)
+     */
+    public void update(T entity) {
+        add(entity);
+    }
+
+    public void rebuild(Collection<T> items) {
+        slotOfId.clear();
+        slots.clear();
+        freeSlots.clear();
+        live.clear();
+        flagged.clear();
+        liveCount = 0;
+        flaggedCount = 0;
+        for (T item : items) {
+            add(item);
+        }
+    }
+
+    private void setFlag(int slot, boolean value) {
+        if (flagged.get(slot) != value) {
+            flagged.set(slot, value);
+            flaggedCount += value ? 1 : -1;
+        }
+    }
+
+    // ===== QUERIES =====
+
+    /**
+     * Number of entities whose flag equals the given value, O(1)
+     */
+    public int count(boolean value) {
+        return value ? flaggedCount : liveCount - flaggedCount;
+    }
+
+    /**
+     * Copy of the slot mask for the given flag value, to AND/OR with other masks
+     */
+    public BitSet mask(boolean value) {
+        BitSet mask = (BitSet) live.clone();
+        if (value) {
+            mask.and(flagged);
+        } else {
+            mask.andNot(flagged);
+        }
+        return mask;
+    }
+
+    /**
+     * Dense slot of an entity, or -1
+     */
+    public int slotOf(String id) {
+        Integer slot = slotOfId.get(PrimaryKeyIndex.normalize(id));
+        return slot == null ? -1 : slot;
+    }
+
+    /**
+     * Materialize the entities of a slot mask (in slot order)
+     */
+    public List<T> resolve(BitSet mask) {
+        List<T> result = new ArrayList<>(mask.cardinality());
+        for (int i = mask.nextSetBit(0); i >= 0; i = mask.nextSetBit(i + 1)) {
+            T item = i < slots.size() ? slots.get(i) : null;
+            if (item != null) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Entities whose flag equals the given value
+     */
+    public List<T> find(boolean value) {
+        return resolve(mask(value));
+    }
+}
@@ -0,0 +1,112 @@
+package repositories.indexes;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Date Index - Sorted (navigable) index on one LocalDate field
+ *
+ * Range queries walk head/tail/sub-map views, so they cost O(log n + k) where
+ * k is the size of the result, not the size of the catalog.
+ *
+ * @param <T> Entity type
+ */
+public class DateIndex<T> {
+
+    private final NavigableMap<LocalDate, Map<String, T>> byDate = new TreeMap<>();
+    private final Map<String, LocalDate> dateOfId = new HashMap<>();
+    private final Function<T, String> idOf;
+    private final Function<T, LocalDate> dateOf;
+
+    public DateIndex(Function<T, String> idOf, Function<T, LocalDate> dateOf) {
+        this.idOf = idOf;
+        this.dateOf = dateOf;
+    }
+
+    // ===== MAINTENANCE =====
+
+    public void add(T entity) {
+        LocalDate date = dateOf.apply(entity);
+        if (date == null) {
+            return;
+        }
+        String id = PrimaryKeyIndex.normalize(idOf.apply(entity));
+        byDate.computeIfAbsent(date, d -> new LinkedHashMap<>()).put(id, entity);
+        dateOfId.put(id, date);
+    }
+
+    public void remove(String rawId) {
+        String id = PrimaryKeyIndex.normalize(rawId);
+        LocalDate date = dateOfId.remove(id);
+        if (date == null) {
+            return;
+        }
+        Map<String, T> bucket = byDate.get(date);
+        bucket.remove(id);
+        if (bucket.isEmpty()) {
+            byDate.remove(date);
+        }
+    }
+
+    public void update(T entity) {
+        String id = PrimaryKeyIndex.normalize(idOf.apply(entity));
+        LocalDate date = dateOf.apply(entity);
+        LocalDate oldDate = dateOfId.get(id);
+        if (oldDate != null && oldDate.equals(date)) {
+            byDate.get(date).put(id, entity); // Same day: keep position
+            return;
+        }
+        remove(id);
+        add(entity);
+    }
+
+    public void rebuild(Collection<T> items) {
+        byDate.clear();
+        dateOfId.clear();
+        for (T item : items) {
+            add(item);
+        }
+    }
+
+    // ===== RANGE QUERIES (ascending by date) =====
+
+    /**
+     * Entities with date strictly after the given date
+     */
+    public List<T> after(LocalDate date) {
+        return flatten(byDate.tailMap(date, false));
+    }
+
+    /**
+     * Entities with date strictly before the given date
+     */
+    public List<T> before(LocalDate date) {
+        return flatten(byDate.headMap(date, false));
+    }
+
+    /**
+     * Entities with from <= date <= to
+     */
+    public List<T> between(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            return new ArrayList<>();
+        }
+        return flatten(byDate.subMap(from, true, to, true));
+    }
+
+    private List<T> flatten(NavigableMap<LocalDate, Map<String, T>> range) {
+        List<T> result = new ArrayList<>();
+        for (Map<String, T> bucket : range.values()) {
+            result.addAll(bucket.values());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,145 @@
+package repositories.indexes;
+
+import java.util.Arrays;
+
+/**
+ * Primitive int -> int hash map (open addressing, linear probing)
+ *
+ * No boxing and no per-entry objects: two parallel int arrays. Deletion uses
+ * backward-shift, so there are no tombstones and probe chains stay short.
+ * Keys must be non-negative (-1 marks an empty cell).
+ */
+public class IntIntHashMap {
+
+    private static final int EMPTY = -1;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    public IntIntHashMap() {
+        this(16);
+    }
+
+    public IntIntHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int cap = 16;
+        while (cap < expectedSize * 2) {
+            cap <<= 1;
+        }
+        return cap;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9; // Fibonacci hashing spreads sequential IDs
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return Value for key, or missing if absent
+     */
+    public int get(int key, int missing) {
+        for (int i = hash(key) & mask;; i = (i + 1) & mask) {
+            int k = keys[i];
+            if (k == key) {
+                return values[i];
+            }
+            if (k == EMPTY) {
+                return missing;
+            }
+        }
+    }
+
+    public boolean containsKey(int key) {
+        for (int i = hash(key) & mask;; i = (i + 1) & mask) {
+            int k = keys[i];
+            if (k == key) {
+                return true;
+            }
+            if (k == EMPTY) {
+                return false;
+            }
+        }
+    }
+
+    public void put(int key, int value) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Key must be non-negative: " + key);
+        }
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length << 1);
+        }
+        for (int i = hash(key) & mask;; i = (i + 1) & mask) {
+            int k = keys[i];
+            if (k == key) {
+                values[i] = value;
+                return;
+            }
+            if (k == EMPTY) {
+                keys[i] = key;
+                values[i] = value;
+                size++;
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return true if the key was present
+     */
+    public boolean remove(int key) {
+        int i = hash(key) & mask;
+        while (keys[i] != key) {
+            if (keys[i] == EMPTY) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+
+        // Backward-shift: pull later entries of the chain into the gap
+        int gap = i;
+        for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+            int home = hash(keys[j]) & mask;
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        keys[gap] = EMPTY;
+        size--;
+        return true;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+}
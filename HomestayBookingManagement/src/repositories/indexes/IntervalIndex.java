@@ -0,0 +1,231 @@
+package repositories.indexes;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Interval Index - Per-group interval tree over [start, end] dates
+ *
+ * Used for tour overlap detection per homestay. Each group is a treap ordered
+ * by (start, id) and augmented with the max end date of every subtree, so an
+ * overlap query costs O(log n + k) instead of a scan over all tours.
+ *
+ * Intervals are closed on both ends, matching Tour.isOverlapWith().
+ *
+ * @param <T> Entity type
+ */
+public class IntervalIndex<T> {
+
+    private static final class Node<T> {
+        final String id;
+        final long start;
+        final long end;
+        final int priority;
+        final T value;
+        long maxEnd;
+        Node<T> left;
+        Node<T> right;
+
+        Node(String id, long start, long end, int priority, T value) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.priority = priority;
+            this.value = value;
+            this.maxEnd = end;
+        }
+    }
+
+    // Where each id currently sits, so remove() works after in-place mutation
+    private static final class Slot {
+        final String group;
+        final long start;
+
+        Slot(String group, long start) {
+            this.group = group;
+            this.start = start;
+        }
+    }
+
+    private final Map<String, Node<T>> roots = new HashMap<>();
+    private final Map<String, Slot> slotOfId = new HashMap<>();
+    private final Random random = new Random();
+    private final Function<T, String> idOf;
+    private final Function<T, String> groupOf;
+    private final Function<T, LocalDate> startOf;
+    private final Function<T, LocalDate> endOf;
+
+    public IntervalIndex(Function<T, String> idOf, Function<T, String> groupOf,
+            Function<T, LocalDate> startOf, Function<T, LocalDate> endOf) {
+        this.idOf = idOf;
+        this.groupOf = groupOf;
+        this.startOf = startOf;
+        this.endOf = endOf;
+    }
+
+    // ===== MAINTENANCE =====
+
+    public void add(T entity) {
+        LocalDate start = startOf.apply(entity);
+        LocalDate end = endOf.apply(entity);
+        if (start == null || end == null) {
+            return; // Incomplete dates can never overlap
+        }
+        String id = PrimaryKeyIndex.normalize(idOf.apply(entity));
+        String group = PrimaryKeyIndex.normalize(groupOf.apply(entity));
+        Node<T> node = new Node<>(id, start.toEpochDay(), end.toEpochDay(), random.nextInt(), entity);
+        roots.put(group, insert(roots.get(group), node));
+        slotOfId.put(id, new Slot(group, node.start));
+    }
+
+    public void remove(String rawId) {
+        String id = PrimaryKeyIndex.normalize(rawId);
+        Slot slot = slotOfId.remove(id);
+        if (slot == null) {
+            return;
+        }
+        Node<T> root = delete(roots.get(slot.group), slot.start, id);
+        if (root == null) {
+            roots.remove(slot.group);
+        } else {
+            roots.put(slot.group, root);
+        }
+    }
+
+    public void update(T entity) {
+        remove(idOf.apply(entity));
+        add(entity);
+    }
+
+    public void rebuild(Collection<T> items) {
+        roots.clear();
+        slotOfId.clear();
+        for (T item : items) {
+            add(item);
+        }
+    }
+
+    // ===== QUERIES =====
+
+    /**
+     * All entities of a group whose interval overlaps [from, to] (inclusive)
+     *
+     * @return Matches ordered by start date
+     */
+    public List<T> findOverlapping(String groupKey, LocalDate from, LocalDate to) {
+        List<T> result = new ArrayList<>();
+        if (groupKey == null || from == null || to == null) {
+            return result;
+        }
+        collect(roots.get(PrimaryKeyIndex.normalize(groupKey)), from.toEpochDay(), to.toEpochDay(), result);
+        return result;
+    }
+
+    private void collect(Node<T> n, long from, long to, List<T> out) {
+        if (n == null || n.maxEnd < from) {
+            return;
+        }
+        collect(n.left, from, to, out);
+        if (n.start <= to) {
+            if (n.end >= from) {
+                out.add(n.value);
+            }
+            collect(n.right, from, to, out);
+        }
+    }
+
+    // ===== TREAP OPERATIONS =====
+
+    private static int compare(long start, String id, Node<?> n) {
+        int c = Long.compare(start, n.start);
+        return c != 0 ? c : id.compareTo(n.id);
+    }
+
+    private static <T> void pull(Node<T> n) {
+        long max = n.end;
+        if (n.left != null && n.left.maxEnd > max) {
+            max = n.left.maxEnd;
+        }
+        if (n.right != null && n.right.maxEnd > max) {
+            max = n.right.maxEnd;
+        }
+        n.maxEnd = max;
+    }
+
+    private static <T> Node<T> rotateRight(Node<T> n) {
+        Node<T> l = n.left;
+        n.left = l.right;
+        pull(n);
+        l.right = n;
+        pull(l);
+        return l;
+    }
+
+    private static <T> Node<T> rotateLeft(Node<T> n) {
+        Node<T> r = n.right;
+        n.right = r.left;
+        pull(n);
+        r.left = n;
+        pull(r);
+        return r;
+    }
+
+    private static <T> Node<T> insert(Node<T> n, Node<T> x) {
+        if (n == null) {
+            return x;
+        }
+        if (compare(x.start, x.id, n) < 0) {
+            n.left = insert(n.left, x);
+            if (n.left.priority > n.priority) {
+                return rotateRight(n);
+            }
+        } else {
+            n.right = insert(n.right, x);
+            if (n.right.priority > n.priority) {
+                return rotateLeft(n);
+            }
+        }
+        pull(n);
+        return n;
+    }
+
+    private static <T> Node<T> delete(Node<T> n, long start, String id) {
+        if (n == null) {
+            return null;
+        }
+        int c = compare(start, id, n);
+        if (c == 0) {
+            return merge(n.left, n.right);
+        }
+        if (c < 0) {
+            n.left = delete(n.left, start, id);
+        } else {
+            n.right = delete(n.right, start, id);
+        }
+        pull(n);
+        return n;
+    }
+
+    private static <T> Node<T> merge(Node<T> a, Node<T> b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            pull(a);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        pull(b);
+        return b;
+    }
+}
@@ -0,0 +1,295 @@
+package repositories.indexes;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * Primary Key Index - Case-insensitive hash lookup on entity IDs
+ *
+ * Replaces the linear equalsIgnoreCase scan in findById/exists/save/update/delete.
+ *
+ * Storage layout:
+ * - Entities live in a dense array in insertion order, so findAll() still
+ *   follows the original file order (saveToFile() writes the same order from
+ *   the VersionedMap, which numbers entries the same way). Deleted cells are
+ *   nulled and the array is compacted once half of it is holes.
+ * - IDs in the fixed format PREFIX + digits (T00001, B00001, HS0001) are
+ *   decoded to a primitive int and mapped to their array position through an
+ *   IntIntHashMap: no String hashing and no per-entry node objects.
+ * - IDs that do not decode fall back to a String-keyed map.
+ *
+ * @param <T> Entity type
+ */
+public class PrimaryKeyIndex<T> {
+
+    private static final int NOT_FOUND = -1;
+    private static final int WIDTH_BITS = 3; // Digit count is part of the key: HS0001 != HS00001
+
+    private final Function<T, String> idOf;
+    private final String prefix;
+    private final int minDigits;
+    private final int maxDigits;
+
+    private final IntIntHashMap intPositions = new IntIntHashMap();
+    private final Map<String, Integer> stringPositions = new HashMap<>();
+    private Object[] entries = new Object[16];
+    private int end; // Next free position
+    private int live; // Non-null entries
+
+    /**
+     * String keys only
+     *
+     * @param idOf Extracts the primary key (e.g. Tour::getTourId)
+     */
+    public PrimaryKeyIndex(Function<T, String> idOf) {
+        this(idOf, null, 0, 0);
+    }
+
+    /**
+     * Decode IDs of the form prefix + [minDigits..maxDigits] digits to int keys
+     *
+     * @param idOf      Extracts the primary key
+     * @param prefix    Fixed ID prefix, matched case-insensitively (e.g. "T")
+     * @param minDigits Minimum digit count
+     * @param maxDigits Maximum digit count (at most 8)
+     */
+    public PrimaryKeyIndex(Function<T, String> idOf, String prefix, int minDigits, int maxDigits) {
+        if (maxDigits > 8) {
+            throw new IllegalArgumentException("At most 8 digits fit in an int key");
+        }
+        this.idOf = idOf;
+        this.prefix = prefix;
+        this.minDigits = minDigits;
+        this.maxDigits = maxDigits;
+    }
+
+    /**
+     * Normalize an ID so lookups match equalsIgnoreCase semantics
+     *
+     * @param id Raw ID (may be null)
+     * @return Upper-cased key, or null
+     */
+    public static String normalize(String id) {
+        return id == null ? null : id.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Decode an ID to a non-negative int key
+     *
+     * @return Key, or -1 if the ID is not in the fixed format
+     */
+    int decode(String id) {
+        if (prefix == null || id == null) {
+            return NOT_FOUND;
+        }
+        int p = prefix.length();
+        int digits = id.length() - p;
+        if (digits < minDigits || digits > maxDigits || !id.regionMatches(true, 0, prefix, 0, p)) {
+            return NOT_FOUND;
+        }
+        int value = 0;
+        for (int i = p; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') {
+                return NOT_FOUND;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return (value << WIDTH_BITS) | digits;
+    }
+
+    private int positionOf(String id) {
+        if (id == null) {
+            return NOT_FOUND;
+        }
+        int key = decode(id);
+        if (key >= 0) {
+            return intPositions.get(key, NOT_FOUND);
+        }
+        Integer pos = stringPositions.get(normalize(id));
+        return pos == null ? NOT_FOUND : pos;
+    }
+
+    private void mapPosition(String id, int pos) {
+        int key = decode(id);
+        if (key >= 0) {
+            intPositions.put(key, pos);
+        } else {
+            stringPositions.put(normalize(id), pos);
+        }
+    }
+
+    private void unmapPosition(String id) {
+        int key = decode(id);
+        if (key >= 0) {
+            intPositions.remove(key);
+        } else {
+            stringPositions.remove(normalize(id));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T at(int pos) {
+        return (T) entries[pos];
+    }
+
+    public T get(String id) {
+        int pos = positionOf(id);
+        return pos == NOT_FOUND ? null : at(pos);
+    }
+
+    public boolean contains(String id) {
+        return positionOf(id) != NOT_FOUND;
+    }
+
+    /**
+     * Insert a new entity
+     *
+     * @return false if the ID is already taken
+     */
+    public boolean insert(T entity) {
+        String id = idOf.apply(entity);
+        if (positionOf(id) != NOT_FOUND) {
+            return false;
+        }
+        if (end == entries.length) {
+            entries = Arrays.copyOf(entries, entries.length << 1);
+        }
+        entries[end] = entity;
+        mapPosition(id, end);
+        end++;
+        live++;
+        return true;
+    }
+
+    /**
+     * Replace the entity stored under the same ID (keeps its position)
+     *
+     * @return Previous entity, or null if the ID was not present
+     */
+    public T replace(T entity) {
+        int pos = positionOf(idOf.apply(entity));
+        if (pos == NOT_FOUND) {
+            return null;
+        }
+        T old = at(pos);
+        entries[pos] = entity;
+        return old;
+    }
+
+    /**
+     * @return Removed entity, or null if not found
+     */
+    public T remove(String id) {
+        int pos = positionOf(id);
+        if (pos == NOT_FOUND) {
+            return null;
+        }
+        T old = at(pos);
+        unmapPosition(id);
+        entries[pos] = null;
+        live--;
+        if (end > 32 && live < end / 2) {
+            compact();
+        }
+        return old;
+    }
+
+    // Close the holes left by remove(), keeping insertion order
+    private void compact() {
+        int write = 0;
+        for (int read = 0; read < end; read++) {
+            Object item = entries[read];
+            if (item != null) {
+                entries[write] = item;
+                mapPosition(idOf.apply(at(write)), write);
+                write++;
+            }
+        }
+        Arrays.fill(entries, write, end, null);
+        end = write;
+    }
+
+    /**
+     * Rebuild from a freshly loaded list. First occurrence of an ID wins, which
+     * matches what the old findById scan returned.
+     *
+     * @param items Loaded entities (in file order)
+     * @return Entities that were skipped as duplicates
+     */
+    public List<T> rebuild(List<T> items) {
+        intPositions.clear();
+        stringPositions.clear();
+        entries = new Object[Math.max(16, items.size())];
+        end = 0;
+        live = 0;
+        List<T> duplicates = new ArrayList<>();
+        for (T item : items) {
+            if (!insert(item)) {
+                duplicates.add(item);
+            }
+        }
+        return duplicates;
+    }
+
+    /**
+     * Read-only live view, for internal scans without copying
+     */
+    public Collection<T> view() {
+        return new AbstractCollection<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                return new Iterator<T>() {
+                    private int next = advance(0);
+
+                    private int advance(int from) {
+                        while (from < end && entries[from] == null) {
+                            from++;
+                        }
+                        return from;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < end;
+                    }
+
+                    @Override
+                    public T next() {
+                        if (next >= end) {
+                            throw new NoSuchElementException();
+                        }
+                        T item = at(next);
+                        next = advance(next + 1);
+                        return item;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return live;
+            }
+        };
+    }
+
+    /**
+     * Defensive copy in insertion order
+     */
+    public List<T> values() {
+        return new ArrayList<>(view());
+    }
+
+    public int size() {
+        return live;
+    }
+}
@@ -0,0 +1,109 @@
+package repositories.indexes;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Ranked Index - Materialized descending ordering by a numeric score
+ *
+ * Each entity is filed under (score, id) once, so reading the top K costs
+ * O(K) after an O(log n) descent, instead of re-sorting the whole list and
+ * recomputing the score inside every comparison. Equal scores are ordered by
+ * ID, so the order does not depend on insertion.
+ *
+ * @param <T> Entity type
+ */
+public class RankedIndex<T> {
+
+    private static final class Rank implements Comparable<Rank> {
+        final double score;
+        final String id;
+
+        Rank(double score, String id) {
+            this.score = score;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Rank that) {
+            int c = Double.compare(that.score, this.score); // Highest first
+            return c != 0 ? c : this.id.compareTo(that.id);
+        }
+    }
+
+    private final TreeMap<Rank, T> ranking = new TreeMap<>();
+    private final Map<String, Rank> rankOfId = new HashMap<>();
+    private final Function<T, String> idOf;
+    private final ToDoubleFunction<T> scoreOf;
+
+    /**
+     * @param idOf    Extracts the primary key
+     * @param scoreOf Score to rank by (e.g. Tour::getTotalAmount)
+     */
+    public RankedIndex(Function<T, String> idOf, ToDoubleFunction<T> scoreOf) {
+        this.idOf = idOf;
+        this.scoreOf = scoreOf;
+    }
+
+    // ===== MAINTENANCE =====
+
+    public void add(T entity) {
+        String id = PrimaryKeyIndex.normalize(idOf.apply(entity));
+        remove(id);
+        Rank rank = new Rank(scoreOf.applyAsDouble(entity), id);
+        ranking.put(rank, entity);
+        rankOfId.put(id, rank);
+    }
+
+    public void remove(String rawId) {
+        Rank rank = rankOfId.remove(PrimaryKeyIndex.normalize(rawId));
+        if (rank != null) {
+            ranking.remove(rank);
+        }
+    }
+
+    /**
+     * Re-rank after price/headcount changes (score is re-read from the entity)
+     */
+    public void update(T entity) {
+        add(entity);
+    }
+
+    public void rebuild(Collection<T> items) {
+        ranking.clear();
+        rankOfId.clear();
+        for (T item : items) {
+            add(item);
+        }
+    }
+
+    public boolean contains(String id) {
+        return rankOfId.containsKey(PrimaryKeyIndex.normalize(id));
+    }
+
+    // ===== QUERIES =====
+
+    /**
+     * Top K entities by score (descending)
+     */
+    public List<T> top(int k) {
+        List<T> result = new ArrayList<>(Math.min(Math.max(k, 0), ranking.size()));
+        for (T item : ranking.values()) {
+            if (result.size() >= k) {
+                break;
+            }
+            result.add(item);
+        }
+        return result;
+    }
+
+    public int size() {
+        return ranking.size();
+    }
+}
@@ -0,0 +1,101 @@
+package repositories.indexes;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Secondary Index - Case-insensitive multimap from a foreign key to entities
+ * (e.g. homeID -> tours, tourID -> bookings)
+ *
+ * The group key each entity was indexed under is remembered, so update() still
+ * finds the old bucket when the caller mutated the entity before calling
+ * repository.update().
+ *
+ * @param <T> Entity type
+ */
+public class SecondaryIndex<T> {
+
+    private final Map<String, Map<String, T>> groups = new HashMap<>();
+    private final Map<String, String> groupOfId = new HashMap<>();
+    private final Function<T, String> idOf;
+    private final Function<T, String> groupOf;
+
+    /**
+     * @param idOf    Extracts the primary key
+     * @param groupOf Extracts the indexed foreign key
+     */
+    public SecondaryIndex(Function<T, String> idOf, Function<T, String> groupOf) {
+        this.idOf = idOf;
+        this.groupOf = groupOf;
+    }
+
+    public void add(T entity) {
+        String id = PrimaryKeyIndex.normalize(idOf.apply(entity));
+        String group = PrimaryKeyIndex.normalize(groupOf.apply(entity));
+        groups.computeIfAbsent(group, g -> new LinkedHashMap<>()).put(id, entity);
+        groupOfId.put(id, group);
+    }
+
+    public void remove(String rawId) {
+        String id = PrimaryKeyIndex.normalize(rawId);
+        if (!groupOfId.containsKey(id)) {
+            return;
+        }
+        String group = groupOfId.remove(id);
+        Map<String, T> bucket = groups.get(group);
+        if (bucket != null) {
+            bucket.remove(id);
+            if (bucket.isEmpty()) {
+                groups.remove(group);
+            }
+        }
+    }
+
+    /**
+     * Re-index an entity whose foreign key may have changed
+     */
+    public void update(T entity) {
+        String id = PrimaryKeyIndex.normalize(idOf.apply(entity));
+        String group = PrimaryKeyIndex.normalize(groupOf.apply(entity));
+        String oldGroup = groupOfId.get(id);
+        if (oldGroup != null && oldGroup.equals(group)) {
+            groups.get(group).put(id, entity); // Same bucket: keep position
+            return;
+        }
+        remove(id);
+        add(entity);
+    }
+
+    public void rebuild(Collection<T> items) {
+        groups.clear();
+        groupOfId.clear();
+        for (T item : items) {
+            add(item);
+        }
+    }
+
+    /**
+     * Read-only live view of one bucket, for internal scans without copying
+     */
+    public Collection<T> view(String groupKey) {
+        Map<String, T> bucket = groupKey == null ? null : groups.get(PrimaryKeyIndex.normalize(groupKey));
+        return bucket == null ? Collections.<T>emptyList() : Collections.unmodifiableCollection(bucket.values());
+    }
+
+    /**
+     * Defensive copy of one bucket
+     */
+    public List<T> get(String groupKey) {
+        return new ArrayList<>(view(groupKey));
+    }
+
+    public int count(String groupKey) {
+        return view(groupKey).size();
+    }
+}
@@ -0,0 +1,152 @@
+package repositories.indexes;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import utilities.TextNormalizer;
+
+/**
+ * Trigram Index - Inverted n-gram index for substring ("contains") search
+ *
+ * Each record's text is folded once on insert (lower-case, diacritics removed,
+ * see TextNormalizer) and split into trigrams.
+ * A query intersects the posting lists of its own trigrams (smallest first)
+ * and only verifies the surviving candidates with contains(), instead of
+ * lower-casing and scanning every record.
+ *
+ * Queries shorter than 3 characters fall back to a scan over the cached
+ * normalized keys (still no per-record normalization).
+ *
+ * @param <T> Entity type
+ */
+public class TrigramIndex<T> {
+
+    private static final int GRAM = 3;
+
+    private final Map<Long, Set<String>> postings = new HashMap<>();
+    private final Map<String, String> keyOfId = new HashMap<>();
+    private final Map<String, T> entities = new LinkedHashMap<>();
+    private final Function<T, String> idOf;
+    private final Function<T, String> textOf;
+
+    /**
+     * @param idOf   Extracts the primary key
+     * @param textOf Extracts the searchable text (e.g. customer full name)
+     */
+    public TrigramIndex(Function<T, String> idOf, Function<T, String> textOf) {
+        this.idOf = idOf;
+        this.textOf = textOf;
+    }
+
+    /**
+     * Normalize text for indexing and querying (lower-case, no diacritics)
+     */
+    public static String normalize(String text) {
+        return TextNormalizer.fold(text);
+    }
+
+    // ===== MAINTENANCE =====
+
+    public void add(T entity) {
+        String id = PrimaryKeyIndex.normalize(idOf.apply(entity));
+        String key = normalize(textOf.apply(entity));
+        entities.put(id, entity);
+        keyOfId.put(id, key);
+        for (int i = 0; i + GRAM <= key.length(); i++) {
+            postings.computeIfAbsent(gram(key, i), g -> new LinkedHashSet<>()).add(id);
+        }
+    }
+
+    public void remove(String rawId) {
+        String id = PrimaryKeyIndex.normalize(rawId);
+        String key = keyOfId.remove(id);
+        if (key == null) {
+            return;
+        }
+        entities.remove(id);
+        for (int i = 0; i + GRAM <= key.length(); i++) {
+            Long g = gram(key, i);
+            Set<String> ids = postings.get(g);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(g);
+                }
+            }
+        }
+    }
+
+    public void update(T entity) {
+        String id = PrimaryKeyIndex.normalize(idOf.apply(entity));
+        String key = normalize(textOf.apply(entity));
+        if (key.equals(keyOfId.get(id))) {
+            entities.put(id, entity); // Text unchanged: postings still valid
+            return;
+        }
+        remove(id);
+        add(entity);
+    }
+
+    public void rebuild(Collection<T> items) {
+        postings.clear();
+        keyOfId.clear();
+        entities.clear();
+        for (T item : items) {
+            add(item);
+        }
+    }
+
+    // ===== QUERY =====
+
+    /**
+     * Find all records whose normalized text contains the normalized query
+     */
+    public List<T> search(String query) {
+        String q = normalize(query);
+        List<T> result = new ArrayList<>();
+        if (q.length() < GRAM) {
+            for (Map.Entry<String, T> e : entities.entrySet()) {
+                if (keyOfId.get(e.getKey()).contains(q)) {
+                    result.add(e.getValue());
+                }
+            }
+            return result;
+        }
+
+        // Collect posting lists; any missing trigram means no match
+        List<Set<String>> lists = new ArrayList<>();
+        for (int i = 0; i + GRAM <= q.length(); i++) {
+            Set<String> ids = postings.get(gram(q, i));
+            if (ids == null) {
+                return result;
+            }
+            lists.add(ids);
+        }
+        lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+        Set<String> smallest = lists.get(0);
+        for (String id : smallest) {
+            boolean inAll = true;
+            for (int j = 1; j < lists.size() && inAll; j++) {
+                inAll = lists.get(j).contains(id);
+            }
+            // Trigram hits are necessary, not sufficient: verify the substring
+            if (inAll && keyOfId.get(id).contains(q)) {
+                result.add(entities.get(id));
+            }
+        }
+        return result;
+    }
+
+    // Pack three UTF-16 chars into one long (no String allocation per gram)
+    private static Long gram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+}
@@ -0,0 +1,380 @@
+package repositories.indexes;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import repositories.interfaces.Snapshot;
+
+/**
+ * Versioned Map - Multi-version (MVCC) copy of a repository for snapshot reads
+ *
+ * Every version is an immutable treap ordered by ID (priorities derived from
+ * the ID hash, so the shape does not depend on insertion order). A write
+ * copies only the O(log n) nodes on the path to the changed ID and shares
+ * the rest of the tree with the previous version, then publishes the new
+ * root with one compare-and-set. Readers just read the current root: no
+ * lock, no counter, nothing a writer has to wait for or clean up after.
+ *
+ * Entities are frozen (copied) on the way in, since models are mutable and
+ * the live instance keeps changing after it is published.
+ *
+ * Each entry also keeps the sequence number of its first insert (loaded rows
+ * are numbered in file order, an update keeps the number), so a pinned
+ * version can be written back in file order, as PrimaryKeyIndex lists it.
+ *
+ * @param <T> Entity type
+ */
+public class VersionedMap<T> {
+
+    private static final class Node<T> {
+        final String key;
+        final int priority;
+        final long seq; // Insertion order
+        final T value;
+        final Node<T> left;
+        final Node<T> right;
+        final int size;
+
+        Node(String key, int priority, long seq, T value, Node<T> left, Node<T> right) {
+            this.key = key;
+            this.priority = priority;
+            this.seq = seq;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.size = 1 + sizeOf(left) + sizeOf(right);
+        }
+
+        Node<T> with(Node<T> newLeft, Node<T> newRight) {
+            return new Node<>(key, priority, seq, value, newLeft, newRight);
+        }
+    }
+
+    private static int sizeOf(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int priorityOf(String key) {
+        int h = key.hashCode() * 0x9E3779B9; // Fibonacci hashing scrambles sequential IDs
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * One published version
+     */
+    private static final class Version<T> implements Snapshot<T> {
+        final Node<T> root;
+        final long number;
+
+        Version(Node<T> root, long number) {
+            this.root = root;
+            this.number = number;
+        }
+
+        @Override
+        public long version() {
+            return number;
+        }
+
+        @Override
+        public int size() {
+            return sizeOf(root);
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new Iterator<T>() {
+                private final ArrayDeque<Node<T>> path = new ArrayDeque<>();
+
+                {
+                    descend(root);
+                }
+
+                private void descend(Node<T> node) {
+                    for (; node != null; node = node.left) {
+                        path.push(node);
+                    }
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return !path.isEmpty();
+                }
+
+                @Override
+                public T next() {
+                    if (path.isEmpty()) {
+                        throw new NoSuchElementException();
+                    }
+                    Node<T> node = path.pop();
+                    descend(node.right);
+                    return node.value;
+                }
+            };
+        }
+
+        @Override
+        public List<T> asList() {
+            return new AbstractList<T>() {
+                @Override
+                public T get(int index) {
+                    if (index < 0 || index >= sizeOf(root)) {
+                        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + sizeOf(root));
+                    }
+                    Node<T> node = root;
+                    while (true) {
+                        int leftSize = sizeOf(node.left);
+                        if (index < leftSize) {
+                            node = node.left;
+                        } else if (index == leftSize) {
+                            return node.value;
+                        } else {
+                            index -= leftSize + 1;
+                            node = node.right;
+                        }
+                    }
+                }
+
+                @Override
+                public Iterator<T> iterator() {
+                    return Version.this.iterator();
+                }
+
+                @Override
+                public int size() {
+                    return sizeOf(root);
+                }
+            };
+        }
+
+        @Override
+        public List<T> inInsertionOrder() {
+            List<Node<T>> nodes = new ArrayList<>(sizeOf(root));
+            ArrayDeque<Node<T>> pending = new ArrayDeque<>();
+            if (root != null) {
+                pending.push(root);
+            }
+            while (!pending.isEmpty()) {
+                Node<T> node = pending.pop();
+                nodes.add(node);
+                if (node.left != null) {
+                    pending.push(node.left);
+                }
+                if (node.right != null) {
+                    pending.push(node.right);
+                }
+            }
+            nodes.sort(Comparator.comparingLong(node -> node.seq));
+            List<T> result = new ArrayList<>(nodes.size());
+            for (Node<T> node : nodes) {
+                result.add(node.value);
+            }
+            return result;
+        }
+
+        T get(String key) {
+            Node<T> node = root;
+            while (node != null) {
+                int c = key.compareTo(node.key);
+                if (c == 0) {
+                    return node.value;
+                }
+                node = c < 0 ? node.left : node.right;
+            }
+            return null;
+        }
+    }
+
+    private final AtomicReference<Version<T>> current = new AtomicReference<>(new Version<>(null, 0));
+    private final AtomicLong nextSeq = new AtomicLong();
+    private final Function<T, String> idOf;
+    private final UnaryOperator<T> freeze;
+
+    /**
+     * @param idOf   Extracts the primary key
+     * @param freeze Copies an entity (e.g. Tour::copy)
+     */
+    public VersionedMap(Function<T, String> idOf, UnaryOperator<T> freeze) {
+        this.idOf = idOf;
+        this.freeze = freeze;
+    }
+
+    // ===== WRITES =====
+
+    /**
+     * Publish a version holding a copy of the entity's current state
+     */
+    public void put(T entity) {
+        String key = PrimaryKeyIndex.normalize(idOf.apply(entity));
+        if (key == null) {
+            return;
+        }
+        T frozen = freeze.apply(entity);
+        long seq = nextSeq.getAndIncrement(); // Used only if the key is new
+        publish(root -> insert(root, key, priorityOf(key), seq, frozen));
+    }
+
+    public void remove(String rawId) {
+        String key = PrimaryKeyIndex.normalize(rawId);
+        if (key == null) {
+            return;
+        }
+        publish(root -> delete(root, key));
+    }
+
+    /**
+     * Publish a version holding exactly the given entities (after a load)
+     *
+     * @param items Entities in file order (that becomes their insertion order)
+     */
+    public void rebuild(Collection<T> items) {
+        List<Node<T>> leaves = new ArrayList<>(items.size());
+        long seq = 0;
+        for (T item : items) {
+            String key = PrimaryKeyIndex.normalize(idOf.apply(item));
+            if (key != null) {
+                leaves.add(new Node<>(key, priorityOf(key), seq++, freeze.apply(item), null, null));
+            }
+        }
+        nextSeq.set(seq);
+        leaves.sort(Comparator.comparing(node -> node.key));
+        Node<T> root = build(leaves);
+        publish(old -> root);
+    }
+
+    private void publish(UnaryOperator<Node<T>> change) {
+        while (true) {
+            Version<T> base = current.get();
+            Version<T> next = new Version<>(change.apply(base.root), base.number + 1);
+            if (current.compareAndSet(base, next)) {
+                return;
+            }
+            // Another writer published first: redo the change on its version
+        }
+    }
+
+    // ===== READS =====
+
+    /**
+     * Pin the current version (one volatile read)
+     */
+    public Snapshot<T> snapshot() {
+        return current.get();
+    }
+
+    /**
+     * Entity as of the current version
+     */
+    public T get(String rawId) {
+        String key = PrimaryKeyIndex.normalize(rawId);
+        return key == null ? null : current.get().get(key);
+    }
+
+    public int size() {
+        return current.get().size();
+    }
+
+    // ===== PERSISTENT TREAP (path copying) =====
+
+    private static <T> Node<T> insert(Node<T> node, String key, int priority, long seq, T value) {
+        if (node == null) {
+            return new Node<>(key, priority, seq, value, null, null);
+        }
+        int c = key.compareTo(node.key);
+        if (c == 0) {
+            return new Node<>(key, node.priority, node.seq, value, node.left, node.right); // Keeps its place
+        }
+        if (c < 0) {
+            Node<T> left = insert(node.left, key, priority, seq, value);
+            if (left.priority > node.priority) {
+                return left.with(left.left, node.with(left.right, node.right)); // Rotate right
+            }
+            return node.with(left, node.right);
+        }
+        Node<T> right = insert(node.right, key, priority, seq, value);
+        if (right.priority > node.priority) {
+            return right.with(node.with(node.left, right.left), right.right); // Rotate left
+        }
+        return node.with(node.left, right);
+    }
+
+    private static <T> Node<T> delete(Node<T> node, String key) {
+        if (node == null) {
+            return null;
+        }
+        int c = key.compareTo(node.key);
+        if (c == 0) {
+            return merge(node.left, node.right);
+        }
+        if (c < 0) {
+            Node<T> left = delete(node.left, key);
+            return left == node.left ? node : node.with(left, node.right);
+        }
+        Node<T> right = delete(node.right, key);
+        return right == node.right ? node : node.with(node.left, right);
+    }
+
+    // All keys of a are below all keys of b
+    private static <T> Node<T> merge(Node<T> a, Node<T> b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priority > b.priority) {
+            return a.with(a.left, merge(a.right, b));
+        }
+        return b.with(merge(a, b.left), b.right);
+    }
+
+    // Treap over sorted leaves in O(n): rightmost-spine stack (Cartesian tree).
+    // Duplicate keys keep the first entity, as PrimaryKeyIndex does.
+    private static <T> Node<T> build(List<Node<T>> sorted) {
+        List<Node<T>> unique = new ArrayList<>(sorted.size());
+        for (Node<T> leaf : sorted) {
+            if (unique.isEmpty() || !unique.get(unique.size() - 1).key.equals(leaf.key)) {
+                unique.add(leaf);
+            }
+        }
+        // Index links while building, turned into Nodes afterwards
+        int n = unique.size();
+        int[] left = new int[n];
+        int[] right = new int[n];
+        int[] stack = new int[n];
+        int top = -1;
+        for (int i = 0; i < n; i++) {
+            left[i] = -1;
+            right[i] = -1;
+            int last = -1;
+            while (top >= 0 && unique.get(stack[top]).priority < unique.get(i).priority) {
+                last = stack[top--];
+            }
+            left[i] = last;
+            if (top >= 0) {
+                right[stack[top]] = i;
+            }
+            stack[++top] = i;
+        }
+        return top < 0 ? null : link(unique, left, right, stack[0]);
+    }
+
+    private static <T> Node<T> link(List<Node<T>> leaves, int[] left, int[] right, int i) {
+        if (i < 0) {
+            return null;
+        }
+        Node<T> leaf = leaves.get(i);
+        return new Node<>(leaf.key, leaf.priority, leaf.seq, leaf.value,
+                link(leaves, left, right, left[i]), link(leaves, left, right, right[i]));
+    }
+}
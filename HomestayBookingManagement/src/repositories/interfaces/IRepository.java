@@ -19,4 +19,12 @@ public interface IRepository<T> {
     boolean delete(String id);
     
     boolean exists(String id);
+
+    /**
+     * Pin the current version for a long read (report, export): it never
+     * changes afterwards and holds no lock. The default copies findAll().
+     */
+    default Snapshot<T> snapshot() {
+        return Snapshot.of(findAll());
+    }
 }
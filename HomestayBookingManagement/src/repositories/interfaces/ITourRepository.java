@@ -15,8 +15,34 @@ public interface ITourRepository extends IRepository<Tour> {
     List<Tour> findByDateAfter(LocalDate date);
     
     List<Tour> findByDateBefore(LocalDate date);
+
+    /**
+     * Tours departing within [from, to] (inclusive), ordered by departure date
+     */
+    List<Tour> findByDepartureBetween(LocalDate from, LocalDate to);
     
     List<Tour> findByBooked(boolean isBooked);
+
+    /**
+     * Tours of a homestay whose [departureDate, endDate] intersects [from, to]
+     */
+    List<Tour> findOverlapping(String homeId, LocalDate from, LocalDate to);
+    
+    /**
+     * Atomically mark a tour as booked
+     *
+     * @return true if this call booked it; false if it was already booked or
+     *         does not exist
+     */
+    boolean tryReserve(String tourId);
+
+    /**
+     * Atomically mark a tour as available again
+     *
+     * @return true if this call released it; false if it was not booked or
+     *         does not exist
+     */
+    boolean release(String tourId);
     
     void loadFromFile();
     
@@ -0,0 +1,74 @@
+package repositories.interfaces;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Snapshot - Immutable view of a repository at one version
+ *
+ * A reader pins a snapshot once and can iterate it as long as it likes:
+ * later writes publish new versions and never change this one, so a report
+ * sees every record exactly as of the same moment, without locks and without
+ * copying the data.
+ *
+ * @param <T> Entity type
+ */
+public interface Snapshot<T> extends Iterable<T> {
+
+    /**
+     * Version number, increasing with every published write
+     */
+    long version();
+
+    int size();
+
+    /**
+     * Read-only list view (no copy)
+     */
+    List<T> asList();
+
+    /**
+     * Copy in insertion order: file order for loaded rows, new rows at the
+     * end, updated rows in place. Costs a sort, so it is meant for writing
+     * the data file back, not for reads.
+     */
+    default List<T> inInsertionOrder() {
+        return asList();
+    }
+
+    default Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Snapshot over a list the caller owns and no longer changes (e.g. a
+     * fresh findAll() copy); version 0
+     */
+    static <T> Snapshot<T> of(List<T> items) {
+        List<T> view = Collections.unmodifiableList(items);
+        return new Snapshot<T>() {
+            @Override
+            public long version() {
+                return 0;
+            }
+
+            @Override
+            public int size() {
+                return view.size();
+            }
+
+            @Override
+            public List<T> asList() {
+                return view;
+            }
+
+            @Override
+            public Iterator<T> iterator() {
+                return view.iterator();
+            }
+        };
+    }
+}
@@ -1,18 +1,26 @@
 package services;
 
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
 
 import models.Booking;
 import models.Tour;
+import repositories.UnitOfWork;
 import repositories.interfaces.IBookingRepository;
 import repositories.interfaces.ITourRepository;
 import services.interfaces.IService;
+import utilities.AppConstants;
 import utilities.ErrorHandler;
+import utilities.StripedLock;
 
 public class BookingService implements IService<Booking> {
 
     private final IBookingRepository bookingRepository;
     private final ITourRepository tourRepository;
+    // Remove/update of bookings on the same tour run one at a time (adds only need tryReserve);
+    // the repositories guard their own indexes for calls on different stripes
+    private final StripedLock tourLocks = new StripedLock(AppConstants.BOOKING_LOCK_STRIPES);
 
     // Dependency Injection via Constructor
     public BookingService(IBookingRepository bookingRepository, ITourRepository tourRepository) {
@@ -43,8 +51,14 @@ public class BookingService implements IService<Booking> {
     // ===== BUSINESS METHODS =====
     /**
      * Add booking with full business validation
+     *
+     * Lock-free: the tour is claimed with one compare-and-set
+     * (tryReserve), so of two clients booking the same tour exactly one
+     * wins, and bookings of different tours never wait for each other.
+     * Claim and save form one unit of work: if the save fails the claim is
+     * undone.
      */
-    public synchronized boolean addBookingWithValidation(Booking booking) {
+    public boolean addBookingWithValidation(Booking booking) {
         try {
             // 1. Check tour exists
             Tour tour = tourRepository.findById(booking.getTourID());
@@ -53,7 +67,7 @@ public class BookingService implements IService<Booking> {
                 return false;
             }
 
-            // 2. Check tour is available (not booked)
+            // 2. Check tour is available (not booked) - fast path, re-checked atomically on commit
             if (tour.isBooked()) {
                 ErrorHandler.logError(new Exception("Tour " + tour.getTourId() + " is already booked."));
                 return false;
@@ -65,16 +79,10 @@ public class BookingService implements IService<Booking> {
                 return false;
             }
 
-            // 4. Save booking
-            if (!bookingRepository.save(booking)) {
-                return false; // Duplicate booking ID
-            }
-
-            // 5. Update tour status to booked
-            tour.setIsBooked(true);
-            tourRepository.update(tour);
-
-            return true;
+            // 4. Claim the tour and save the booking, all or nothing
+            return commit(newUnitOfWork()
+                    .reserveTour(tour.getTourId())
+                    .saveBooking(booking));
         } catch (Exception e) {
             ErrorHandler.logError(e); // Centralized Error Logic
             return false;
@@ -84,21 +92,34 @@ public class BookingService implements IService<Booking> {
     /**
      * Remove booking and update tour status
      */
-    public synchronized boolean removeBookingWithValidation(String bookingId) {
+    public boolean removeBookingWithValidation(String bookingId) {
         try {
-            Booking booking = bookingRepository.findById(bookingId);
-            if (booking == null) {
-                return false;
-            }
+            while (true) {
+                Booking found = bookingRepository.findById(bookingId);
+                if (found == null) {
+                    return false;
+                }
+                ReentrantLock[] held = tourLocks.lock(found.getTourID());
+                try {
+                    Booking booking = bookingRepository.findById(bookingId);
+                    if (booking == null) {
+                        return false;
+                    }
+                    if (!booking.getTourID().equals(found.getTourID())) {
+                        continue; // Moved to another tour meanwhile: lock that one instead
+                    }
 
-            // Update tour status back to available
-            Tour tour = tourRepository.findById(booking.getTourID());
-            if (tour != null) {
-                tour.setIsBooked(false);
-                tourRepository.update(tour);
+                    UnitOfWork tx = newUnitOfWork().deleteBooking(bookingId);
+                    // Update tour status back to available
+                    Tour tour = tourRepository.findById(booking.getTourID());
+                    if (tour != null) {
+                        tx.releaseTour(tour.getTourId());
+                    }
+                    return commit(tx);
+                } finally {
+                    StripedLock.unlock(held);
+                }
             }
-
-            return bookingRepository.delete(bookingId);
         } catch (Exception e) {
             ErrorHandler.logError(e); // Centralized Error Logic
             return false;
@@ -107,43 +128,51 @@ public class BookingService implements IService<Booking> {
 
     /**
      * Update booking with business validation
+     *
+     * Claiming the new tour, updating the booking and releasing the old tour
+     * form one unit of work: if any part fails, none of it stays applied.
      */
-    public synchronized boolean updateBookingWithValidation(Booking newBooking, Booking oldBooking) {
+    public boolean updateBookingWithValidation(Booking newBooking, Booking oldBooking) {
+        // Re-pointing touches two tours: both stripes, taken in a fixed order
+        ReentrantLock[] held = tourLocks.lock(oldBooking.getTourID(), newBooking.getTourID());
         try {
+            UnitOfWork tx = newUnitOfWork();
             // If tour changed, handle availability logic
-            if (!oldBooking.getTourID().equals(newBooking.getTourID())) {
-                // 1. Release old tour
-                Tour oldTour = tourRepository.findById(oldBooking.getTourID());
-                if (oldTour != null) {
-                    oldTour.setIsBooked(false);
-                    tourRepository.update(oldTour);
-                }
-
-                // 2. Lock new tour
+            if (!oldBooking.getTourID().equalsIgnoreCase(newBooking.getTourID())) {
                 Tour newTour = tourRepository.findById(newBooking.getTourID());
                 if (newTour != null) {
-                    if (newTour.isBooked()) {
-                        ErrorHandler.logError(new Exception("New tour " + newTour.getTourId() + " is already booked!"));
-                        // Revert old tour? Strictly yes, but here we fail.
-                        // Ideally transaction-like, but simple revert:
-                        if (oldTour != null) {
-                            oldTour.setIsBooked(true);
-                            tourRepository.update(oldTour);
-                        }
-                        return false;
-                    }
-                    newTour.setIsBooked(true);
-                    tourRepository.update(newTour);
+                    tx.reserveTour(newTour.getTourId());
                 }
             }
-
-            return bookingRepository.update(newBooking);
+            tx.updateBooking(newBooking);
+            if (!oldBooking.getTourID().equalsIgnoreCase(newBooking.getTourID())) {
+                Tour oldTour = tourRepository.findById(oldBooking.getTourID());
+                if (oldTour != null) {
+                    tx.releaseTour(oldTour.getTourId());
+                }
+            }
+            return commit(tx);
         } catch (Exception e) {
             ErrorHandler.logError(e);
             return false;
+        } finally {
+            StripedLock.unlock(held);
         }
     }
 
+    private UnitOfWork newUnitOfWork() {
+        return new UnitOfWork(tourRepository, bookingRepository);
+    }
+
+    // Commit a unit of work, logging why it was refused or rolled back
+    private boolean commit(UnitOfWork tx) {
+        if (tx.commit()) {
+            return true;
+        }
+        ErrorHandler.logError(new Exception(tx.getFailure()));
+        return false;
+    }
+
     /**
      * Find bookings by customer name (partial match)
      */
@@ -155,7 +184,55 @@ public class BookingService implements IService<Booking> {
         bookingRepository.loadFromFile();
     }
 
+    /**
+     * Referential check after loading: bookings whose tour does not exist.
+     * Runs between units of work, never halfway through one.
+     *
+     * @return Bookings pointing at an unknown tourID (empty when consistent)
+     */
+    public List<Booking> findBookingsWithUnknownTour() {
+        return UnitOfWork.read(tourRepository, bookingRepository, () -> bookingRepository.snapshot()
+                .stream()
+                .filter(b -> !tourRepository.exists(b.getTourID()))
+                .collect(Collectors.toList()));
+    }
+
     public void saveToFile() {
         bookingRepository.saveToFile();
     }
+
+    /**
+     * Background checkpoint: rewrite the data file only when the journal
+     * holds records. Without a journal this is a plain full save.
+     */
+    public void checkpoint() {
+        try {
+            if (bookingRepository instanceof repositories.AbstractBookingRepository) {
+                ((repositories.AbstractBookingRepository) bookingRepository).compact();
+                return;
+            }
+        } catch (ClassCastException e) {
+            ErrorHandler.logError(new Exception(
+                    "Warning: Cannot read journal state - saving anyway: " + e.getMessage()));
+        }
+        saveToFile();
+    }
+
+    /**
+     * Persist the changes of one operation (journal group commit). Without a
+     * working journal this falls back to a full save.
+     */
+    public void commit() {
+        try {
+            if (bookingRepository instanceof repositories.AbstractBookingRepository) {
+                if (((repositories.AbstractBookingRepository) bookingRepository).commitJournal()) {
+                    return;
+                }
+            }
+        } catch (ClassCastException e) {
+            ErrorHandler.logError(new Exception(
+                    "Warning: Cannot commit booking journal - using fallback method: " + e.getMessage()));
+        }
+        saveToFile();
+    }
 }
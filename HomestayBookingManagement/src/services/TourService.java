@@ -1,11 +1,17 @@
 package services;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import models.Homestay;
 import models.Tour;
+import repositories.indexes.PrimaryKeyIndex;
 import repositories.interfaces.IHomestayRepository;
 import repositories.interfaces.ITourRepository;
+import repositories.interfaces.Snapshot;
 import services.interfaces.IService;
 import utilities.ErrorHandler;
 
@@ -111,8 +117,8 @@ public class TourService implements IService<Tour> {
 
         // 4. Check time conflict with existing tours
         try {
-            if (tourRepository instanceof repositories.TourRepository) {
-                if (((repositories.TourRepository) tourRepository).hasTimeConflict(tour)) {
+            if (tourRepository instanceof repositories.AbstractTourRepository) {
+                if (((repositories.AbstractTourRepository) tourRepository).hasTimeConflict(tour)) {
                     return false; // Time overlap detected
                 }
             }
@@ -141,9 +147,10 @@ public class TourService implements IService<Tour> {
         if (!newTour.getDepartureDate().equals(oldTour.getDepartureDate())
                 || !newTour.getEndDate().equals(oldTour.getEndDate())) {
 
-            // Check against ALL other tours
-            List<Tour> existingTours = tourRepository.findAll();
-            for (Tour existingTour : existingTours) {
+            // Check against tours of the same homestay whose dates intersect
+            List<Tour> candidates = tourRepository.findOverlapping(newTour.getHomeID(),
+                    newTour.getDepartureDate(), newTour.getEndDate());
+            for (Tour existingTour : candidates) {
                 // Skip self
                 if (existingTour.getTourId().equalsIgnoreCase(newTour.getTourId())) {
                     continue;
@@ -170,6 +177,18 @@ public class TourService implements IService<Tour> {
         tourRepository.loadFromFile();
     }
 
+    /**
+     * Referential check after loading: tours whose homestay does not exist
+     *
+     * @return Tours pointing at an unknown homeID (empty when consistent)
+     */
+    public List<Tour> findToursWithUnknownHomestay() {
+        return tourRepository.snapshot()
+                .stream()
+                .filter(t -> !homestayRepository.exists(t.getHomeID()))
+                .collect(Collectors.toList());
+    }
+
     /**
      * Save tour data to file Called when data changes or application exits
      */
@@ -177,6 +196,41 @@ public class TourService implements IService<Tour> {
         tourRepository.saveToFile();
     }
 
+    /**
+     * Background checkpoint: rewrite the data file only when the journal
+     * holds records. Without a journal this is a plain full save.
+     */
+    public void checkpoint() {
+        try {
+            if (tourRepository instanceof repositories.AbstractTourRepository) {
+                ((repositories.AbstractTourRepository) tourRepository).compact();
+                return;
+            }
+        } catch (ClassCastException e) {
+            ErrorHandler.logError(new Exception(
+                    "Warning: Cannot read journal state - saving anyway: " + e.getMessage()));
+        }
+        saveToFile();
+    }
+
+    /**
+     * Persist the changes of one operation (journal group commit). Without a
+     * working journal this falls back to a full save.
+     */
+    public void commit() {
+        try {
+            if (tourRepository instanceof repositories.AbstractTourRepository) {
+                if (((repositories.AbstractTourRepository) tourRepository).commitJournal()) {
+                    return;
+                }
+            }
+        } catch (ClassCastException e) {
+            ErrorHandler.logError(new Exception(
+                    "Warning: Cannot commit tour journal - using fallback method: " + e.getMessage()));
+        }
+        saveToFile();
+    }
+
     // ===== BUSINESS QUERY METHODS =====
     /**
      * Get tours with departure date after today Business Rule: Future tours
@@ -206,8 +260,8 @@ public class TourService implements IService<Tour> {
      */
     public List<Tour> getUpcomingToursByRevenue() {
         try {
-            if (tourRepository instanceof repositories.TourRepository) {
-                return ((repositories.TourRepository) tourRepository).getUpcomingToursByRevenue();
+            if (tourRepository instanceof repositories.AbstractTourRepository) {
+                return ((repositories.AbstractTourRepository) tourRepository).getUpcomingToursByRevenue();
             }
         } catch (ClassCastException e) {
             ErrorHandler.logError(new Exception(
@@ -216,6 +270,26 @@ public class TourService implements IService<Tour> {
         return getLaterThanToday(); // Fallback to basic method
     }
 
+    /**
+     * Get the K highest-revenue upcoming tours (dashboard)
+     *
+     * @param k Maximum number of tours to return (none if k &lt;= 0)
+     * @return Up to k upcoming tours sorted by total amount descending
+     */
+    public List<Tour> getTopUpcomingByRevenue(int k) {
+        try {
+            if (tourRepository instanceof repositories.AbstractTourRepository) {
+                return ((repositories.AbstractTourRepository) tourRepository).topUpcomingByRevenue(k);
+            }
+        } catch (ClassCastException e) {
+            ErrorHandler.logError(new Exception(
+                    "Warning: Cannot get top upcoming tours - using fallback method: " + e.getMessage()));
+        }
+        List<Tour> all = getUpcomingToursByRevenue();
+        int limit = Math.max(k, 0); // As the ranked index: no tours for a negative k
+        return all.size() > limit ? new ArrayList<>(all.subList(0, limit)) : all;
+    }
+
     /**
      * Get expired tours (business requirement) Used for menu option 3: "List
      * Tours (Departure < Today)"
@@ -224,8 +298,8 @@ public class TourService implements IService<Tour> {
      */
     public List<Tour> getExpiredTours() {
         try {
-            if (tourRepository instanceof repositories.TourRepository) {
-                return ((repositories.TourRepository) tourRepository).getExpiredTours();
+            if (tourRepository instanceof repositories.AbstractTourRepository) {
+                return ((repositories.AbstractTourRepository) tourRepository).getExpiredTours();
             }
         } catch (ClassCastException e) {
             ErrorHandler.logError(
@@ -234,6 +308,24 @@ public class TourService implements IService<Tour> {
         return getEarlierThanToday(); // Fallback to basic method
     }
 
+    /**
+     * Count booked or available tours (inventory counters)
+     *
+     * @param booked true for booked tours, false for available ones
+     * @return Number of matching tours
+     */
+    public int countTours(boolean booked) {
+        try {
+            if (tourRepository instanceof repositories.AbstractTourRepository) {
+                return ((repositories.AbstractTourRepository) tourRepository).countByBooked(booked);
+            }
+        } catch (ClassCastException e) {
+            ErrorHandler.logError(
+                    new Exception("Warning: Cannot count tours - using fallback method: " + e.getMessage()));
+        }
+        return tourRepository.findByBooked(booked).size();
+    }
+
     /**
      * Generate statistics: Total tourists per homestay Business Rule: Only
      * count booked tours
@@ -243,20 +335,30 @@ public class TourService implements IService<Tour> {
      * @return 2D array [homestayName, totalTourists]
      */
     public Object[][] getStatistics() {
-        List<Homestay> homestays = homestayRepository.findAll();
-        Object[][] statistics = new Object[homestays.size()][2];
+        // Pin one version of each repository: the report is consistent even
+        // while bookings change, and writers never wait for it
+        List<Homestay> homestays = homestayRepository.snapshot().asList();
+        Snapshot<Tour> tours = tourRepository.snapshot();
+
+        // One pass over the tours: booked tourists per homestay, keyed by the
+        // ID normalized the way the repositories match it
+        // Business Rule: Only booked tours contribute to statistics
+        // (filtered here, not through findByBooked: the booked bitset indexes
+        // the live tours, not this pinned version)
+        Map<String, Integer> touristsByHome = new HashMap<>();
+        for (Tour tour : tours) {
+            if (tour.isBooked() && tour.getHomeID() != null) {
+                touristsByHome.merge(PrimaryKeyIndex.normalize(tour.getHomeID()), tour.getNumberTourist(),
+                        Integer::sum);
+            }
+        }
 
+        Object[][] statistics = new Object[homestays.size()][2];
         for (int i = 0; i < homestays.size(); i++) {
             String homestayId = homestays.get(i).getHomeID();
             String homestayName = homestays.get(i).getHomeName();
-
-            // Calculate total tourists for BOOKED tours only
-            // Business Rule: Only booked tours contribute to statistics
-            int totalTourists = tourRepository.findByHomestayId(homestayId)
-                    .stream()
-                    .filter(Tour::isBooked) // Only booked tours
-                    .mapToInt(Tour::getNumberTourist)
-                    .sum();
+            int totalTourists = homestayId == null ? 0
+                    : touristsByHome.getOrDefault(PrimaryKeyIndex.normalize(homestayId), 0);
 
             statistics[i][0] = homestayName; // Column 0: Homestay name
             statistics[i][1] = totalTourists; // Column 1: Total tourists
@@ -9,6 +9,40 @@ public class AppConstants {
     public static final String FILE_TOURS = "Tours3.txt"; // Inferred/Checked from usage if needed, or keeping safe
                                                           // default
 
+    // Parallel Load (TextFileHandler.LoadMode.PARALLEL)
+    public static final long PARALLEL_LOAD_MIN_BYTES = 1L << 20; // Smaller files are read sequentially
+    public static final long PARALLEL_LOAD_MIN_CHUNK_BYTES = 256L << 10;
+    public static final int SAVE_BLOCK_CHARS = 128 << 10; // Characters encoded per channel write on save
+
+    // Booking Concurrency: per-tour lock stripes in BookingService
+    public static final int BOOKING_LOCK_STRIPES = 64;
+
+    // Concurrent Repositories (repositories.concurrent), for multi-threaded servers
+    public static final boolean CONCURRENT_REPOSITORIES = false; // The console app is single-threaded
+    public static final int REPOSITORY_LOCK_STRIPES = 64; // Per-ID lock stripes for writes
+
+    // Import Report: rejected lines go to e.g. Tours3.txt.rejects
+    public static final String REJECT_FILE_SUFFIX = ".rejects";
+    public static final int REJECT_ECHO_LIMIT = 5; // Rejected lines also printed to stderr
+
+    // Write-Ahead Journal (one per data file, e.g. Tours3.txt.journal)
+    public static final String JOURNAL_SUFFIX = ".journal";
+    public static final int JOURNAL_SYNC_EVERY_COMMITS = 16; // Group commit: fsync once per 16 operations...
+    public static final long JOURNAL_SYNC_INTERVAL_MS = 200; // ...or once 200 ms have passed
+    public static final String FILE_TRANSACTIONS = "Transactions.journal"; // Unit-of-work commit markers
+
+    // Background Checkpoint (snapshot rewrite + journal cleanup)
+    public static final long CHECKPOINT_INTERVAL_MS = 60_000;
+
+    // Dirty Tracking: saves with at most this many changed records (and a
+    // journal under this size) only flush the journal instead of rewriting
+    public static final int FAST_SAVE_MAX_CHANGES = 256;
+    public static final long FAST_SAVE_MAX_JOURNAL_BYTES = 4L << 20;
+
+    // Binary Snapshots (ColumnarFileHandler, stored as e.g. Tours3.txt.bin)
+    public static final boolean BINARY_SNAPSHOTS = false; // CSV stays the hand-editable default
+    public static final String BINARY_SNAPSHOT_SUFFIX = ".bin";
+
     // Date Formats
     public static final String DATE_TIME_PATTERN = "dd/MM/yyyy"; // Standard project requirement typically
     public static final String DATE_TIME_FULL_PATTERN = "dd/MM/yyyy HH:mm";
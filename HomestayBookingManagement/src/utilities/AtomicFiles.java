@@ -0,0 +1,58 @@
+package utilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Crash-safe file replacement: write a sibling temp file, fsync it, then
+ * rename it over the target. Readers (and a crash at any point) see either
+ * the complete old file or the complete new one, never a truncated mix.
+ */
+public class AtomicFiles {
+
+    public static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * Temp file next to the target (same directory, so the rename stays on
+     * one file system)
+     */
+    public static File tempFor(File target) {
+        return new File(target.getPath() + TEMP_SUFFIX);
+    }
+
+    /**
+     * fsync a finished temp file and move it over the target
+     */
+    public static void commit(File temp, File target) throws IOException {
+        try (FileChannel ch = FileChannel.open(temp.toPath(), StandardOpenOption.WRITE)) {
+            ch.force(true);
+        }
+        Path from = temp.toPath();
+        Path to = target.toPath();
+        try {
+            Files.move(from, to, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Some file systems cannot rename atomically: a plain replace is the best left
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+        }
+        syncDirectory(to.toAbsolutePath().getParent());
+    }
+
+    // Make the rename itself durable; not every platform can open a directory
+    private static void syncDirectory(Path dir) {
+        if (dir == null) {
+            return;
+        }
+        try (FileChannel ch = FileChannel.open(dir, StandardOpenOption.READ)) {
+            ch.force(true);
+        } catch (IOException e) {
+            // Best effort (e.g. Windows)
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package utilities;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs registered checkpoint tasks on one background daemon thread at a
+ * fixed interval, so snapshot rewrites never block the interactive thread.
+ *
+ * Tasks decide for themselves whether there is anything to write (e.g.
+ * TourService.checkpoint() skips when the journal is empty and nothing
+ * is dirty).
+ */
+public class CheckpointScheduler {
+
+    private final long intervalMillis;
+    private final List<Runnable> tasks = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService executor;
+
+    /**
+     * @param intervalMillis Time between checkpoint rounds (see
+     *                       AppConstants.CHECKPOINT_INTERVAL_MS)
+     */
+    public CheckpointScheduler(long intervalMillis) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive: " + intervalMillis);
+        }
+        this.intervalMillis = intervalMillis;
+    }
+
+    public CheckpointScheduler register(Runnable checkpoint) {
+        tasks.add(checkpoint);
+        return this;
+    }
+
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "checkpoint");
+            t.setDaemon(true); // Never keeps the JVM alive on exit
+            return t;
+        });
+        executor.scheduleWithFixedDelay(this::runOnce, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Run every task now, on the calling thread
+     */
+    public void runOnce() {
+        for (Runnable task : tasks) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                // One failing repository must not stop the others (or the schedule)
+                ErrorHandler.logError(e);
+            }
+        }
+    }
+
+    /**
+     * Stop scheduling and wait for a round in progress to finish
+     */
+    public synchronized void stop() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+    }
+
+    public synchronized boolean isRunning() {
+        return executor != null;
+    }
+}
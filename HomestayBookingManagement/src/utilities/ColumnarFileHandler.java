@@ -0,0 +1,382 @@
+package utilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Versioned binary columnar snapshot format, read and written through NIO
+ * buffers, in place of Java serialization.
+ *
+ * File layout (big-endian):
+ *   magic "HBMC" | version u16 | column count u16 | row count i32
+ *   per column: type u8 | name length u16 | name UTF-8
+ *   per column block:
+ *     STRING  dictionary size i32, entries (length i32 + UTF-8), code width
+ *             u8 (1/2/4), one code per row (0 = null, n = entry n-1)
+ *     DATE    epoch day i32 per row (Integer.MIN_VALUE = null)
+ *     INT     i32 per row
+ *     DOUBLE  f64 per row
+ *     BOOL    bitmap, one bit per row
+ *   CRC32 of everything above, i32
+ *
+ * Repeated strings (homestay IDs, tour names) are stored once, and loading
+ * is bulk array decoding with no text parsing at all.
+ *
+ * @param <T> Entity type
+ */
+public class ColumnarFileHandler<T> implements IFileService<T> {
+
+    static final int MAGIC = 0x48424D43; // "HBMC"
+    static final int VERSION = 1;
+    private static final int NULL_DATE = Integer.MIN_VALUE;
+
+    private final ColumnarSchema<T> schema;
+
+    public ColumnarFileHandler(ColumnarSchema<T> schema) {
+        this.schema = schema;
+    }
+
+    // ===== WRITE =====
+
+    @Override
+    public boolean save(List<T> list, String fileName) {
+        List<ColumnarSchema.Column<T>> columns = schema.columns();
+        int rows = list.size();
+
+        ByteBuffer header = header(columns, rows);
+        List<ByteBuffer> blocks = new ArrayList<>();
+        blocks.add(header);
+        for (ColumnarSchema.Column<T> column : columns) {
+            blocks.add(encode(column, list));
+        }
+
+        CRC32 crc = new CRC32();
+        for (ByteBuffer block : blocks) {
+            crc.update(block.duplicate());
+        }
+        ByteBuffer trailer = ByteBuffer.allocate(4);
+        trailer.putInt((int) crc.getValue()).flip();
+        blocks.add(trailer);
+
+        File target = new File(fileName);
+        File temp = AtomicFiles.tempFor(target);
+        try {
+            try (FileChannel out = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer[] all = blocks.toArray(new ByteBuffer[0]);
+                long remaining = 0;
+                for (ByteBuffer b : all) {
+                    remaining += b.remaining();
+                }
+                while (remaining > 0) {
+                    remaining -= out.write(all);
+                }
+            }
+            AtomicFiles.commit(temp, target);
+            return true;
+        } catch (IOException e) {
+            temp.delete();
+            System.err.println("Error writing binary file " + fileName + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private ByteBuffer header(List<ColumnarSchema.Column<T>> columns, int rows) {
+        List<byte[]> names = new ArrayList<>();
+        int size = 4 + 2 + 2 + 4;
+        for (ColumnarSchema.Column<T> column : columns) {
+            byte[] name = column.name.getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            size += 1 + 2 + name.length;
+        }
+        ByteBuffer buf = ByteBuffer.allocate(size);
+        buf.putInt(MAGIC).putShort((short) VERSION).putShort((short) columns.size()).putInt(rows);
+        for (int i = 0; i < columns.size(); i++) {
+            buf.put((byte) columns.get(i).type.code);
+            buf.putShort((short) names.get(i).length).put(names.get(i));
+        }
+        buf.flip();
+        return buf;
+    }
+
+    private ByteBuffer encode(ColumnarSchema.Column<T> column, List<T> list) {
+        int rows = list.size();
+        ByteBuffer buf;
+        switch (column.type) {
+            case STRING:
+                return encodeStrings(column, list);
+            case DATE:
+                buf = ByteBuffer.allocate(4 * rows);
+                for (T item : list) {
+                    LocalDate d = column.dateOf.apply(item);
+                    buf.putInt(d == null ? NULL_DATE : (int) d.toEpochDay());
+                }
+                break;
+            case INT:
+                buf = ByteBuffer.allocate(4 * rows);
+                for (T item : list) {
+                    buf.putInt(column.intOf.applyAsInt(item));
+                }
+                break;
+            case DOUBLE:
+                buf = ByteBuffer.allocate(8 * rows);
+                for (T item : list) {
+                    buf.putDouble(column.doubleOf.applyAsDouble(item));
+                }
+                break;
+            case BOOL:
+                byte[] bits = new byte[(rows + 7) >>> 3];
+                for (int r = 0; r < rows; r++) {
+                    if (column.boolOf.test(list.get(r))) {
+                        bits[r >>> 3] |= 1 << (r & 7);
+                    }
+                }
+                buf = ByteBuffer.wrap(bits);
+                buf.position(bits.length);
+                break;
+            default:
+                throw new IllegalStateException("Unknown column type " + column.type);
+        }
+        buf.flip();
+        return buf;
+    }
+
+    private ByteBuffer encodeStrings(ColumnarSchema.Column<T> column, List<T> list) {
+        Map<String, Integer> codeOf = new HashMap<>();
+        List<byte[]> dictionary = new ArrayList<>();
+        int[] codes = new int[list.size()];
+        int dictBytes = 0;
+        for (int r = 0; r < codes.length; r++) {
+            String value = column.stringOf.apply(list.get(r));
+            if (value == null) {
+                continue; // Code 0
+            }
+            Integer code = codeOf.get(value);
+            if (code == null) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                dictionary.add(bytes);
+                dictBytes += 4 + bytes.length;
+                code = dictionary.size();
+                codeOf.put(value, code);
+            }
+            codes[r] = code;
+        }
+
+        int width = codeWidth(dictionary.size());
+        ByteBuffer buf = ByteBuffer.allocate(4 + dictBytes + 1 + codes.length * width);
+        buf.putInt(dictionary.size());
+        for (byte[] entry : dictionary) {
+            buf.putInt(entry.length).put(entry);
+        }
+        buf.put((byte) width);
+        for (int code : codes) {
+            if (width == 1) {
+                buf.put((byte) code);
+            } else if (width == 2) {
+                buf.putShort((short) code);
+            } else {
+                buf.putInt(code);
+            }
+        }
+        buf.flip();
+        return buf;
+    }
+
+    private static int codeWidth(int dictionarySize) {
+        return dictionarySize < 0xFF ? 1 : dictionarySize < 0xFFFF ? 2 : 4;
+    }
+
+    // ===== READ =====
+
+    @Override
+    public boolean load(List<T> list, String fileName) {
+        list.clear();
+        File f = new File(fileName);
+        if (!f.exists()) {
+            return false;
+        }
+        try (FileChannel ch = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < 16 || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a columnar snapshot (size " + size + ")");
+            }
+            ByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            verifyChecksum(buf);
+            decode(buf, list);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            list.clear();
+            System.err.println("Error reading binary file " + fileName + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static void verifyChecksum(ByteBuffer buf) throws IOException {
+        int end = buf.limit() - 4;
+        ByteBuffer body = buf.duplicate();
+        body.limit(end);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        if ((int) crc.getValue() != buf.getInt(end)) {
+            throw new IOException("Checksum mismatch (file is damaged)");
+        }
+    }
+
+    private void decode(ByteBuffer buf, List<T> list) throws IOException {
+        if (buf.getInt() != MAGIC) {
+            throw new IOException("Not a columnar snapshot (bad magic)");
+        }
+        int version = buf.getShort() & 0xFFFF;
+        if (version > VERSION) {
+            throw new IOException("Snapshot version " + version + " is newer than supported " + VERSION);
+        }
+        int columnCount = buf.getShort() & 0xFFFF;
+        int rows = buf.getInt();
+
+        ColumnarSchema.Type[] types = new ColumnarSchema.Type[columnCount];
+        String[] names = new String[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            types[i] = ColumnarSchema.Type.of(buf.get());
+            if (types[i] == null) {
+                throw new IOException("Unknown column type in column " + i);
+            }
+            byte[] name = new byte[buf.getShort() & 0xFFFF];
+            buf.get(name);
+            names[i] = new String(name, StandardCharsets.UTF_8);
+        }
+
+        Object[] data = new Object[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            data[i] = decodeColumn(buf, types[i], rows);
+        }
+
+        // Schema column -> decoded file column (matched by name and type)
+        List<ColumnarSchema.Column<T>> columns = schema.columns();
+        Object[] bound = new Object[columns.size()];
+        for (int c = 0; c < columns.size(); c++) {
+            for (int i = 0; i < columnCount; i++) {
+                if (names[i].equals(columns.get(c).name) && types[i] == columns.get(c).type) {
+                    bound[c] = data[i];
+                    break;
+                }
+            }
+        }
+
+        RowCursor row = new RowCursor(bound);
+        if (list instanceof ArrayList) {
+            ((ArrayList<?>) list).ensureCapacity(rows);
+        }
+        for (row.index = 0; row.index < rows; row.index++) {
+            T item = schema.create(row);
+            if (item != null) {
+                list.add(item);
+            }
+        }
+    }
+
+    private static Object decodeColumn(ByteBuffer buf, ColumnarSchema.Type type, int rows) {
+        switch (type) {
+            case STRING: {
+                String[] dictionary = new String[buf.getInt() + 1]; // [0] = null
+                for (int d = 1; d < dictionary.length; d++) {
+                    byte[] bytes = new byte[buf.getInt()];
+                    buf.get(bytes);
+                    dictionary[d] = new String(bytes, StandardCharsets.UTF_8);
+                }
+                int width = buf.get();
+                String[] values = new String[rows];
+                for (int r = 0; r < rows; r++) {
+                    int code = width == 1 ? buf.get() & 0xFF : width == 2 ? buf.getShort() & 0xFFFF : buf.getInt();
+                    values[r] = dictionary[code]; // Equal strings share one instance
+                }
+                return values;
+            }
+            case DATE:
+            case INT: {
+                int[] values = new int[rows];
+                buf.asIntBuffer().get(values);
+                buf.position(buf.position() + 4 * rows);
+                return values;
+            }
+            case DOUBLE: {
+                double[] values = new double[rows];
+                buf.asDoubleBuffer().get(values);
+                buf.position(buf.position() + 8 * rows);
+                return values;
+            }
+            case BOOL: {
+                byte[] bits = new byte[(rows + 7) >>> 3];
+                buf.get(bits);
+                return new BoolColumn(bits);
+            }
+            default:
+                throw new IllegalStateException("Unknown column type " + type);
+        }
+    }
+
+    // Typed wrapper so a bitmap can never be read as another column kind
+    private static final class BoolColumn {
+        final byte[] bits;
+
+        BoolColumn(byte[] bits) {
+            this.bits = bits;
+        }
+    }
+
+    /**
+     * Row view over the decoded column arrays; a column missing from the
+     * file reads as null / 0 / false
+     */
+    private static final class RowCursor implements ColumnarSchema.Row {
+        private final Object[] columns;
+        int index;
+
+        RowCursor(Object[] columns) {
+            this.columns = columns;
+        }
+
+        @Override
+        public String str(int column) {
+            Object c = columns[column];
+            return c == null ? null : ((String[]) c)[index];
+        }
+
+        @Override
+        public LocalDate date(int column) {
+            Object c = columns[column];
+            if (c == null) {
+                return null;
+            }
+            int day = ((int[]) c)[index];
+            return day == NULL_DATE ? null : LocalDate.ofEpochDay(day);
+        }
+
+        @Override
+        public int i32(int column) {
+            Object c = columns[column];
+            return c == null ? 0 : ((int[]) c)[index];
+        }
+
+        @Override
+        public double dbl(int column) {
+            Object c = columns[column];
+            return c == null ? 0 : ((double[]) c)[index];
+        }
+
+        @Override
+        public boolean bool(int column) {
+            Object c = columns[column];
+            return c != null && (((BoolColumn) c).bits[index >>> 3] & (1 << (index & 7))) != 0;
+        }
+    }
+}
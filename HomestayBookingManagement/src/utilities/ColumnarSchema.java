@@ -0,0 +1,135 @@
+package utilities;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Column layout of one entity type for ColumnarFileHandler.
+ *
+ * Columns are declared in order with a getter; the row factory rebuilds an
+ * entity from a Row view. Example:
+ *
+ * <pre>
+ * new ColumnarSchema&lt;Booking&gt;(row -&gt; new Booking(row.str(0), row.str(1), ...))
+ *         .string("bookingID", Booking::getBookingID)
+ *         .date("bookingDate", Booking::getBookingDate);
+ * </pre>
+ *
+ * Columns are matched by name when reading, so adding a column later does
+ * not break old snapshots (the missing column reads as null/0/false).
+ *
+ * @param <T> Entity type
+ */
+public class ColumnarSchema<T> {
+
+    public enum Type {
+        STRING(1), // Dictionary-encoded
+        DATE(2), // Epoch day, int
+        INT(3),
+        DOUBLE(4),
+        BOOL(5); // Bitmap
+
+        final int code;
+
+        Type(int code) {
+            this.code = code;
+        }
+
+        static Type of(int code) {
+            for (Type t : values()) {
+                if (t.code == code) {
+                    return t;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * One declared column
+     */
+    public static final class Column<T> {
+        final String name;
+        final Type type;
+        final Function<T, String> stringOf;
+        final Function<T, LocalDate> dateOf;
+        final ToIntFunction<T> intOf;
+        final ToDoubleFunction<T> doubleOf;
+        final Predicate<T> boolOf;
+
+        private Column(String name, Type type, Function<T, String> stringOf, Function<T, LocalDate> dateOf,
+                ToIntFunction<T> intOf, ToDoubleFunction<T> doubleOf, Predicate<T> boolOf) {
+            this.name = name;
+            this.type = type;
+            this.stringOf = stringOf;
+            this.dateOf = dateOf;
+            this.intOf = intOf;
+            this.doubleOf = doubleOf;
+            this.boolOf = boolOf;
+        }
+    }
+
+    /**
+     * Read-only view of one decoded row, by schema column position
+     */
+    public interface Row {
+        String str(int column);
+
+        LocalDate date(int column);
+
+        int i32(int column);
+
+        double dbl(int column);
+
+        boolean bool(int column);
+    }
+
+    private final List<Column<T>> columns = new ArrayList<>();
+    private final Function<Row, T> factory;
+
+    /**
+     * @param factory Rebuilds an entity from a decoded row
+     */
+    public ColumnarSchema(Function<Row, T> factory) {
+        this.factory = factory;
+    }
+
+    public ColumnarSchema<T> string(String name, Function<T, String> getter) {
+        columns.add(new Column<>(name, Type.STRING, getter, null, null, null, null));
+        return this;
+    }
+
+    public ColumnarSchema<T> date(String name, Function<T, LocalDate> getter) {
+        columns.add(new Column<>(name, Type.DATE, null, getter, null, null, null));
+        return this;
+    }
+
+    public ColumnarSchema<T> integer(String name, ToIntFunction<T> getter) {
+        columns.add(new Column<>(name, Type.INT, null, null, getter, null, null));
+        return this;
+    }
+
+    public ColumnarSchema<T> decimal(String name, ToDoubleFunction<T> getter) {
+        columns.add(new Column<>(name, Type.DOUBLE, null, null, null, getter, null));
+        return this;
+    }
+
+    public ColumnarSchema<T> bool(String name, Predicate<T> getter) {
+        columns.add(new Column<>(name, Type.BOOL, null, null, null, null, getter));
+        return this;
+    }
+
+    List<Column<T>> columns() {
+        return Collections.unmodifiableList(columns);
+    }
+
+    T create(Row row) {
+        return factory.apply(row);
+    }
+}
@@ -0,0 +1,125 @@
+package utilities;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes text lines to a FileChannel in large blocks.
+ *
+ * Records are appended to one reused StringBuilder; once it holds a block
+ * worth of characters it is UTF-8 encoded (array to array, the encoder's
+ * fast path) into a reused buffer and written with a single channel call.
+ * Nothing is allocated per record.
+ *
+ * <pre>
+ * try (CsvBlockWriter out = new CsvBlockWriter(channel)) {
+ *     for (Tour t : tours) {
+ *         out.write(t);
+ *     }
+ * }
+ * </pre>
+ */
+public class CsvBlockWriter implements Closeable {
+
+    private static final String EOL = System.lineSeparator();
+
+    private final FileChannel channel;
+    private final int blockChars;
+    private final StringBuilder block;
+    private char[] chars; // Array-backed copy of block: the encoder's fast path
+    private final ByteBuffer bytes;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE) // Same as OutputStreamWriter
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    public CsvBlockWriter(FileChannel channel) {
+        this(channel, AppConstants.SAVE_BLOCK_CHARS);
+    }
+
+    /**
+     * @param channel    Destination, written from its current position
+     * @param blockChars Characters buffered before each encode + write
+     */
+    public CsvBlockWriter(FileChannel channel, int blockChars) {
+        this.channel = channel;
+        this.blockChars = blockChars;
+        this.block = new StringBuilder(blockChars + 256);
+        this.chars = new char[blockChars + 256];
+        this.bytes = ByteBuffer.allocate(Math.max(1024, blockChars * 3 / 2));
+    }
+
+    /**
+     * Write one record as a line
+     */
+    public void write(Object record) throws IOException {
+        if (record instanceof CsvRecord) {
+            ((CsvRecord) record).appendTo(block);
+        } else if (record instanceof CharSequence) {
+            block.append((CharSequence) record);
+        } else {
+            block.append(record);
+        }
+        block.append(EOL);
+        if (block.length() >= blockChars) {
+            encode(false);
+        }
+    }
+
+    /**
+     * Encode and write everything buffered so far
+     */
+    public void flush() throws IOException {
+        encode(false);
+    }
+
+    private void encode(boolean endOfInput) throws IOException {
+        int length = block.length();
+        if (chars.length < length) {
+            chars = new char[length]; // One record longer than a block
+        }
+        block.getChars(0, length, chars, 0);
+        CharBuffer in = CharBuffer.wrap(chars, 0, length);
+        while (true) {
+            CoderResult result = encoder.encode(in, bytes, endOfInput);
+            if (result.isOverflow()) {
+                drain();
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                result.throwException(); // Not reached with REPLACE
+            }
+        }
+        if (endOfInput) {
+            while (encoder.flush(bytes).isOverflow()) {
+                drain();
+            }
+            encoder.reset();
+        }
+        drain();
+        // A high surrogate at the very end waits for its pair in the next block
+        block.delete(0, in.position());
+    }
+
+    private void drain() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+
+    /**
+     * Write the remaining buffer (the channel itself stays open)
+     */
+    @Override
+    public void close() throws IOException {
+        encode(true);
+    }
+}
@@ -0,0 +1,16 @@
+package utilities;
+
+/**
+ * An entity that can write its file line straight into a caller's buffer,
+ * so saving does not build one String per record (see CsvBlockWriter).
+ */
+public interface CsvRecord {
+
+    /**
+     * Append the file format line (without line separator)
+     *
+     * @param sb Shared buffer
+     * @return sb
+     */
+    StringBuilder appendTo(StringBuilder sb);
+}
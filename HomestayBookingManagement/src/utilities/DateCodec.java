@@ -0,0 +1,123 @@
+package utilities;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Hand-rolled codec for the two date formats found in the data files:
+ * dd/MM/yyyy (AppConstants.DATE_FMT) and yyyy-MM-dd (legacy rows).
+ *
+ * The format is detected from the separator positions, so a legacy row no
+ * longer costs a thrown and caught DateTimeParseException. Results match
+ * the DateTimeFormatter they replace: dd/MM/yyyy resolves SMART (31/02 ->
+ * 28/02, like DATE_FMT), yyyy-MM-dd is STRICT (like ISO_LOCAL_DATE). Input
+ * that is not exactly 10 characters goes through the formatters unchanged.
+ */
+public class DateCodec {
+
+    private static final int LENGTH = 10;
+
+    /**
+     * Parse a dd/MM/yyyy or yyyy-MM-dd date
+     *
+     * @throws DateTimeParseException if the text is neither
+     */
+    public static LocalDate parse(CharSequence text) {
+        return parse(text, 0, text.length());
+    }
+
+    /**
+     * Parse text[start, end) without copying it
+     *
+     * @throws DateTimeParseException if the range is neither format
+     */
+    public static LocalDate parse(CharSequence text, int start, int end) {
+        if (end - start == LENGTH) {
+            if (text.charAt(start + 2) == '/' && text.charAt(start + 5) == '/') {
+                int day = digits(text, start, 2);
+                int month = digits(text, start + 3, 2);
+                int year = digits(text, start + 6, 4);
+                if (day > 0 && day <= 31 && month > 0 && month <= 12 && year > 0) {
+                    // SMART resolving clamps 29..31 to the end of the month
+                    LocalDate first = LocalDate.of(year, month, 1);
+                    return first.withDayOfMonth(Math.min(day, first.lengthOfMonth()));
+                }
+            } else if (text.charAt(start + 4) == '-' && text.charAt(start + 7) == '-') {
+                int year = digits(text, start, 4);
+                int month = digits(text, start + 5, 2);
+                int day = digits(text, start + 8, 2);
+                if (year >= 0 && month > 0 && month <= 12 && day > 0) {
+                    try {
+                        return LocalDate.of(year, month, day);
+                    } catch (DateTimeException e) {
+                        throw new DateTimeParseException(e.getMessage(), text.subSequence(start, end), 0);
+                    }
+                }
+            }
+        }
+        return parseSlow(text.subSequence(start, end));
+    }
+
+    // Unusual shapes (e.g. 5-digit years): defer to the formatters
+    private static LocalDate parseSlow(CharSequence text) {
+        DateTimeFormatter format = text.length() > 4 && text.charAt(4) == '-'
+                ? DateTimeFormatter.ISO_LOCAL_DATE
+                : AppConstants.DATE_FMT;
+        return LocalDate.parse(text, format);
+    }
+
+    // Fixed-width unsigned number, or -1 if any char is not a digit
+    private static int digits(CharSequence text, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int d = text.charAt(i) - '0';
+            if (d < 0 || d > 9) {
+                return -1;
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    /**
+     * Append date as dd/MM/yyyy
+     */
+    public static StringBuilder format(LocalDate date, StringBuilder sb) {
+        int year = date.getYear();
+        if (year < 1 || year > 9999) {
+            return sb.append(date.format(AppConstants.DATE_FMT));
+        }
+        pad(sb, date.getDayOfMonth(), 2).append('/');
+        pad(sb, date.getMonthValue(), 2).append('/');
+        return pad(sb, year, 4);
+    }
+
+    /**
+     * Append date as yyyy-MM-dd
+     */
+    public static StringBuilder formatIso(LocalDate date, StringBuilder sb) {
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            return sb.append(date.format(DateTimeFormatter.ISO_LOCAL_DATE));
+        }
+        pad(sb, year, 4).append('-');
+        pad(sb, date.getMonthValue(), 2).append('-');
+        return pad(sb, date.getDayOfMonth(), 2);
+    }
+
+    /**
+     * dd/MM/yyyy as a String (for callers without a builder)
+     */
+    public static String format(LocalDate date) {
+        return format(date, new StringBuilder(LENGTH)).toString();
+    }
+
+    private static StringBuilder pad(StringBuilder sb, int value, int width) {
+        for (int scale = width == 4 ? 1000 : 10; scale > 1 && value < scale; scale /= 10) {
+            sb.append('0');
+        }
+        return sb.append(value);
+    }
+}
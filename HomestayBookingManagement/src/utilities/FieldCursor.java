@@ -0,0 +1,271 @@
+package utilities;
+
+import java.nio.CharBuffer;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Cursor-based field tokenizer for one delimited record.
+ *
+ * Replaces line.split(...) + trim() in the repositories' parseLine(): the
+ * cursor walks the line in place and numbers, booleans and dates are parsed
+ * straight from the characters, so only the Strings the entity keeps are
+ * ever created. Fields are trimmed the same way String.trim() does.
+ *
+ * Usage: next() moves to the following field, then asInt()/asString()/...
+ * read it; nextInt()/nextString()/... do both in one call.
+ */
+public class FieldCursor {
+
+    // Exact powers of ten for the double fast path (10^22 is the largest exact one)
+    private static final double[] POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final int MAX_EXACT_DIGITS = 15; // Any 15-digit long fits a double mantissa
+
+    private final CharSequence line;
+    private final char separator;
+    private int pos;
+    private final int end;
+
+    // Current field, already trimmed: [fieldStart, fieldEnd)
+    private int fieldStart;
+    private int fieldEnd;
+
+    public FieldCursor(CharSequence line, char separator) {
+        this.line = line;
+        this.separator = separator;
+        this.end = line.length();
+        this.pos = 0;
+    }
+
+    /**
+     * Number of fields in the whole line (separators + 1), without splitting
+     */
+    public int fieldCount() {
+        int count = 1;
+        for (int i = 0; i < end; i++) {
+            if (line.charAt(i) == separator) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public boolean hasNext() {
+        return pos <= end;
+    }
+
+    /**
+     * Advance to the next field
+     *
+     * @throws ArrayIndexOutOfBoundsException if the line has no more fields
+     *                                        (same as indexing past split())
+     */
+    public FieldCursor next() {
+        if (pos > end) {
+            throw new ArrayIndexOutOfBoundsException("No more fields");
+        }
+        int stop = pos;
+        while (stop < end && line.charAt(stop) != separator) {
+            stop++;
+        }
+        bound(pos, stop);
+        pos = stop + 1;
+        return this;
+    }
+
+    /**
+     * Advance to a field that may itself contain the separator: it runs up to
+     * the last separator of the line, leaving exactly one field after it
+     * (e.g. a Homestay address written with '-').
+     */
+    public FieldCursor nextGreedy() {
+        int last = end - 1;
+        while (last >= pos && line.charAt(last) != separator) {
+            last--;
+        }
+        if (last < pos) {
+            return next();
+        }
+        bound(pos, last);
+        pos = last + 1;
+        return this;
+    }
+
+    // Trim like String.trim() without creating a String
+    private void bound(int from, int to) {
+        while (from < to && line.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && line.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        fieldStart = from;
+        fieldEnd = to;
+    }
+
+    // ===== CURRENT FIELD =====
+
+    public boolean isEmpty() {
+        return fieldStart == fieldEnd;
+    }
+
+    public int length() {
+        return fieldEnd - fieldStart;
+    }
+
+    public char charAt(int index) {
+        return line.charAt(fieldStart + index);
+    }
+
+    /**
+     * Case-insensitive comparison with the current field, no allocation
+     */
+    public boolean is(String text) {
+        if (text.length() != length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char a = line.charAt(fieldStart + i);
+            char b = text.charAt(i);
+            if (a != b && Character.toUpperCase(a) != Character.toUpperCase(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String asString() {
+        return line.subSequence(fieldStart, fieldEnd).toString();
+    }
+
+    /**
+     * Same result as Integer.parseInt(field)
+     */
+    public int asInt() {
+        int i = fieldStart;
+        boolean negative = false;
+        if (i < fieldEnd && (line.charAt(i) == '-' || line.charAt(i) == '+')) {
+            negative = line.charAt(i) == '-';
+            i++;
+        }
+        if (i == fieldEnd) {
+            throw invalidNumber();
+        }
+        // Accumulate negatively so Integer.MIN_VALUE fits
+        long limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        long value = 0;
+        for (; i < fieldEnd; i++) {
+            int digit = line.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw invalidNumber();
+            }
+            value = value * 10 - digit;
+            if (value < limit) {
+                throw invalidNumber();
+            }
+        }
+        return (int) (negative ? value : -value);
+    }
+
+    /**
+     * Same result as Double.parseDouble(field). Plain decimals ("300.0",
+     * "-12.5") are parsed in place; anything else (exponents, NaN, very long
+     * mantissas) falls back to the JDK parser.
+     */
+    public double asDouble() {
+        int i = fieldStart;
+        boolean negative = false;
+        if (i < fieldEnd && (line.charAt(i) == '-' || line.charAt(i) == '+')) {
+            negative = line.charAt(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0; // Significant digits (leading zeros excluded)
+        int fractionDigits = 0;
+        boolean anyDigit = false;
+        boolean dot = false;
+        for (; i < fieldEnd; i++) {
+            char c = line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                anyDigit = true;
+                if (mantissa != 0 || c != '0') {
+                    if (++digits > MAX_EXACT_DIGITS) {
+                        return Double.parseDouble(asString());
+                    }
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                if (dot) {
+                    fractionDigits++;
+                }
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else {
+                return Double.parseDouble(asString());
+            }
+        }
+        if (!anyDigit || fractionDigits >= POW10.length) {
+            return Double.parseDouble(asString());
+        }
+        // Both operands are exact, so one division is correctly rounded
+        double value = fractionDigits == 0 ? mantissa : mantissa / POW10[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Same result as Boolean.parseBoolean(field)
+     */
+    public boolean asBoolean() {
+        return is("true");
+    }
+
+    /**
+     * Parse a dd/MM/yyyy or yyyy-MM-dd field in place (see DateCodec)
+     *
+     * @throws java.time.format.DateTimeParseException if it is neither
+     */
+    public LocalDate asDate() {
+        return DateCodec.parse(line, fieldStart, fieldEnd);
+    }
+
+    /**
+     * Parse the field with a formatter, without copying it to a String
+     *
+     * @throws java.time.format.DateTimeParseException on mismatch
+     */
+    public LocalDate asDate(DateTimeFormatter format) {
+        return LocalDate.parse(CharBuffer.wrap(line, fieldStart, fieldEnd), format);
+    }
+
+    private NumberFormatException invalidNumber() {
+        return new NumberFormatException("For input string: \"" + asString() + "\"");
+    }
+
+    // ===== NEXT + READ =====
+
+    public String nextString() {
+        return next().asString();
+    }
+
+    public int nextInt() {
+        return next().asInt();
+    }
+
+    public double nextDouble() {
+        return next().asDouble();
+    }
+
+    public boolean nextBoolean() {
+        return next().asBoolean();
+    }
+
+    public LocalDate nextDate() {
+        return next().asDate();
+    }
+
+    public LocalDate nextDate(DateTimeFormatter format) {
+        return next().asDate(format);
+    }
+}
@@ -0,0 +1,250 @@
+package utilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of one TextFileHandler.load(): parsed and rejected line counts per
+ * error category, the rejected lines themselves (with line numbers) and the
+ * load throughput.
+ *
+ * Rejected lines are written to fileName + AppConstants.REJECT_FILE_SUFFIX +
+ * "." + load time (epoch millis) as "lineNumber TAB CATEGORY TAB detail TAB
+ * original line", so they can be fixed and re-imported instead of being lost.
+ */
+public class ImportReport {
+
+    public enum Category {
+        FIELD_COUNT("wrong field count"),
+        DATE("bad date"),
+        NUMBER("bad number"),
+        MISSING_FIELD("missing field"),
+        INVALID_VALUE("invalid value"),
+        OTHER("unexpected error");
+
+        private final String label;
+
+        Category(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * Category for an exception thrown while parsing a line
+         */
+        public static Category of(Throwable e) {
+            if (e instanceof java.time.format.DateTimeParseException) {
+                return DATE;
+            } else if (e instanceof NumberFormatException) {
+                return NUMBER; // Before IllegalArgumentException, its parent
+            } else if (e instanceof ArrayIndexOutOfBoundsException) {
+                return MISSING_FIELD;
+            } else if (e instanceof IllegalArgumentException) {
+                return INVALID_VALUE;
+            }
+            return OTHER;
+        }
+    }
+
+    /**
+     * One rejected line
+     */
+    public static final class Rejection {
+        public final long lineNumber; // 1-based
+        public final Category category;
+        public final String detail;
+        public final String line;
+
+        Rejection(long lineNumber, Category category, String detail, String line) {
+            this.lineNumber = lineNumber;
+            this.category = category;
+            this.detail = detail;
+            this.line = line;
+        }
+    }
+
+    /**
+     * Per-thread tally of one sequential pass or one parallel chunk; line
+     * numbers are local until added to the report
+     */
+    static final class Collector {
+        long lineNumber;
+        String line; // Line being parsed
+        long parsed;
+        final List<Rejection> rejected = new ArrayList<>();
+
+        void reject(Category category, String detail) {
+            rejected.add(new Rejection(lineNumber, category, detail, line));
+        }
+    }
+
+    private final String fileName;
+    private long lines;
+    private long parsed;
+    private final long[] rejectedByCategory = new long[Category.values().length];
+    private final List<Rejection> rejections = new ArrayList<>();
+    private long elapsedNanos;
+    private File rejectFile;
+
+    public ImportReport(String fileName) {
+        this.fileName = fileName;
+    }
+
+    /**
+     * Add the next collector in file order
+     */
+    void add(Collector c) {
+        long base = lines;
+        for (Rejection r : c.rejected) {
+            rejections.add(new Rejection(base + r.lineNumber, r.category, r.detail, r.line));
+            rejectedByCategory[r.category.ordinal()]++;
+        }
+        lines += c.lineNumber;
+        parsed += c.parsed;
+    }
+
+    void finish(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * @return File the rejected lines were written to, or null
+     */
+    public File getRejectFile() {
+        return rejectFile;
+    }
+
+    public long getLineCount() {
+        return lines;
+    }
+
+    public long getParsedCount() {
+        return parsed;
+    }
+
+    public long getRejectedCount() {
+        return rejections.size();
+    }
+
+    public long getRejectedCount(Category category) {
+        return rejectedByCategory[category.ordinal()];
+    }
+
+    public List<Rejection> getRejections() {
+        return Collections.unmodifiableList(rejections);
+    }
+
+    public long getElapsedMillis() {
+        return elapsedNanos / 1_000_000;
+    }
+
+    public long getLinesPerSecond() {
+        return elapsedNanos == 0 ? lines : (long) (lines * 1e9 / elapsedNanos);
+    }
+
+    /**
+     * One-line summary, e.g. "Tours3.txt: 1000 lines, 998 parsed, 2 rejected
+     * (bad date 1, bad number 1) in 12 ms (83333 lines/s)"
+     */
+    public String summary() {
+        StringBuilder sb = new StringBuilder(128);
+        sb.append(new File(fileName).getName()).append(": ").append(lines).append(" lines, ")
+                .append(parsed).append(" parsed, ").append(rejections.size()).append(" rejected");
+        if (!rejections.isEmpty()) {
+            String sep = " (";
+            for (Category c : Category.values()) {
+                long n = rejectedByCategory[c.ordinal()];
+                if (n > 0) {
+                    sb.append(sep).append(c.getLabel()).append(' ').append(n);
+                    sep = ", ";
+                }
+            }
+            sb.append(')');
+        }
+        return sb.append(" in ").append(getElapsedMillis()).append(" ms (")
+                .append(getLinesPerSecond()).append(" lines/s)").toString();
+    }
+
+    /**
+     * Write this load's rejected lines to a new reject file next to the data
+     * file. Nothing is written for a clean load, and earlier reject files are
+     * never replaced or deleted: once the data file is saved again they are
+     * the only copy of the rows they hold.
+     *
+     * @return File written, or null if there was nothing to write or it failed
+     */
+    public File writeRejects() {
+        if (rejections.isEmpty()) {
+            return null;
+        }
+        File target = null;
+        File temp = null;
+        try {
+            target = newRejectFile();
+            temp = AtomicFiles.tempFor(target);
+            try (FileChannel ch = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                    CsvBlockWriter out = new CsvBlockWriter(ch)) {
+                StringBuilder row = new StringBuilder(256);
+                for (Rejection r : rejections) {
+                    row.setLength(0);
+                    row.append(r.lineNumber).append('\t').append(r.category).append('\t');
+                    appendSanitized(row, r.detail);
+                    row.append('\t').append(r.line);
+                    out.write(row);
+                }
+            }
+            AtomicFiles.commit(temp, target);
+            rejectFile = target;
+            return target;
+        } catch (IOException e) {
+            if (temp != null) {
+                temp.delete();
+            }
+            if (target != null) {
+                target.delete(); // Our empty placeholder
+            }
+            ErrorHandler.logError(e);
+            return null;
+        }
+    }
+
+    // Claim an unused fileName.rejects.<millis> (createNewFile is atomic, so
+    // two loads in the same millisecond still get separate files)
+    private File newRejectFile() throws IOException {
+        long stamp = System.currentTimeMillis();
+        while (true) {
+            File f = new File(fileName + AppConstants.REJECT_FILE_SUFFIX + "." + stamp);
+            if (f.createNewFile()) {
+                return f;
+            }
+            stamp++;
+        }
+    }
+
+    /**
+     * Copy text with CR, LF and TAB replaced by '_' (a char loop, no regex)
+     */
+    public static StringBuilder appendSanitized(StringBuilder sb, String text) {
+        if (text == null) {
+            return sb;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            sb.append(c == '\r' || c == '\n' || c == '\t' ? '_' : c);
+        }
+        return sb;
+    }
+}
@@ -0,0 +1,309 @@
+package utilities;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only write-ahead journal for one data file.
+ *
+ * Every repository mutation appends one line:
+ *   U,&lt;entity line as in the data file&gt;   (insert or update)
+ *   D,&lt;id&gt;                               (delete)
+ * Both records carry the full new state, so replaying a journal over a
+ * snapshot it was already applied to is harmless. A snapshot rewrite
+ * (checkpoint) empties the journal.
+ *
+ * Records written by a unit of work carry its transaction ID:
+ *   T,&lt;txid&gt;,U,&lt;entity line&gt;  /  T,&lt;txid&gt;,D,&lt;id&gt;
+ * and only count once the transaction's commit marker is in the
+ * TransactionLog.
+ *
+ * Group commit: appends go to the OS right away (safe against a process
+ * crash); fsync happens once every N commits or after T ms, whichever
+ * comes first. N = 1 forces every commit; N = 0 leaves flushing to the OS.
+ */
+public class Journal implements Closeable {
+
+    public static final char UPSERT = 'U';
+    public static final char DELETE = 'D';
+    public static final char TRANSACTION = 'T'; // Prefix of a record written by a unit of work
+    public static final char COMMIT = 'C'; // Commit marker (TransactionLog)
+
+    private final File file;
+    private final int syncEveryCommits;
+    private final long syncIntervalMillis;
+    private FileChannel channel;
+    private int unsyncedCommits;
+    private boolean unsyncedWrites;
+    private long lastSync = System.currentTimeMillis();
+
+    /**
+     * One journal record read back during replay
+     */
+    public static final class Record {
+        public final char op;
+        public final String payload;
+        public final long txid; // 0: not part of a unit of work
+
+        Record(char op, String payload) {
+            this(op, payload, 0);
+        }
+
+        Record(char op, String payload, long txid) {
+            this.op = op;
+            this.payload = payload;
+            this.txid = txid;
+        }
+    }
+
+    /**
+     * @param file               Journal file (created on first open)
+     * @param syncEveryCommits   fsync after this many commits (1 = every
+     *                           commit, 0 = never force)
+     * @param syncIntervalMillis fsync at the next commit once this much time has
+     *                           passed since the last one
+     */
+    public Journal(File file, int syncEveryCommits, long syncIntervalMillis) {
+        this.file = file;
+        this.syncEveryCommits = syncEveryCommits;
+        this.syncIntervalMillis = syncIntervalMillis;
+    }
+
+    /**
+     * Journal file that belongs to a data file (e.g. Tours3.txt.journal)
+     */
+    public static File fileFor(String dataFile) {
+        return new File(dataFile + AppConstants.JOURNAL_SUFFIX);
+    }
+
+    /**
+     * Read all complete records. A torn last line (crash mid-append) is
+     * ignored; open() cuts it off before appending again.
+     */
+    public static List<Record> read(File file) throws IOException {
+        List<Record> records = new ArrayList<>();
+        if (!file.exists()) {
+            return records;
+        }
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        int complete = completeLength(bytes);
+        String text = new String(bytes, 0, complete, StandardCharsets.UTF_8);
+        int start = 0;
+        for (int nl = text.indexOf('\n'); nl >= 0; nl = text.indexOf('\n', start)) {
+            // "X," prefix: op char then comma; anything shorter is noise
+            if (nl - start >= 2 && text.charAt(start + 1) == ',') {
+                Record record = text.charAt(start) == TRANSACTION
+                        ? parseTagged(text.substring(start + 2, nl))
+                        : new Record(text.charAt(start), text.substring(start + 2, nl).trim());
+                if (record != null) {
+                    records.add(record);
+                }
+            }
+            start = nl + 1;
+        }
+        return records;
+    }
+
+    // "<txid>,X,<payload>" after the T prefix; null if malformed
+    private static Record parseTagged(String line) {
+        int comma = line.indexOf(',');
+        if (comma <= 0 || comma + 2 >= line.length() || line.charAt(comma + 2) != ',') {
+            return null;
+        }
+        try {
+            long txid = Long.parseLong(line.substring(0, comma));
+            return txid > 0 ? new Record(line.charAt(comma + 1), line.substring(comma + 3).trim(), txid) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Length up to and including the last '\n'
+    private static int completeLength(byte[] bytes) {
+        int end = bytes.length;
+        while (end > 0 && bytes[end - 1] != '\n') {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Open for appending, dropping a torn last record if there is one
+     */
+    public synchronized void open() throws IOException {
+        if (channel != null) {
+            return;
+        }
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long complete = completeLength(channel);
+        if (complete < channel.size()) {
+            channel.truncate(complete);
+        }
+        channel.position(complete);
+    }
+
+    // Same as completeLength(byte[]), scanning backwards from the end of the file
+    private static long completeLength(FileChannel channel) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(4096);
+        long end = channel.size();
+        while (end > 0) {
+            long start = Math.max(0, end - block.capacity());
+            block.clear();
+            block.limit((int) (end - start));
+            while (block.hasRemaining() && channel.read(block, start + block.position()) > 0) {
+                // Fill the block
+            }
+            for (int i = block.position() - 1; i >= 0; i--) {
+                if (block.get(i) == '\n') {
+                    return start + i + 1;
+                }
+            }
+            end = start;
+        }
+        return 0;
+    }
+
+    public synchronized boolean isOpen() {
+        return channel != null;
+    }
+
+    /**
+     * Append one record (reaches the OS immediately, disk per group commit)
+     */
+    public synchronized void append(char op, CharSequence payload) throws IOException {
+        append(0, op, payload);
+    }
+
+    /**
+     * Append one record of a unit of work (txid 0: a plain record)
+     */
+    public synchronized void append(long txid, char op, CharSequence payload) throws IOException {
+        if (channel == null) {
+            return;
+        }
+        StringBuilder sb = new StringBuilder(payload.length() + 24);
+        if (txid > 0) {
+            sb.append(TRANSACTION).append(',').append(txid).append(',');
+        }
+        sb.append(op).append(',').append(payload).append('\n');
+        ByteBuffer buf = StandardCharsets.UTF_8.encode(sb.toString());
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+        unsyncedWrites = true;
+    }
+
+    /**
+     * End of one logical operation: fsync if the group-commit policy says so
+     */
+    public synchronized void commit() throws IOException {
+        if (countCommit()) {
+            sync();
+        }
+    }
+
+    /**
+     * Count one commit without forcing anything
+     *
+     * @return true if the group-commit policy asks for an fsync now
+     */
+    public synchronized boolean countCommit() {
+        if (channel == null || !unsyncedWrites) {
+            return false;
+        }
+        unsyncedCommits++;
+        boolean countReached = syncEveryCommits > 0 && unsyncedCommits >= syncEveryCommits;
+        boolean timeReached = syncEveryCommits > 0
+                && System.currentTimeMillis() - lastSync >= syncIntervalMillis;
+        return countReached || timeReached;
+    }
+
+    /**
+     * Force everything appended so far to disk
+     */
+    public synchronized void sync() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        if (unsyncedWrites) {
+            channel.force(false);
+        }
+        unsyncedWrites = false;
+        unsyncedCommits = 0;
+        lastSync = System.currentTimeMillis();
+    }
+
+    /**
+     * Empty the journal after its records reached a durable snapshot
+     */
+    public synchronized void truncate() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        channel.truncate(0);
+        channel.position(0);
+        channel.force(false);
+        unsyncedWrites = false;
+        unsyncedCommits = 0;
+        lastSync = System.currentTimeMillis();
+    }
+
+    /**
+     * Drop the records before mark (they reached a snapshot) and keep the ones
+     * appended after it. The survivors are copied to a fresh journal that is
+     * renamed into place, so a crash never loses them.
+     *
+     * @param mark Journal size noted when the snapshot was captured
+     */
+    public synchronized void discardBefore(long mark) throws IOException {
+        if (channel == null || mark <= 0) {
+            return;
+        }
+        long size = channel.size();
+        if (mark >= size) {
+            truncate();
+            return;
+        }
+        File temp = AtomicFiles.tempFor(file);
+        try (FileChannel out = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long copied = 0;
+            while (copied < size - mark) {
+                copied += channel.transferTo(mark + copied, size - mark - copied, out);
+            }
+        }
+        channel.close();
+        channel = null;
+        AtomicFiles.commit(temp, file);
+        open();
+        unsyncedWrites = false;
+        unsyncedCommits = 0;
+        lastSync = System.currentTimeMillis();
+    }
+
+    public synchronized long size() throws IOException {
+        return channel == null ? 0 : channel.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        try {
+            sync();
+        } finally {
+            channel.close();
+            channel = null;
+        }
+    }
+}
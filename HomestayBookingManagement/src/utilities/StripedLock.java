@@ -0,0 +1,89 @@
+package utilities;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed set of locks shared by key hash: operations on different keys
+ * (e.g. different tours) usually run in parallel, operations on the same key
+ * never do. Memory stays constant however many keys exist.
+ *
+ * Keys are compared like IDs elsewhere (trimmed, case-insensitive).
+ * Several keys are always locked in stripe order, so two threads locking
+ * {A, B} and {B, A} cannot deadlock.
+ *
+ * <pre>
+ * ReentrantLock[] held = stripes.lock(oldTourId, newTourId);
+ * try {
+ *     ...
+ * } finally {
+ *     StripedLock.unlock(held);
+ * }
+ * </pre>
+ */
+public class StripedLock {
+
+    private final ReentrantLock[] stripes;
+
+    /**
+     * @param count Number of stripes, rounded up to a power of two
+     */
+    public StripedLock(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive: " + count);
+        }
+        int size = Integer.highestOneBit(count);
+        if (size < count) {
+            size <<= 1;
+        }
+        stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    public int stripeOf(String key) {
+        int h = key == null ? 0 : key.trim().toUpperCase(Locale.ROOT).hashCode();
+        h ^= (h >>> 16); // Spread the high bits, as HashMap does
+        return h & (stripes.length - 1);
+    }
+
+    /**
+     * Lock the stripes of all keys (each stripe once, in stripe order)
+     *
+     * @return The locks taken, to pass to unlock()
+     */
+    public ReentrantLock[] lock(String... keys) {
+        int[] ids = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            ids[i] = stripeOf(keys[i]);
+        }
+        Arrays.sort(ids);
+        int distinct = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (i == 0 || ids[i] != ids[i - 1]) {
+                ids[distinct++] = ids[i];
+            }
+        }
+        ReentrantLock[] held = new ReentrantLock[distinct];
+        for (int i = 0; i < distinct; i++) {
+            held[i] = stripes[ids[i]];
+            held[i].lock();
+        }
+        return held;
+    }
+
+    /**
+     * Release locks taken by lock(), in reverse order
+     */
+    public static void unlock(ReentrantLock[] held) {
+        for (int i = held.length - 1; i >= 0; i--) {
+            held[i].unlock();
+        }
+    }
+}
@@ -2,16 +2,57 @@ package utilities;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public abstract class TextFileHandler<T> implements IFileService<T> {
 
+    /**
+     * How load() reads the file
+     */
+    public enum LoadMode {
+        SEQUENTIAL, // One BufferedReader, one thread
+        PARALLEL // Memory-mapped, newline-aligned chunks parsed on a fork-join pool
+    }
+
+    private LoadMode loadMode = LoadMode.PARALLEL;
+
+    public LoadMode getLoadMode() {
+        return loadMode;
+    }
+
+    public void setLoadMode(LoadMode loadMode) {
+        this.loadMode = loadMode;
+    }
+
+    /**
+     * Load every parseable line of fileName into list. Lines that parseLine()
+     * rejects are counted in an ImportReport (see getLastImport()) and
+     * written to a new reject file (see ImportReport.writeRejects()).
+     */
     @Override
     public boolean load(List<T> list, String fileName) {
         list.clear();
@@ -19,38 +60,712 @@ public abstract class TextFileHandler<T> implements IFileService<T> {
         if (!f.exists()) {
             return false;
         }
+        long start = System.nanoTime();
+        ImportReport report = new ImportReport(fileName);
+        boolean ok;
+        // Small files are not worth the mapping and task overhead
+        if (loadMode == LoadMode.PARALLEL && f.length() >= AppConstants.PARALLEL_LOAD_MIN_BYTES) {
+            ok = loadParallel(list, f, report);
+        } else {
+            ok = loadSequential(list, f, report);
+        }
+        report.finish(System.nanoTime() - start);
+        if (ok) {
+            lastImport = report;
+            report.writeRejects();
+            if (report.getRejectedCount() > 0) {
+                printRejections(report);
+            }
+        }
+        return ok;
+    }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(f))) {
+    private boolean loadSequential(List<T> list, File f, ImportReport report) {
+        ImportReport.Collector collector = new ImportReport.Collector();
+        activeImport.set(collector);
+        try (BufferedReader br = new BufferedReader(
+                new InputStreamReader(new FileInputStream(f), StandardCharsets.UTF_8))) {
             String line;
+            boolean first = true;
             while ((line = br.readLine()) != null) {
-                line = line.trim();
-                if (!line.isEmpty()) {
-                    T obj = parseLine(line);
-                    if (obj != null) {
-                        list.add(obj);
-                    }
+                if (first) {
+                    line = stripBom(line);
+                    first = false;
                 }
+                collector.lineNumber++;
+                parseInto(list, line, collector);
             }
+            report.add(collector);
             return true;
         } catch (IOException | NumberFormatException e) {
             ErrorHandler.logError(e);
             return false;
+        } finally {
+            activeImport.remove();
+        }
+    }
+
+    private void parseInto(List<T> out, String original, ImportReport.Collector collector) {
+        String line = original.trim();
+        if (line.isEmpty()) {
+            return;
+        }
+        collector.line = original;
+        T obj = parseLine(line);
+        if (obj != null) {
+            out.add(obj);
+            collector.parsed++;
+        }
+    }
+
+    // ===== IMPORT REPORT =====
+
+    // Collector of the load running on this thread (null outside load())
+    private final ThreadLocal<ImportReport.Collector> activeImport = new ThreadLocal<>();
+    private volatile ImportReport lastImport;
+
+    /**
+     * @return Report of the last successful load(), or null
+     */
+    public ImportReport getLastImport() {
+        return lastImport;
+    }
+
+    /**
+     * Called by parseLine() for a line it cannot use. During load() the line
+     * is recorded in the import report; otherwise (e.g. journal replay) it is
+     * printed to stderr.
+     *
+     * @param category Error category
+     * @param line     Line being parsed
+     * @param detail   What was wrong (e.g. the exception message)
+     * @return null, so parseLine() can "return reject(...)"
+     */
+    protected T reject(ImportReport.Category category, String line, String detail) {
+        ImportReport.Collector collector = activeImport.get();
+        if (collector != null) {
+            collector.reject(category, detail);
+        } else {
+            StringBuilder sb = new StringBuilder(">> Rejected line (").append(category.getLabel()).append("): ");
+            ImportReport.appendSanitized(sb, line).append(" - ");
+            System.err.println(ImportReport.appendSanitized(sb, detail));
+        }
+        return null;
+    }
+
+    // Summary plus the first few rejected lines; all of them are in the reject file
+    private static void printRejections(ImportReport report) {
+        System.err.println(">> " + report.summary());
+        List<ImportReport.Rejection> rejections = report.getRejections();
+        int shown = Math.min(rejections.size(), AppConstants.REJECT_ECHO_LIMIT);
+        for (int i = 0; i < shown; i++) {
+            ImportReport.Rejection r = rejections.get(i);
+            StringBuilder sb = new StringBuilder("   line ").append(r.lineNumber).append(" (")
+                    .append(r.category.getLabel()).append("): ");
+            ImportReport.appendSanitized(sb, r.line).append(" - ");
+            System.err.println(ImportReport.appendSanitized(sb, r.detail));
+        }
+        if (rejections.size() > shown) {
+            System.err.println("   ... " + (rejections.size() - shown) + " more");
+        }
+        if (report.getRejectFile() != null) {
+            System.err.println("   Rejected lines kept in " + report.getRejectFile().getPath());
+        }
+    }
+
+    // ===== MEMORY-MAPPED PARALLEL LOAD =====
+
+    /**
+     * Map the file in newline-aligned chunks, parse each chunk with parseLine()
+     * on the common fork-join pool and merge the results in file order.
+     * UTF-8 never uses the byte 0x0A inside a multi-byte sequence, so splitting
+     * on '\n' is always safe (a "\r\n" pair never straddles two chunks).
+     * parseLine() must therefore be stateless.
+     */
+    private boolean loadParallel(List<T> list, File f, ImportReport report) {
+        try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel);
+            int chunks = bounds.length - 1;
+            List<List<T>> results = new ArrayList<>(chunks);
+            List<ImportReport.Collector> collectors = new ArrayList<>(chunks);
+            for (int i = 0; i < chunks; i++) {
+                results.add(null);
+                collectors.add(new ImportReport.Collector());
+            }
+            ForkJoinPool.commonPool().invoke(new ParseChunks(channel, bounds, results, collectors, 0, chunks));
+            for (int i = 0; i < chunks; i++) {
+                list.addAll(results.get(i));
+                report.add(collectors.get(i)); // In file order, so line numbers add up
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            ErrorHandler.logError(e instanceof ChunkFailure ? (Exception) e.getCause() : e);
+            return false;
         }
     }
 
+    // Chunk start offsets (plus the file size), each one just after a '\n'
+    private long[] chunkBounds(FileChannel channel) throws IOException {
+        long size = channel.size();
+        int parts = Math.max(1, ForkJoinPool.getCommonPoolParallelism() * 4);
+        long target = Math.max(AppConstants.PARALLEL_LOAD_MIN_CHUNK_BYTES, size / parts);
+        target = Math.min(target, Integer.MAX_VALUE / 2); // One mapping per chunk must fit an int
+
+        List<Long> starts = new ArrayList<>();
+        starts.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long pos = target;
+        while (pos < size) {
+            long next = nextLineStart(channel, pos, probe);
+            if (next >= size) {
+                break;
+            }
+            starts.add(next);
+            pos = next + target;
+        }
+
+        long[] bounds = new long[starts.size() + 1];
+        for (int i = 0; i < starts.size(); i++) {
+            bounds[i] = starts.get(i);
+        }
+        bounds[starts.size()] = size;
+        return bounds;
+    }
+
+    private static long nextLineStart(FileChannel channel, long pos, ByteBuffer probe) throws IOException {
+        while (true) {
+            probe.clear();
+            int n = channel.read(probe, pos);
+            if (n <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < n; i++) {
+                if (probe.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += n;
+        }
+    }
+
+    private List<T> parseChunk(FileChannel channel, long start, long end, boolean first,
+            ImportReport.Collector collector) throws IOException {
+        List<T> out = new ArrayList<>();
+        if (end <= start) {
+            return out;
+        }
+        ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer chars = decoder.decode(bytes);
+
+        int lineStart = 0;
+        int limit = chars.limit();
+        activeImport.set(collector);
+        try {
+            // Lines end at '\n', "\r\n" or a lone '\r', as in BufferedReader.readLine
+            for (int i = 0; i <= limit; i++) {
+                if (i == limit && lineStart == limit) {
+                    break; // Chunks end just after a line break: no further line
+                }
+                char c = i < limit ? chars.get(i) : '\n';
+                if (c == '\n' || c == '\r') {
+                    String line = chars.subSequence(lineStart, i).toString();
+                    if (first && lineStart == 0) {
+                        line = stripBom(line);
+                    }
+                    collector.lineNumber++;
+                    parseInto(out, line, collector);
+                    if (c == '\r' && i + 1 < limit && chars.get(i + 1) == '\n') {
+                        i++;
+                    }
+                    lineStart = i + 1;
+                }
+            }
+        } finally {
+            activeImport.remove();
+        }
+        return out;
+    }
+
+    private final class ParseChunks extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long[] bounds;
+        private final List<List<T>> results;
+        private final List<ImportReport.Collector> collectors;
+        private final int from;
+        private final int to;
+
+        ParseChunks(FileChannel channel, long[] bounds, List<List<T>> results,
+                List<ImportReport.Collector> collectors, int from, int to) {
+            this.channel = channel;
+            this.bounds = bounds;
+            this.results = results;
+            this.collectors = collectors;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                try {
+                    results.set(from, parseChunk(channel, bounds[from], bounds[from + 1], from == 0,
+                            collectors.get(from)));
+                } catch (IOException e) {
+                    throw new ChunkFailure(e);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ParseChunks(channel, bounds, results, collectors, from, mid),
+                    new ParseChunks(channel, bounds, results, collectors, mid, to));
+        }
+    }
+
+    // Carries a checked IOException out of a fork-join task
+    private static final class ChunkFailure extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ChunkFailure(IOException cause) {
+            super(cause);
+        }
+    }
+
+    private static String stripBom(String line) {
+        return line.startsWith("\uFEFF") ? line.substring(1) : line;
+    }
+
+    /**
+     * Write the whole list to a temp file, fsync it and rename it over
+     * fileName, so a failure part-way never leaves a truncated data file.
+     * Records implementing CsvRecord are streamed without a String each.
+     */
     @Override
     public boolean save(List<T> list, String fileName) {
-        try (PrintWriter pw = new PrintWriter(
-                new OutputStreamWriter(new FileOutputStream(fileName), StandardCharsets.UTF_8))) {
-            for (T item : list) {
-                pw.println(item.toString());
+        File target = new File(fileName);
+        File temp = AtomicFiles.tempFor(target);
+        try {
+            try (FileChannel ch = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                    CsvBlockWriter out = new CsvBlockWriter(ch)) {
+                for (T item : list) {
+                    out.write(item);
+                }
             }
+            AtomicFiles.commit(temp, target);
             return true;
         } catch (IOException e) {
+            temp.delete();
             ErrorHandler.logError(e);
             return false;
         }
     }
 
+    // ===== SNAPSHOT FORMAT =====
+
+    private IFileService<T> snapshotStore = this; // this = CSV snapshots
+    private String snapshotSuffix = "";
+
+    /**
+     * Keep checkpoints in another format (e.g. ColumnarFileHandler), stored
+     * next to the data file as fileName + suffix. The CSV file is still read
+     * when no such snapshot exists yet, so switching formats migrates on the
+     * first checkpoint. A CSV modified after the snapshot (edited by hand)
+     * is read instead of it, with a warning.
+     */
+    public void setSnapshotStore(IFileService<T> store, String suffix) {
+        this.snapshotStore = store;
+        this.snapshotSuffix = suffix;
+    }
+
+    /**
+     * Load the newest snapshot of fileName in the configured format. A CSV
+     * file edited by hand after the binary snapshot wins; the journal belongs
+     * to the binary snapshot, so replayAndOpenJournal() then discards it
+     * instead of replaying stale records over the edits.
+     */
+    protected boolean loadSnapshot(List<T> list, String fileName) {
+        staleJournal = false;
+        if (snapshotStore != this) {
+            File snapshot = new File(fileName + snapshotSuffix);
+            File csv = new File(fileName);
+            if (snapshot.exists() && csv.exists() && csv.lastModified() > snapshot.lastModified()) {
+                ErrorHandler.logError(new Exception("Warning: " + fileName + " is newer than "
+                        + snapshot.getName() + " - loading the CSV file"));
+                staleJournal = true;
+            } else if (snapshot.exists() && snapshotStore.load(list, snapshot.getPath())) {
+                return true;
+            }
+        }
+        return load(list, fileName);
+    }
+
+    private boolean saveSnapshot(List<T> list, String fileName) {
+        return snapshotStore == this ? save(list, fileName) : snapshotStore.save(list, fileName + snapshotSuffix);
+    }
+
+    private File snapshotFile(String fileName) {
+        return new File(snapshotStore == this ? fileName : fileName + snapshotSuffix);
+    }
+
+    // ===== DIRTY TRACKING =====
+
+    // Changed ID -> sequence number of its latest change, since the last snapshot
+    private final Map<String, Long> changed = new ConcurrentHashMap<>();
+    private final AtomicLong changeSeq = new AtomicLong();
+
+    /**
+     * @return true if records changed since the last snapshot was written
+     */
+    public boolean isDirty() {
+        return !changed.isEmpty();
+    }
+
+    /**
+     * @return Number of distinct records changed since the last snapshot
+     */
+    public int changedCount() {
+        return changed.size();
+    }
+
+    private void markChanged(String id) {
+        changed.put(journalKey(id), changeSeq.incrementAndGet());
+    }
+
+    // Changes the journal cannot replay (a unit of work without its commit
+    // marker) up to this sequence number; covered by checkpoints up to checkpointed
+    private volatile long checkpointRequired;
+    private volatile long checkpointed;
+
+    /**
+     * The journal cannot restore the changes made so far: the next save
+     * rewrites the whole file instead of only flushing the journal
+     */
+    public void requireCheckpoint() {
+        checkpointRequired = changeSeq.get();
+    }
+
+    /**
+     * Save only as much as the changes require:
+     * <ul>
+     * <li>nothing changed and the snapshot exists: skip the file entirely</li>
+     * <li>a few records changed: fsync the journal, which already holds them
+     * (replayed over the snapshot on the next start)</li>
+     * <li>otherwise: full checkpoint</li>
+     * </ul>
+     *
+     * @param capture  Copies the current rows; called with the repository lock
+     * @param fileName Data file to save
+     * @return true if the data is durable
+     */
+    protected boolean persist(Supplier<List<T>> capture, String fileName) {
+        if (!snapshotFile(fileName).exists() || checkpointRequired > checkpointed) {
+            return checkpoint(capture, fileName);
+        }
+        if (!isDirty()) {
+            return true;
+        }
+        Journal j = journal;
+        if (j != null && changed.size() <= AppConstants.FAST_SAVE_MAX_CHANGES
+                && journalSize() <= AppConstants.FAST_SAVE_MAX_JOURNAL_BYTES) {
+            try {
+                j.sync();
+                transactions.sync(); // Commit markers of its units of work
+                return true;
+            } catch (IOException e) {
+                ErrorHandler.logError(e); // Fall through to a full rewrite
+            }
+        }
+        return checkpoint(capture, fileName);
+    }
+
+    // ===== WRITE-AHEAD JOURNAL =====
+
+    private volatile Journal journal;
+    private volatile boolean journalFailed; // Last open failed: commits need a full save
+    private boolean staleJournal; // Snapshot was bypassed for a newer CSV: journal not replayed
+    private final AtomicBoolean degradedLogged = new AtomicBoolean();
+    private final Object checkpointLock = new Object(); // One checkpoint at a time
+    private TransactionLog transactions = TransactionLog.shared();
+    private int journalSyncEveryCommits = AppConstants.JOURNAL_SYNC_EVERY_COMMITS;
+    private long journalSyncIntervalMillis = AppConstants.JOURNAL_SYNC_INTERVAL_MS;
+
+    /**
+     * Group-commit policy, applied the next time the journal is opened
+     *
+     * @param everyCommits fsync after this many commits (1 = every commit, 0 =
+     *                     leave flushing to the OS)
+     * @param intervalMs   fsync at the next commit once this much time passed
+     */
+    public void setJournalPolicy(int everyCommits, long intervalMs) {
+        this.journalSyncEveryCommits = everyCommits;
+        this.journalSyncIntervalMillis = intervalMs;
+    }
+
+    /**
+     * Commit log shared with the repositories this one takes part in units of
+     * work with; set before loading
+     */
+    public void setTransactionLog(TransactionLog transactions) {
+        this.transactions = transactions;
+    }
+
+    public TransactionLog getTransactionLog() {
+        return transactions;
+    }
+
+    /**
+     * Apply the data file's journal to a freshly loaded snapshot, then keep
+     * the journal open so that later mutations are appended to it. Until this
+     * is called (e.g. in unit tests) mutations stay in memory only.
+     *
+     * @param loaded   Snapshot rows in file order, updated in place
+     * @param fileName Data file the journal belongs to
+     * @param idOf     Extracts the primary key
+     * @return Number of journal records applied
+     */
+    protected int replayAndOpenJournal(List<T> loaded, String fileName, Function<T, String> idOf) {
+        closeJournal();
+        journalFailed = false;
+        Journal j = new Journal(Journal.fileFor(fileName), journalSyncEveryCommits, journalSyncIntervalMillis);
+        int applied = 0;
+        try {
+            if (staleJournal && Journal.fileFor(fileName).length() > 0) {
+                ErrorHandler.logError(new Exception("Warning: discarding " + Journal.fileFor(fileName).getName()
+                        + " - its records predate the edited " + fileName));
+                j.open();
+                j.truncate();
+                transactions.resolve(this, new ArrayList<>());
+                journal = j;
+                return 0;
+            }
+            // Records of units of work that never committed are left out
+            List<Journal.Record> records = transactions.resolve(this, Journal.read(Journal.fileFor(fileName)));
+            if (!records.isEmpty()) {
+                applied = replay(loaded, records, idOf);
+            }
+            j.open();
+            journal = j;
+        } catch (IOException e) {
+            ErrorHandler.logError(e);
+            journalFailed = true;
+        }
+        return applied;
+    }
+
+    private int replay(List<T> loaded, List<Journal.Record> records, Function<T, String> idOf) {
+        // First row per ID (that is the one the primary index keeps)
+        Map<String, Integer> first = new HashMap<>();
+        Set<String> duplicated = new HashSet<>();
+        for (int i = 0; i < loaded.size(); i++) {
+            String key = journalKey(idOf.apply(loaded.get(i)));
+            if (first.putIfAbsent(key, i) != null) {
+                duplicated.add(key);
+            }
+        }
+
+        int applied = 0;
+        for (Journal.Record record : records) {
+            if (record.op == Journal.UPSERT) {
+                T item = parseLine(record.payload);
+                if (item == null) {
+                    continue;
+                }
+                String key = journalKey(idOf.apply(item));
+                Integer pos = first.get(key);
+                if (pos != null) {
+                    loaded.set(pos, item);
+                } else {
+                    first.put(key, loaded.size());
+                    loaded.add(item);
+                }
+                applied++;
+            } else if (record.op == Journal.DELETE) {
+                String key = journalKey(record.payload);
+                Integer pos = first.remove(key);
+                if (pos != null) {
+                    loaded.set(pos, null);
+                }
+                if (duplicated.remove(key)) {
+                    // Later duplicate rows must not come back to life
+                    for (int i = 0; i < loaded.size(); i++) {
+                        T item = loaded.get(i);
+                        if (item != null && journalKey(idOf.apply(item)).equals(key)) {
+                            loaded.set(i, null);
+                        }
+                    }
+                }
+                applied++;
+            }
+        }
+        loaded.removeIf(Objects::isNull);
+        return applied;
+    }
+
+    private static String journalKey(String id) {
+        return id == null ? "" : id.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Record an insert/update: marks the ID dirty and journals the row (tagged
+     * with the transaction when a unit of work applies it)
+     */
+    protected void journalUpsert(String id, T item) {
+        markChanged(id);
+        if (journal != null) {
+            try {
+                journal.append(TransactionLog.current(), Journal.UPSERT, item.toString());
+            } catch (IOException e) {
+                ErrorHandler.logError(e);
+            }
+        }
+    }
+
+    protected void journalDelete(String id) {
+        markChanged(id);
+        if (journal != null) {
+            try {
+                journal.append(TransactionLog.current(), Journal.DELETE, id);
+            } catch (IOException e) {
+                ErrorHandler.logError(e);
+            }
+        }
+    }
+
+    /**
+     * End of one user operation: its journal records become durable according
+     * to the group-commit policy. Costs O(change), not O(dataset).
+     *
+     * @return false if the journal could not open or commit: the caller must
+     *         save the whole file instead (saveToFile)
+     */
+    public boolean commitJournal() {
+        Journal j = journal;
+        if (j != null) {
+            try {
+                j.commit();
+                return true;
+            } catch (IOException e) {
+                ErrorHandler.logError(e);
+                return false;
+            }
+        }
+        if (journalFailed) {
+            if (degradedLogged.compareAndSet(false, true)) {
+                ErrorHandler.logError(new Exception(
+                        "Warning: Journal unavailable - every change now rewrites the whole file"));
+            }
+            return false;
+        }
+        return true; // Never loaded (e.g. unit tests): changes stay in memory
+    }
+
+    /**
+     * Checkpoint: write a consistent snapshot and drop the journal records it
+     * already contains. Safe to call from a background thread.
+     *
+     * The journal position is noted, then the repository lock is held only
+     * while the rows are captured (a reference copy); the file is written
+     * outside it, so reads and writes carry on meanwhile. Records appended
+     * after the capture stay in the journal and are replayed over this
+     * snapshot on the next start (records are absolute, so an entity that
+     * changed in the meantime ends up right either way). The capture holds the
+     * transaction log's gate, so it never contains half a unit of work.
+     *
+     * @param capture  Copies the current rows; called with the repository lock
+     * @param fileName Data file to replace
+     * @return true if the snapshot was written
+     */
+    protected boolean checkpoint(Supplier<List<T>> capture, String fileName) {
+        synchronized (checkpointLock) {
+            // Marks first: whatever they cover is already in memory, so the
+            // capture below contains it (see captureRows)
+            long[] marks = new long[3];
+            List<T> rows = transactions.read(() -> {
+                marks[0] = journalSize();
+                marks[1] = changeSeq.get();
+                marks[2] = transactions.peekNextTxId();
+                return captureRows(capture);
+            });
+            long journalMark = marks[0];
+            long changeMark = marks[1];
+            // Markers of the captured units first: the other repositories'
+            // journals still need them
+            transactions.sync();
+            if (!saveSnapshot(rows, fileName)) {
+                return false;
+            }
+            // Records changed after the capture stay dirty
+            changed.values().removeIf(seq -> seq <= changeMark);
+            checkpointed = Math.max(checkpointed, changeMark);
+            if (journal != null) {
+                try {
+                    journal.discardBefore(journalMark);
+                    transactions.release(this, marks[2]);
+                } catch (IOException e) {
+                    ErrorHandler.logError(e);
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Run the checkpoint capture. The default holds the repository lock, the
+     * one the plain repositories mutate under. A repository may capture
+     * without it if every mutation is applied in memory before it is
+     * journaled; a weakly consistent capture is then still a valid base for
+     * the journal records kept after the marks.
+     */
+    protected List<T> captureRows(Supplier<List<T>> capture) {
+        synchronized (this) {
+            return capture.get();
+        }
+    }
+
+    private long journalSize() {
+        try {
+            return journal == null ? 0 : journal.size();
+        } catch (IOException e) {
+            ErrorHandler.logError(e);
+            return 0;
+        }
+    }
+
+    /**
+     * @return true if mutations were journaled since the last checkpoint
+     */
+    public boolean hasPendingJournal() {
+        return journalSize() > 0;
+    }
+
+    /**
+     * Force the journal records appended so far (before a commit marker)
+     */
+    void syncJournal() throws IOException {
+        Journal j = journal;
+        if (j != null) {
+            j.sync();
+        }
+    }
+
+    /**
+     * fsync pending journal records and release the file
+     */
+    public void closeJournal() {
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                ErrorHandler.logError(e);
+            }
+            journal = null;
+        }
+    }
+
     public abstract T parseLine(String line);
 }
@@ -0,0 +1,65 @@
+package utilities;
+
+import java.text.Normalizer;
+
+/**
+ * Utility class for building search keys from Vietnamese text.
+ *
+ * fold() lower-cases and removes diacritics so that "Nguyen" matches
+ * "Nguyễn" and "Da Lat" matches "Đà Lạt". Keys are meant to be computed once
+ * per record (on insert/load) and once per query, not per comparison.
+ */
+public class TextNormalizer {
+
+    /**
+     * Fold text to a diacritic-free, lower-case search key.
+     *
+     * @param text Raw text (may be null)
+     * @return Folded key, never null
+     */
+    public static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+
+        // Fast path: plain ASCII only needs lower-casing
+        boolean ascii = true;
+        for (int i = 0; i < text.length() && ascii; i++) {
+            ascii = text.charAt(i) < 0x80;
+        }
+        if (ascii) {
+            return toLowerAscii(text);
+        }
+
+        // Decompose (ễ -> e + marks), then drop the combining marks
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (c == 'đ' || c == 'Đ') {
+                c = 'd'; // Đ has no canonical decomposition
+            }
+            sb.append(Character.toLowerCase(c));
+        }
+        return sb.toString();
+    }
+
+    private static String toLowerAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                char[] chars = text.toCharArray();
+                for (int j = i; j < chars.length; j++) {
+                    if (chars[j] >= 'A' && chars[j] <= 'Z') {
+                        chars[j] = (char) (chars[j] + ('a' - 'A'));
+                    }
+                }
+                return new String(chars);
+            }
+        }
+        return text; // Already lower-case: no allocation
+    }
+}
@@ -0,0 +1,343 @@
+package utilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * Commit log for units of work that span several repository journals.
+ *
+ * A unit of work tags every record it journals with its transaction ID
+ * (see Journal), then appends one marker here:
+ *   C,&lt;txid&gt;
+ * The marker is the commit point. Replay applies tagged records only if
+ * their transaction committed, so a crash between the journals, or before
+ * the marker, replays none of the unit instead of half of it. Records of a
+ * unit that was rolled back are skipped the same way.
+ *
+ * The publish gate makes a unit atomic in memory as well: it applies its
+ * steps and appends its marker under the write lock, while readers that
+ * must not see half a unit (checkpoint captures, reports across
+ * repositories) hold the read lock.
+ *
+ * A marker must never reach the disk before the records it commits, so the
+ * log is only forced after every participant journal, with no marker
+ * appended in between (see sync()).
+ *
+ * Transaction IDs continue after every ID found in the participants'
+ * journals: load all of them before the first unit of work commits.
+ */
+public class TransactionLog {
+
+    private static final TransactionLog SHARED = new TransactionLog(new File(AppConstants.FILE_TRANSACTIONS));
+
+    // Unit of work being applied by the current thread
+    private static final ThreadLocal<Context> CURRENT = new ThreadLocal<>();
+
+    /**
+     * The transaction a thread is applying, and whether it journaled anything
+     */
+    static final class Context {
+        final long txid;
+        boolean journaled;
+
+        Context(long txid) {
+            this.txid = txid;
+        }
+    }
+
+    private final File file;
+    private final StampedLock gate = new StampedLock();
+    private Journal journal; // Opened by the first marker
+    private boolean loaded;
+    private boolean failed; // Unreadable or unwritable: units of work journal plain records
+    private final Set<Long> committed = new HashSet<>();
+    // txid -> log size just after its marker (markers are appended in txid order)
+    private final TreeMap<Long, Long> markerEnds = new TreeMap<>();
+    private long logSize;
+    // Participant -> oldest transaction its journal may still hold (weak: a
+    // discarded repository stops taking part)
+    private final Map<TextFileHandler<?>, Long> participants = new WeakHashMap<>();
+    private long nextTxId = 1;
+
+    public TransactionLog(File file) {
+        this.file = file;
+    }
+
+    /**
+     * The log next to the data files, used by every repository by default
+     */
+    public static TransactionLog shared() {
+        return SHARED;
+    }
+
+    // ===== PUBLISH GATE =====
+
+    /**
+     * Start publishing a unit of work: waits for readers holding the gate and
+     * excludes them until endPublish()
+     *
+     * @return Stamp for endPublish()
+     */
+    public long beginPublish() {
+        return gate.writeLock();
+    }
+
+    public void endPublish(long stamp) {
+        gate.unlockWrite(stamp);
+    }
+
+    /**
+     * Run a read that sees every unit of work entirely or not at all. Must not
+     * commit a unit of work itself (the gate is not reentrant).
+     */
+    public <R> R read(Supplier<R> reader) {
+        long stamp = gate.readLock();
+        try {
+            return reader.get();
+        } finally {
+            gate.unlockRead(stamp);
+        }
+    }
+
+    // ===== TRANSACTIONS =====
+
+    /**
+     * Start a transaction on the current thread: the journal records its
+     * repositories write until leave() are tagged with its ID. Called while
+     * publishing.
+     *
+     * @return Transaction ID, or 0 if the log is unusable (records are then
+     *         journaled untagged, as single operations)
+     */
+    public synchronized long enter() {
+        load();
+        long txid = failed ? 0 : nextTxId++;
+        CURRENT.set(new Context(txid));
+        return txid;
+    }
+
+    /**
+     * @return true if the current thread's transaction journaled any record
+     */
+    public boolean leave() {
+        Context context = CURRENT.get();
+        CURRENT.remove();
+        return context != null && context.journaled;
+    }
+
+    /**
+     * @return Transaction ID to tag the current thread's journal records with,
+     *         0 outside a unit of work
+     */
+    static long current() {
+        Context context = CURRENT.get();
+        if (context == null || context.txid == 0) {
+            return 0;
+        }
+        context.journaled = true;
+        return context.txid;
+    }
+
+    /**
+     * Append the commit marker of a transaction (reaches the OS right away).
+     * Called while publishing, after every record of the unit was journaled.
+     *
+     * @return false if the marker could not be written: the unit's records
+     *         will not replay, so its repositories must be saved in full
+     */
+    public synchronized boolean commit(long txid) {
+        try {
+            if (journal == null) {
+                Journal j = new Journal(file, AppConstants.JOURNAL_SYNC_EVERY_COMMITS,
+                        AppConstants.JOURNAL_SYNC_INTERVAL_MS);
+                j.open();
+                if (j.size() != logSize) {
+                    markerEnds.clear(); // Unexpected content: offsets unknown, keep every marker
+                }
+                logSize = j.size();
+                journal = j;
+            }
+            String marker = String.valueOf(txid);
+            journal.append(Journal.COMMIT, marker);
+            logSize += marker.length() + 3;
+            committed.add(txid);
+            markerEnds.put(txid, logSize);
+            return true;
+        } catch (IOException e) {
+            ErrorHandler.logError(e);
+            return false;
+        }
+    }
+
+    /**
+     * End of a committed unit, after its journals were group-committed: force
+     * the log if its group-commit policy says so (participants first)
+     */
+    public void flush() {
+        boolean due;
+        synchronized (this) {
+            due = journal != null && journal.countCommit();
+        }
+        if (due) {
+            sync();
+        }
+    }
+
+    /**
+     * Force every participant journal, then the log. Publishing waits
+     * meanwhile, so no marker reaches the disk ahead of its records.
+     */
+    public void sync() {
+        long stamp = gate.readLock();
+        try {
+            syncParticipants();
+            Journal j;
+            synchronized (this) {
+                j = journal;
+            }
+            if (j != null) {
+                j.sync();
+            }
+        } catch (IOException e) {
+            ErrorHandler.logError(e);
+        } finally {
+            gate.unlockRead(stamp);
+        }
+    }
+
+    private void syncParticipants() throws IOException {
+        List<TextFileHandler<?>> all;
+        synchronized (this) {
+            all = new ArrayList<>(participants.keySet());
+        }
+        for (TextFileHandler<?> participant : all) {
+            participant.syncJournal();
+        }
+    }
+
+    // ===== REPLAY =====
+
+    /**
+     * Filter a participant's journal for replay: plain records and records of
+     * committed transactions stay (in order), records of transactions without
+     * a marker are dropped. Registers the participant.
+     */
+    synchronized List<Journal.Record> resolve(TextFileHandler<?> participant, List<Journal.Record> records) {
+        long oldest = Long.MAX_VALUE;
+        List<Journal.Record> kept = new ArrayList<>(records.size());
+        for (Journal.Record record : records) {
+            if (record.txid == 0) {
+                kept.add(record);
+                continue;
+            }
+            load();
+            nextTxId = Math.max(nextTxId, record.txid + 1); // Never reuse an uncommitted ID
+            if (committed.contains(record.txid)) {
+                oldest = Math.min(oldest, record.txid);
+                kept.add(record);
+            }
+        }
+        participants.put(participant, Math.min(oldest, nextTxId));
+        return kept;
+    }
+
+    // Read the committed IDs once (repositories may load in parallel)
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        try {
+            for (Journal.Record record : Journal.read(file)) {
+                if (record.op != Journal.COMMIT) {
+                    continue;
+                }
+                long txid = Long.parseLong(record.payload);
+                logSize += record.payload.length() + 3;
+                committed.add(txid);
+                markerEnds.put(txid, logSize);
+                nextTxId = Math.max(nextTxId, txid + 1);
+            }
+        } catch (IOException | NumberFormatException e) {
+            ErrorHandler.logError(new Exception("Warning: " + file.getName()
+                    + " is unreadable - units of work are no longer atomic on disk: " + e.getMessage()));
+            failed = true;
+        }
+    }
+
+    // ===== CLEANUP =====
+
+    /**
+     * @return The ID the next transaction will get
+     */
+    public synchronized long peekNextTxId() {
+        return nextTxId;
+    }
+
+    /**
+     * A participant's checkpoint dropped every record before oldest: markers
+     * no participant can replay any more are removed from the log
+     *
+     * @param oldest peekNextTxId() noted when the checkpoint was captured
+     */
+    void release(TextFileHandler<?> participant, long oldest) {
+        long stamp = gate.readLock();
+        try {
+            long needed;
+            synchronized (this) {
+                participants.put(participant, oldest);
+                needed = Collections.min(participants.values());
+                if (journal == null || markerEnds.lowerKey(needed) == null) {
+                    return;
+                }
+            }
+            // The rewrite forces the surviving markers: their records go first
+            syncParticipants();
+            synchronized (this) {
+                long cut = markerEnds.lowerEntry(needed).getValue();
+                journal.discardBefore(cut);
+                NavigableMap<Long, Long> survivors = new TreeMap<>(markerEnds.tailMap(needed, true));
+                markerEnds.clear();
+                survivors.forEach((txid, end) -> markerEnds.put(txid, end - cut));
+                committed.removeIf(txid -> txid < needed);
+                logSize -= cut;
+            }
+        } catch (IOException e) {
+            ErrorHandler.logError(e);
+        } finally {
+            gate.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return Committed transactions whose markers are still kept
+     */
+    public synchronized int committedCount() {
+        return committed.size();
+    }
+
+    /**
+     * fsync pending markers and release the file
+     */
+    public synchronized void close() {
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                ErrorHandler.logError(e);
+            }
+            journal = null;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+import org.junit.Test;
+
+import models.Tour;
+import repositories.TourRepository;
+import repositories.indexes.BitsetIndex;
+
+import org.junit.Before;
+import static org.junit.Assert.*;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Unit Tests for BitsetIndex Class
+ * Tests flag bits and counts across booked flips, updates, deletes and
+ * rebuilds, and the repository's booked/available queries
+ */
+public class BitsetIndexTest {
+
+    private BitsetIndex<Tour> index;
+
+    @Before
+    public void setUp() {
+        index = new BitsetIndex<>(Tour::getTourId, Tour::isBooked);
+    }
+
+    private Tour tour(String id, boolean booked) {
+        return new Tour(id, "Tour " + id, "2 days 1 night", 100.0, "HS0001",
+                LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 2), 2, booked);
+    }
+
+    private static List<String> ids(List<Tour> tours) {
+        return tours.stream().map(Tour::getTourId).collect(Collectors.toList());
+    }
+
+    // ===== FLAG TESTS =====
+
+    @Test
+    public void testAddSetsFlagAndCounts() {
+        // Arrange & Act
+        index.add(tour("T00001", true));
+        index.add(tour("T00002", false));
+        index.add(tour("T00003", false));
+
+        // Assert
+        assertEquals(1, index.count(true));
+        assertEquals(2, index.count(false));
+        assertEquals(Arrays.asList("T00001"), ids(index.find(true)));
+        assertEquals(Arrays.asList("T00002", "T00003"), ids(index.find(false)));
+    }
+
+    @Test
+    public void testBookedFlipSetsAndClearsBit() {
+        // Arrange
+        Tour tour = tour("T00001", false);
+        index.add(tour);
+        int slot = index.slotOf("T00001");
+
+        // Act & Assert - Flag changes in place, then the entity is re-indexed
+        tour.tryReserve();
+        index.update(tour);
+        assertTrue(index.mask(true).get(slot));
+        assertEquals(1, index.count(true));
+
+        tour.release();
+        index.update(tour);
+        assertFalse(index.mask(true).get(slot));
+        assertTrue(index.mask(false).get(slot));
+        assertEquals(0, index.count(true));
+    }
+
+    @Test
+    public void testUpdateWithSameFlagKeepsCounts() {
+        // Arrange
+        index.add(tour("T00001", true));
+
+        // Act
+        index.update(tour("t00001", true));
+
+        // Assert
+        assertEquals(1, index.count(true));
+        assertEquals(0, index.count(false));
+        assertEquals(index.slotOf("T00001"), index.slotOf("t00001"));
+    }
+
+    @Test
+    public void testRemoveClearsBitsAndReusesSlot() {
+        // Arrange
+        index.add(tour("T00001", true));
+        index.add(tour("T00002", false));
+        int freed = index.slotOf("T00001");
+
+        // Act
+        index.remove("t00001");
+        index.remove("T09999"); // Unknown: no-op
+        index.add(tour("T00003", false));
+
+        // Assert
+        assertEquals(-1, index.slotOf("T00001"));
+        assertEquals(freed, index.slotOf("T00003"));
+        assertEquals(0, index.count(true));
+        assertEquals(2, index.count(false));
+        assertTrue(index.find(true).isEmpty());
+    }
+
+    @Test
+    public void testRebuildReplacesContents() {
+        // Arrange
+        index.add(tour("T00001", true));
+
+        // Act - As after loading the file
+        index.rebuild(Arrays.asList(tour("T00002", true), tour("T00003", false), tour("T00004", true)));
+
+        // Assert
+        assertEquals(-1, index.slotOf("T00001"));
+        assertEquals(2, index.count(true));
+        assertEquals(1, index.count(false));
+        assertEquals(Arrays.asList("T00002", "T00004"), ids(index.find(true)));
+    }
+
+    @Test
+    public void testMasksCombine() {
+        // Arrange
+        index.add(tour("T00001", true));
+        index.add(tour("T00002", false));
+
+        // Act
+        BitSet all = index.mask(true);
+        all.or(index.mask(false));
+
+        // Assert
+        assertEquals(2, all.cardinality());
+        assertEquals(2, index.resolve(all).size());
+    }
+
+    // ===== REPOSITORY TESTS =====
+
+    @Test
+    public void testRepositoryCountsFollowWrites() {
+        // Arrange
+        TourRepository repo = new TourRepository();
+        repo.save(tour("T00001", false));
+        repo.save(tour("T00002", false));
+        repo.save(tour("T00003", true));
+
+        // Act
+        repo.tryReserve("T00001");
+        repo.release("T00003");
+        repo.update(tour("T00002", true));
+        repo.delete("T00001");
+
+        // Assert
+        assertEquals(1, repo.countByBooked(true));
+        assertEquals(1, repo.countByBooked(false));
+        assertEquals(Arrays.asList("T00002"), ids(repo.findByBooked(true)));
+        assertEquals(Arrays.asList("T00003"), ids(repo.findByBooked(false)));
+    }
+}
@@ -120,7 +120,7 @@ public class BookingServiceTest {
         // Assert
         assertTrue(result);
         assertTrue(mockBookingRepo.saveWasCalled);
-        assertTrue(mockTourRepo.updateWasCalled);
+        assertTrue(mockTourRepo.reserveWasCalled);
         assertTrue(availableTour.isBooked()); // Tour should be marked as booked
     }
     
@@ -207,7 +207,8 @@ public class BookingServiceTest {
         // Assert
         assertFalse(result);
         assertTrue(mockBookingRepo.saveWasCalled);
-        assertFalse(mockTourRepo.updateWasCalled); // Tour should not be updated if booking save fails
+        assertTrue(mockTourRepo.releaseWasCalled); // Reservation given back if booking save fails
+        assertFalse(tour.isBooked());
     }
     
     // ===== REMOVE BOOKING TESTS =====
@@ -230,7 +231,7 @@ public class BookingServiceTest {
         // Assert
         assertTrue(result);
         assertTrue(mockBookingRepo.deleteWasCalled);
-        assertTrue(mockTourRepo.updateWasCalled);
+        assertTrue(mockTourRepo.releaseWasCalled);
         assertFalse(bookedTour.isBooked()); // Tour should be marked as available
     }
     
@@ -291,6 +292,117 @@ public class BookingServiceTest {
         assertTrue(mockBookingRepo.findByCustomerNameWasCalled);
     }
     
+    // ===== CONCURRENCY TESTS =====
+    
+    @Test
+    public void testConcurrentBookingsOfSameTourOnlyOneWins() throws InterruptedException {
+        // Arrange: real repositories, 8 clients racing for the same 16 tours
+        repositories.TourRepository tours = new repositories.TourRepository();
+        repositories.BookingRepository bookings = new repositories.BookingRepository();
+        for (int i = 1; i <= 16; i++) {
+            tours.save(new Tour(String.format("T%05d", i), "Test Tour", "3 days 2 nights",
+                    1500.0, "HS0001", validDepartureDate, validDepartureDate.plusDays(2), 4, false));
+        }
+        BookingService service = new BookingService(bookings, tours);
+        java.util.concurrent.atomic.AtomicInteger successes = new java.util.concurrent.atomic.AtomicInteger();
+        List<Thread> clients = new ArrayList<>();
+        for (int c = 0; c < 8; c++) {
+            final int client = c;
+            clients.add(new Thread(() -> {
+                for (int i = 1; i <= 16; i++) {
+                    Booking booking = new Booking(String.format("B%05d", client * 100 + i), "John Doe",
+                            String.format("T%05d", i), validBookingDate, "0123456789");
+                    if (service.addBookingWithValidation(booking)) {
+                        successes.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        
+        // Act
+        for (Thread t : clients) {
+            t.start();
+        }
+        for (Thread t : clients) {
+            t.join();
+        }
+        
+        // Assert
+        assertEquals(16, successes.get());
+        assertEquals(16, bookings.findAll().size());
+        assertEquals(16, tours.findByBooked(true).size());
+    }
+    
+    @Test
+    public void testReadsStayConsistentWhileOtherStripesSave() throws InterruptedException {
+        // Arrange: real repositories; one client books 2000 tours (the indexes
+        // resize many times) while readers look up a booking on another stripe
+        repositories.TourRepository tours = new repositories.TourRepository();
+        repositories.BookingRepository bookings = new repositories.BookingRepository();
+        for (int i = 1; i <= 2000; i++) {
+            tours.save(new Tour(String.format("T%05d", i), "Test Tour", "3 days 2 nights",
+                    1500.0, "HS0001", validDepartureDate, validDepartureDate.plusDays(2), 4, false));
+        }
+        BookingService service = new BookingService(bookings, tours);
+        assertTrue(service.addBookingWithValidation(
+                new Booking("B00001", "John Doe", "T00001", validBookingDate, "0123456789")));
+        java.util.concurrent.atomic.AtomicBoolean writing = new java.util.concurrent.atomic.AtomicBoolean(true);
+        java.util.concurrent.atomic.AtomicInteger wrongReads = new java.util.concurrent.atomic.AtomicInteger();
+        Thread writer = new Thread(() -> {
+            for (int i = 2; i <= 2000; i++) {
+                service.addBookingWithValidation(new Booking(String.format("B%05d", i), "John Doe",
+                        String.format("T%05d", i), validBookingDate, "0123456789"));
+            }
+            writing.set(false);
+        });
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 3; r++) {
+            readers.add(new Thread(() -> {
+                while (writing.get()) {
+                    Booking found = bookings.findById("B00001");
+                    List<Booking> byTour = bookings.findByTourId("T00001");
+                    if (found == null || !bookings.exists("b00001") || byTour.size() != 1
+                            || tours.findById("T00001") == null) {
+                        wrongReads.incrementAndGet();
+                    }
+                }
+            }));
+        }
+
+        // Act
+        writer.start();
+        for (Thread t : readers) {
+            t.start();
+        }
+        writer.join();
+        for (Thread t : readers) {
+            t.join();
+        }
+
+        // Assert
+        assertEquals(0, wrongReads.get());
+        assertEquals(2000, bookings.findAll().size());
+        assertEquals(2000, tours.findByBooked(true).size());
+    }
+    
+    // ===== REFERENTIAL CHECK TESTS =====
+    
+    @Test
+    public void testFindBookingsWithUnknownTour() {
+        // Arrange
+        mockTourRepo.addTour(new Tour("T00001", "Test Tour", "3 days 2 nights",
+                1500.0, "HS0001", validDepartureDate, validDepartureDate.plusDays(2), 4, true));
+        mockBookingRepo.addBooking(new Booking("B00001", "John Doe", "T00001", validBookingDate, "0123456789"));
+        mockBookingRepo.addBooking(new Booking("B00002", "Jane Doe", "T00099", validBookingDate, "0123456788"));
+        
+        // Act
+        List<Booking> result = bookingService.findBookingsWithUnknownTour();
+        
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals("B00002", result.get(0).getBookingID());
+    }
+    
     // ===== FILE I/O TESTS =====
     
     @Test
@@ -392,6 +504,8 @@ public class BookingServiceTest {
         
         // Tracking flags
         boolean updateWasCalled = false;
+        boolean reserveWasCalled = false;
+        boolean releaseWasCalled = false;
         
         void addTour(Tour tour) { this.tours.add(tour); }
         
@@ -433,9 +547,29 @@ public class BookingServiceTest {
         @Override
         public List<Tour> findByDateBefore(LocalDate date) { return new ArrayList<>(); }
         
+        @Override
+        public List<Tour> findByDepartureBetween(LocalDate from, LocalDate to) { return new ArrayList<>(); }
+        
         @Override
         public List<Tour> findByBooked(boolean isBooked) { return new ArrayList<>(); }
         
+        @Override
+        public List<Tour> findOverlapping(String homeId, LocalDate from, LocalDate to) { return new ArrayList<>(); }
+        
+        @Override
+        public boolean tryReserve(String tourId) {
+            reserveWasCalled = true;
+            Tour tour = findById(tourId);
+            return tour != null && tour.tryReserve();
+        }
+        
+        @Override
+        public boolean release(String tourId) {
+            releaseWasCalled = true;
+            Tour tour = findById(tourId);
+            return tour != null && tour.release();
+        }
+        
         @Override
         public void loadFromFile() {}
         
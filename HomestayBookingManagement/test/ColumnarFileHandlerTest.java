@@ -0,0 +1,151 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import models.Booking;
+import models.Tour;
+import repositories.BookingRepository;
+import repositories.TourRepository;
+import utilities.ColumnarFileHandler;
+import utilities.ColumnarSchema;
+
+import static org.junit.Assert.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit Tests for ColumnarFileHandler Class
+ * Tests binary snapshot round trips, corruption detection and schema evolution
+ */
+public class ColumnarFileHandlerTest {
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("snapshot", ".bin");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    private Tour tour(String id, double price, boolean booked) {
+        return new Tour(id, "TPHCM-Đà Lạt", "3 days 2 nights", price, "HS0001",
+                LocalDate.of(2026, 1, 10), LocalDate.of(2026, 1, 12), 5, booked);
+    }
+
+    // ===== ROUND TRIP TESTS =====
+
+    @Test
+    public void testToursRoundTrip() {
+        // Arrange
+        ColumnarFileHandler<Tour> handler = new ColumnarFileHandler<>(TourRepository.COLUMNS);
+        List<Tour> tours = Arrays.asList(tour("T00001", 300.0, false), tour("T00002", 280.5, true));
+
+        // Act
+        assertTrue(handler.save(tours, file.getPath()));
+        List<Tour> loaded = new ArrayList<>();
+        boolean ok = handler.load(loaded, file.getPath());
+
+        // Assert
+        assertTrue(ok);
+        assertEquals(2, loaded.size());
+        assertEquals(tours.get(0).toString(), loaded.get(0).toString());
+        assertEquals(tours.get(1).toString(), loaded.get(1).toString());
+    }
+
+    @Test
+    public void testBookingsRoundTripKeepsUnicode() {
+        // Arrange
+        ColumnarFileHandler<Booking> handler = new ColumnarFileHandler<>(BookingRepository.COLUMNS);
+        Booking booking = new Booking("B00001", "Nguyễn Văn A", "T00001", LocalDate.of(2025, 12, 1), "0901234567");
+
+        // Act
+        handler.save(Arrays.asList(booking), file.getPath());
+        List<Booking> loaded = new ArrayList<>();
+        handler.load(loaded, file.getPath());
+
+        // Assert
+        assertEquals("Nguyễn Văn A", loaded.get(0).getFullName());
+        assertEquals(LocalDate.of(2025, 12, 1), loaded.get(0).getBookingDate());
+        assertEquals("0901234567", loaded.get(0).getPhone());
+    }
+
+    @Test
+    public void testRepeatedStringsShareOneInstance() {
+        ColumnarFileHandler<Tour> handler = new ColumnarFileHandler<>(TourRepository.COLUMNS);
+        handler.save(Arrays.asList(tour("T00001", 1, false), tour("T00002", 2, false)), file.getPath());
+
+        List<Tour> loaded = new ArrayList<>();
+        handler.load(loaded, file.getPath());
+
+        assertSame(loaded.get(0).getHomeID(), loaded.get(1).getHomeID());
+    }
+
+    // ===== ERROR CASES =====
+
+    @Test
+    public void testCorruptedFileIsRejected() throws IOException {
+        // Arrange
+        ColumnarFileHandler<Tour> handler = new ColumnarFileHandler<>(TourRepository.COLUMNS);
+        handler.save(Arrays.asList(tour("T00001", 300.0, false)), file.getPath());
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(20);
+            raf.write(raf.read() ^ 0xFF);
+        }
+
+        // Act
+        List<Tour> loaded = new ArrayList<>();
+        boolean ok = handler.load(loaded, file.getPath());
+
+        // Assert
+        assertFalse(ok);
+        assertTrue(loaded.isEmpty());
+    }
+
+    @Test
+    public void testMissingFileReturnsFalse() {
+        ColumnarFileHandler<Tour> handler = new ColumnarFileHandler<>(TourRepository.COLUMNS);
+        assertFalse(handler.load(new ArrayList<>(), file.getPath() + ".missing"));
+    }
+
+    // ===== SCHEMA EVOLUTION =====
+
+    @Test
+    public void testColumnAddedLaterReadsAsDefault() {
+        // Arrange: snapshot written before the "note" and "guests" columns existed
+        new ColumnarFileHandler<>(BookingRepository.COLUMNS).save(
+                Arrays.asList(new Booking("B00001", "An", "T00001", LocalDate.of(2025, 1, 1), "0901234567")),
+                file.getPath());
+        Object[] extra = new Object[2];
+        ColumnarSchema<Booking> newSchema = new ColumnarSchema<Booking>(row -> {
+            extra[0] = row.str(5);
+            extra[1] = row.i32(6);
+            return new Booking(row.str(0), row.str(1), row.str(2), row.date(3), row.str(4));
+        })
+                .string("bookingID", Booking::getBookingID)
+                .string("fullName", Booking::getFullName)
+                .string("tourID", Booking::getTourID)
+                .date("bookingDate", Booking::getBookingDate)
+                .string("phone", Booking::getPhone)
+                .string("note", b -> "")
+                .integer("guests", b -> 1);
+
+        // Act
+        List<Booking> loaded = new ArrayList<>();
+        boolean ok = new ColumnarFileHandler<>(newSchema).load(loaded, file.getPath());
+
+        // Assert
+        assertTrue(ok);
+        assertEquals("0901234567", loaded.get(0).getPhone());
+        assertNull(extra[0]);
+        assertEquals(0, extra[1]);
+    }
+}
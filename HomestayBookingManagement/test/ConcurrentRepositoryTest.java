@@ -0,0 +1,236 @@
+import org.junit.Test;
+
+import models.Booking;
+import models.Homestay;
+import models.Tour;
+import repositories.TourRepository;
+import repositories.concurrent.ConcurrentBookingRepository;
+import repositories.concurrent.ConcurrentHomestayRepository;
+import repositories.concurrent.ConcurrentTourRepository;
+
+import static org.junit.Assert.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Unit Tests for the concurrent repositories (repositories.concurrent)
+ * Tests query parity with the plain repositories and consistency of the
+ * primary map and indexes under concurrent writers
+ */
+public class ConcurrentRepositoryTest {
+
+    private static Tour tour(String id, String homeId, int startDay, int days) {
+        LocalDate start = LocalDate.of(2030, 1, 1).plusDays(startDay);
+        return new Tour(id, "Tour " + id, days + " days", 100 + startDay, homeId,
+                start, start.plusDays(days), 2, false);
+    }
+
+    private static String tourId(int n) {
+        return String.format("T%05d", n);
+    }
+
+    private static Set<String> ids(Collection<Tour> tours) {
+        Set<String> ids = new TreeSet<>();
+        for (Tour t : tours) {
+            ids.add(t.getTourId());
+        }
+        return ids;
+    }
+
+    private static void runThreads(int count, IntConsumer body) throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int worker = i;
+            threads.add(new Thread(() -> body.accept(worker)));
+        }
+        for (Thread t : threads) {
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+    }
+
+    // ===== QUERY PARITY =====
+
+    @Test
+    public void testQueriesMatchPlainRepository() {
+        // Arrange
+        TourRepository plain = new TourRepository();
+        ConcurrentTourRepository concurrent = new ConcurrentTourRepository();
+        for (int i = 1; i <= 60; i++) {
+            plain.save(tour(tourId(i), "HS000" + (i % 4), i * 3 % 50, 1 + i % 5));
+            concurrent.save(tour(tourId(i), "HS000" + (i % 4), i * 3 % 50, 1 + i % 5));
+        }
+        plain.tryReserve("T00007");
+        concurrent.tryReserve("t00007");
+        LocalDate from = LocalDate.of(2030, 1, 10);
+        LocalDate to = LocalDate.of(2030, 1, 20);
+
+        // Assert
+        assertEquals(ids(plain.findAll()), ids(concurrent.findAll()));
+        assertEquals(ids(plain.findByHomestayId("HS0001")), ids(concurrent.findByHomestayId("hs0001")));
+        assertEquals(ids(plain.findOverlapping("HS0002", from, to)), ids(concurrent.findOverlapping("HS0002", from, to)));
+        assertEquals(ids(plain.findByDepartureBetween(from, to)), ids(concurrent.findByDepartureBetween(from, to)));
+        assertEquals(ids(plain.findByBooked(true)), ids(concurrent.findByBooked(true)));
+        assertEquals(plain.countByBooked(false), concurrent.countByBooked(false));
+        assertEquals(ids(plain.getUpcomingToursByRevenue()), ids(concurrent.getUpcomingToursByRevenue()));
+        assertEquals(ids(plain.topUpcomingByRevenue(-1)), ids(concurrent.topUpcomingByRevenue(-1)));
+        Tour probe = tour("T09999", "HS0003", 12, 2);
+        assertEquals(plain.hasTimeConflict(probe), concurrent.hasTimeConflict(probe));
+    }
+
+    @Test
+    public void testFindAllIsOrderedById() {
+        ConcurrentTourRepository repo = new ConcurrentTourRepository();
+        repo.save(tour("T00003", "HS0001", 1, 1));
+        repo.save(tour("T00001", "HS0001", 3, 1));
+        repo.save(tour("T00002", "HS0001", 5, 1));
+
+        List<Tour> all = repo.findAll();
+
+        assertEquals("T00001", all.get(0).getTourId());
+        assertEquals("T00003", all.get(2).getTourId());
+    }
+
+    @Test
+    public void testViewIsLiveWithoutCopy() {
+        // Arrange
+        ConcurrentTourRepository repo = new ConcurrentTourRepository();
+        Collection<Tour> view = repo.view();
+
+        // Act
+        repo.save(tour("T00001", "HS0001", 1, 1));
+
+        // Assert
+        assertEquals(1, view.size());
+    }
+
+    // ===== CONCURRENT WRITERS =====
+
+    @Test
+    public void testConcurrentSavesKeepIndexesConsistent() throws InterruptedException {
+        // Arrange
+        ConcurrentTourRepository repo = new ConcurrentTourRepository();
+
+        // Act: 8 threads, 500 tours each, spread over 4 homestays
+        runThreads(8, worker -> {
+            for (int i = 0; i < 500; i++) {
+                int n = worker * 500 + i + 1;
+                assertTrue(repo.save(tour(tourId(n), "HS000" + (n % 4), n % 300, 2)));
+            }
+        });
+
+        // Assert
+        assertEquals(4000, repo.findAll().size());
+        int grouped = 0;
+        for (int h = 0; h < 4; h++) {
+            grouped += repo.findByHomestayId("HS000" + h).size();
+        }
+        assertEquals(4000, grouped);
+        assertEquals(4000, repo.countByBooked(false));
+    }
+
+    @Test
+    public void testSameIdSavedByManyThreadsOnlyOnce() throws InterruptedException {
+        ConcurrentTourRepository repo = new ConcurrentTourRepository();
+        AtomicInteger saved = new AtomicInteger();
+
+        runThreads(8, worker -> {
+            if (repo.save(tour("T00001", "HS000" + worker, 1, 1))) {
+                saved.incrementAndGet();
+            }
+        });
+
+        assertEquals(1, saved.get());
+        assertEquals(1, repo.countByBooked(false));
+    }
+
+    @Test
+    public void testRacingUpdatesAndDeletesLeaveOneIndexEntryPerTour() throws InterruptedException {
+        // Arrange
+        ConcurrentTourRepository repo = new ConcurrentTourRepository();
+        for (int n = 1; n <= 50; n++) {
+            repo.save(tour(tourId(n), "HS0000", n, 1));
+        }
+
+        // Act: move tours between homestays, delete and re-create them
+        runThreads(6, worker -> {
+            for (int i = 0; i < 2000; i++) {
+                int n = 1 + (i * 7 + worker) % 50;
+                if (i % 10 == 9) {
+                    repo.delete(tourId(n));
+                    repo.save(tour(tourId(n), "HS0000", n, 1));
+                } else {
+                    repo.update(tour(tourId(n), "HS000" + (worker % 3), n, 1));
+                }
+            }
+        });
+
+        // Assert: every tour is indexed once, under its current homestay
+        int grouped = 0;
+        for (int h = 0; h < 3; h++) {
+            for (Tour t : repo.findByHomestayId("HS000" + h)) {
+                assertSame(repo.findById(t.getTourId()), t);
+                grouped++;
+            }
+        }
+        assertEquals(repo.findAll().size(), grouped);
+    }
+
+    @Test
+    public void testConcurrentReserveHasOneWinner() throws InterruptedException {
+        ConcurrentTourRepository repo = new ConcurrentTourRepository();
+        repo.save(tour("T00001", "HS0001", 1, 1));
+        AtomicInteger winners = new AtomicInteger();
+
+        runThreads(8, worker -> {
+            if (repo.tryReserve("T00001")) {
+                winners.incrementAndGet();
+            }
+        });
+
+        assertEquals(1, winners.get());
+        assertEquals(1, repo.countByBooked(true));
+    }
+
+    // ===== BOOKINGS AND HOMESTAYS =====
+
+    @Test
+    public void testBookingIndexesFollowConcurrentWrites() throws InterruptedException {
+        // Arrange
+        ConcurrentBookingRepository repo = new ConcurrentBookingRepository();
+
+        // Act
+        runThreads(4, worker -> {
+            for (int i = 0; i < 250; i++) {
+                int n = worker * 250 + i + 1;
+                repo.save(new Booking(String.format("B%05d", n), "Khách " + worker, tourId(1 + n % 10),
+                        LocalDate.of(2029, 12, 1), "0901234567"));
+            }
+        });
+        repo.delete("B00001");
+
+        // Assert
+        assertEquals(999, repo.findAll().size());
+        assertEquals(99, repo.findByTourId("T00002").size());
+        assertEquals(250, repo.findByCustomerName("khach 2").size());
+    }
+
+    @Test
+    public void testHomestayNameSearchAfterUpdate() {
+        ConcurrentHomestayRepository repo = new ConcurrentHomestayRepository();
+        repo.save(new Homestay("HS0001", "Sea Breeze", 5, "Nha Trang", 10));
+
+        repo.update(new Homestay("HS0001", "Pine Hill", 5, "Đà Lạt", 10));
+
+        assertTrue(repo.findByName("breeze").isEmpty());
+        assertEquals(1, repo.findByName("pine").size());
+    }
+}
@@ -0,0 +1,93 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import models.Booking;
+import utilities.CsvBlockWriter;
+
+import static org.junit.Assert.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit Tests for CsvBlockWriter Class
+ * Tests block flushing, UTF-8 encoding of surrogate pairs and CsvRecord output
+ */
+public class CsvBlockWriterTest {
+
+    private File file;
+    private FileChannel channel;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("rows", ".txt");
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        channel.close();
+        file.delete();
+    }
+
+    private List<String> lines() throws IOException {
+        return Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testCsvRecordIsWrittenLikeToString() throws IOException {
+        // Arrange
+        Booking booking = new Booking("B00001", "Nguyễn Văn A", "T00001", LocalDate.of(2025, 12, 1), "0901234567");
+
+        // Act
+        try (CsvBlockWriter out = new CsvBlockWriter(channel)) {
+            out.write(booking);
+        }
+
+        // Assert
+        assertEquals(1, lines().size());
+        assertEquals(booking.toString(), lines().get(0));
+    }
+
+    @Test
+    public void testManySmallBlocksKeepEveryLine() throws IOException {
+        // Arrange: 8-char blocks force a flush on almost every record
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            expected.add("row-" + i + ",Đà Lạt");
+        }
+
+        // Act
+        try (CsvBlockWriter out = new CsvBlockWriter(channel, 8)) {
+            for (String row : expected) {
+                out.write(row);
+            }
+        }
+
+        // Assert
+        assertEquals(expected, lines());
+    }
+
+    @Test
+    public void testSupplementaryCharactersRoundTrip() throws IOException {
+        // Arrange: a surrogate pair straddles the 5-char block size
+        String row = "abcd😀efgh";
+
+        // Act
+        try (CsvBlockWriter out = new CsvBlockWriter(channel, 5)) {
+            out.write(row);
+            out.write(row);
+        }
+
+        // Assert
+        assertEquals(row, lines().get(0));
+        assertEquals(row, lines().get(1));
+    }
+}
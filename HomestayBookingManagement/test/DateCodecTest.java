@@ -0,0 +1,97 @@
+import org.junit.Test;
+
+import utilities.AppConstants;
+import utilities.DateCodec;
+
+import static org.junit.Assert.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Unit Tests for DateCodec Utility Class
+ * Tests dd/MM/yyyy and yyyy-MM-dd detection, parsing and formatting
+ */
+public class DateCodecTest {
+
+    // ===== PARSE TESTS =====
+
+    @Test
+    public void testParseDayMonthYear() {
+        assertEquals(LocalDate.of(2026, 1, 10), DateCodec.parse("10/01/2026"));
+    }
+
+    @Test
+    public void testParseIsoDate() {
+        assertEquals(LocalDate.of(2026, 1, 10), DateCodec.parse("2026-01-10"));
+    }
+
+    @Test
+    public void testParseRangeWithoutCopy() {
+        // Arrange
+        String line = "B00001,An,T00001,25/12/2025,0901234567";
+
+        // Act
+        LocalDate date = DateCodec.parse(line, 17, 27);
+
+        // Assert
+        assertEquals(LocalDate.of(2025, 12, 25), date);
+    }
+
+    @Test
+    public void testParseClampsLikeDateFmt() {
+        // DATE_FMT resolves SMART: 31/02 becomes the last day of February
+        assertEquals(LocalDate.parse("31/02/2026", AppConstants.DATE_FMT), DateCodec.parse("31/02/2026"));
+        assertEquals(LocalDate.of(2024, 2, 29), DateCodec.parse("30/02/2024"));
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void testParseIsoIsStrict() {
+        DateCodec.parse("2026-02-31");
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void testParseRejectsDay32() {
+        DateCodec.parse("32/01/2026");
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void testParseRejectsText() {
+        DateCodec.parse("10/Jan/2026");
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void testParseRejectsEmpty() {
+        DateCodec.parse("");
+    }
+
+    @Test
+    public void testParseMatchesFormattersOverAYear() {
+        DateTimeFormatter iso = DateTimeFormatter.ISO_LOCAL_DATE;
+        for (LocalDate d = LocalDate.of(2024, 1, 1); d.getYear() < 2025; d = d.plusDays(1)) {
+            assertEquals(d, DateCodec.parse(d.format(AppConstants.DATE_FMT)));
+            assertEquals(d, DateCodec.parse(d.format(iso)));
+        }
+    }
+
+    // ===== FORMAT TESTS =====
+
+    @Test
+    public void testFormatMatchesDateFmt() {
+        LocalDate date = LocalDate.of(2026, 3, 5);
+        assertEquals(date.format(AppConstants.DATE_FMT), DateCodec.format(date));
+    }
+
+    @Test
+    public void testFormatAppendsToBuilder() {
+        // Arrange
+        StringBuilder sb = new StringBuilder("Date: ");
+
+        // Act
+        DateCodec.format(LocalDate.of(987, 11, 20), sb);
+        DateCodec.formatIso(LocalDate.of(2026, 1, 9), sb.append(' '));
+
+        // Assert
+        assertEquals("Date: 20/11/0987 2026-01-09", sb.toString());
+    }
+}
@@ -0,0 +1,189 @@
+import org.junit.Test;
+
+import models.Tour;
+import repositories.TourRepository;
+import repositories.indexes.DateIndex;
+
+import org.junit.Before;
+import static org.junit.Assert.*;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Unit Tests for DateIndex Class
+ * Tests range edges of after/before/between, date changes on update and
+ * findByDepartureBetween
+ */
+public class DateIndexTest {
+
+    private DateIndex<Tour> index;
+    private LocalDate base;
+
+    @Before
+    public void setUp() {
+        index = new DateIndex<>(Tour::getTourId, Tour::getDepartureDate);
+        base = LocalDate.of(2030, 1, 10);
+    }
+
+    private Tour tour(String id, int dayOffset) {
+        LocalDate departure = base.plusDays(dayOffset);
+        return new Tour(id, "Tour " + id, "2 days 1 night", 100.0, "HS0001",
+                departure, departure.plusDays(1), 2, false);
+    }
+
+    private static List<String> ids(List<Tour> tours) {
+        return tours.stream().map(Tour::getTourId).collect(Collectors.toList());
+    }
+
+    // ===== RANGE EDGE TESTS =====
+
+    @Test
+    public void testAfterAndBeforeExcludeTheDate() {
+        // Arrange
+        index.add(tour("T00001", -1));
+        index.add(tour("T00002", 0));
+        index.add(tour("T00003", 1));
+
+        // Act & Assert
+        assertEquals(Arrays.asList("T00003"), ids(index.after(base)));
+        assertEquals(Arrays.asList("T00001"), ids(index.before(base)));
+    }
+
+    @Test
+    public void testBetweenIncludesBothEnds() {
+        // Arrange
+        index.add(tour("T00001", -1));
+        index.add(tour("T00002", 0));
+        index.add(tour("T00003", 2));
+        index.add(tour("T00004", 3));
+
+        // Act
+        List<Tour> result = index.between(base, base.plusDays(2));
+
+        // Assert
+        assertEquals(Arrays.asList("T00002", "T00003"), ids(result));
+    }
+
+    @Test
+    public void testBetweenSingleDayAndReversedRange() {
+        // Arrange
+        index.add(tour("T00001", 0));
+
+        // Act & Assert
+        assertEquals(Arrays.asList("T00001"), ids(index.between(base, base)));
+        assertTrue(index.between(base.plusDays(1), base).isEmpty());
+    }
+
+    @Test
+    public void testResultsAscendByDateThenInsertion() {
+        // Arrange
+        index.add(tour("T00003", 2));
+        index.add(tour("T00002", 0));
+        index.add(tour("T00001", 0));
+
+        // Act & Assert
+        assertEquals(Arrays.asList("T00002", "T00001", "T00003"), ids(index.after(base.minusDays(1))));
+    }
+
+    @Test
+    public void testMissingDateIsNotIndexed() {
+        // Arrange
+        Tour undated = tour("T00001", 0);
+        undated.setDepartureDate(null);
+
+        // Act
+        index.add(undated);
+
+        // Assert
+        assertTrue(index.after(LocalDate.MIN).isEmpty());
+    }
+
+    // ===== MUTATION TESTS =====
+
+    @Test
+    public void testUpdateMovesEntityToNewDate() {
+        // Arrange
+        index.add(tour("T00001", 0));
+
+        // Act
+        index.update(tour("t00001", 5));
+
+        // Assert
+        assertTrue(index.between(base, base).isEmpty());
+        assertEquals(Arrays.asList("t00001"), ids(index.between(base.plusDays(5), base.plusDays(5))));
+    }
+
+    @Test
+    public void testUpdateOnSameDateKeepsPosition() {
+        // Arrange
+        index.add(tour("T00001", 0));
+        index.add(tour("T00002", 0));
+
+        // Act
+        index.update(tour("T00001", 0));
+
+        // Assert
+        assertEquals(Arrays.asList("T00001", "T00002"), ids(index.between(base, base)));
+    }
+
+    @Test
+    public void testRemoveIsCaseInsensitive() {
+        // Arrange
+        index.add(tour("T00001", 0));
+        index.add(tour("T00002", 0));
+
+        // Act
+        index.remove("t00001");
+        index.remove("T09999"); // Unknown: no-op
+
+        // Assert
+        assertEquals(Arrays.asList("T00002"), ids(index.between(base, base)));
+    }
+
+    @Test
+    public void testDuplicateIdReplacesEntry() {
+        // Arrange
+        index.add(tour("T00001", 0));
+
+        // Act
+        index.add(tour("t00001", 0));
+
+        // Assert
+        assertEquals(1, index.between(base, base).size());
+    }
+
+    @Test
+    public void testRebuildReplacesContents() {
+        // Arrange
+        index.add(tour("T00001", 0));
+
+        // Act
+        index.rebuild(Collections.singletonList(tour("T00002", 1)));
+
+        // Assert
+        assertEquals(Arrays.asList("T00002"), ids(index.after(LocalDate.MIN)));
+    }
+
+    // ===== REPOSITORY TESTS =====
+
+    @Test
+    public void testRepositoryDateQueriesFollowWrites() {
+        // Arrange
+        TourRepository repo = new TourRepository();
+        repo.save(tour("T00001", 0));
+        repo.save(tour("T00002", 1));
+        repo.save(tour("T00003", 2));
+
+        // Act
+        repo.update(tour("T00001", 10));
+        repo.delete("t00003");
+
+        // Assert
+        assertEquals(Arrays.asList("T00002"), ids(repo.findByDepartureBetween(base, base.plusDays(2))));
+        assertEquals(Arrays.asList("T00002"), ids(repo.findByDateBefore(base.plusDays(10))));
+        assertEquals(Arrays.asList("T00001"), ids(repo.findByDateAfter(base.plusDays(1))));
+    }
+}
@@ -0,0 +1,123 @@
+import org.junit.Test;
+
+import utilities.AppConstants;
+import utilities.FieldCursor;
+
+import static org.junit.Assert.*;
+import java.time.LocalDate;
+
+/**
+ * Unit Tests for FieldCursor Utility Class
+ * Tests in-place field tokenizing and typed parsing of CSV records
+ */
+public class FieldCursorTest {
+
+    // ===== TOKENIZING TESTS =====
+
+    @Test
+    public void testFieldsAreTrimmed() {
+        // Arrange
+        FieldCursor fields = new FieldCursor("  T00001 , Da Lat ,3 days  ", ',');
+
+        // Act & Assert
+        assertEquals("T00001", fields.nextString());
+        assertEquals("Da Lat", fields.nextString());
+        assertEquals("3 days", fields.nextString());
+        assertFalse(fields.hasNext());
+    }
+
+    @Test
+    public void testFieldCountIncludesEmptyFields() {
+        assertEquals(4, new FieldCursor("a,,b,", ',').fieldCount());
+        assertEquals(1, new FieldCursor("", ',').fieldCount());
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void testNextPastLastFieldThrows() {
+        FieldCursor fields = new FieldCursor("a,b", ',');
+        fields.next();
+        fields.next();
+        fields.next();
+    }
+
+    @Test
+    public void testNextGreedyKeepsSeparatorsInsideField() {
+        // Arrange
+        FieldCursor fields = new FieldCursor("HS0001-Villa-3-12 Tran-Phu Street-15", '-');
+        fields.next();
+        fields.next();
+        fields.next();
+
+        // Act
+        String address = fields.nextGreedy().asString();
+
+        // Assert
+        assertEquals("12 Tran-Phu Street", address);
+        assertEquals(15, fields.nextInt());
+    }
+
+    @Test
+    public void testIsComparesIgnoringCase() {
+        FieldCursor fields = new FieldCursor(" tourid ,x", ',');
+        fields.next();
+        assertTrue(fields.is("TourID"));
+        assertFalse(fields.is("Tour"));
+    }
+
+    // ===== TYPED PARSING TESTS =====
+
+    @Test
+    public void testNextIntMatchesIntegerParseInt() {
+        FieldCursor fields = new FieldCursor("42,-7,+3,2147483647,-2147483648", ',');
+        assertEquals(42, fields.nextInt());
+        assertEquals(-7, fields.nextInt());
+        assertEquals(3, fields.nextInt());
+        assertEquals(Integer.MAX_VALUE, fields.nextInt());
+        assertEquals(Integer.MIN_VALUE, fields.nextInt());
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testNextIntOverflowThrows() {
+        new FieldCursor("2147483648", ',').nextInt();
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testNextIntRejectsText() {
+        new FieldCursor("12a", ',').nextInt();
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testNextIntRejectsEmptyField() {
+        new FieldCursor(" ,1", ',').nextInt();
+    }
+
+    @Test
+    public void testNextDoubleMatchesDoubleParseDouble() {
+        String[] samples = {"300.0", "280", "-12.5", "0.1", "0.3", "1e3", "123456789.123456", ".5", "7."};
+        for (String sample : samples) {
+            assertEquals(sample, Double.parseDouble(sample), new FieldCursor(sample, ',').nextDouble(), 0.0);
+        }
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testNextDoubleRejectsText() {
+        new FieldCursor("abc", ',').nextDouble();
+    }
+
+    @Test
+    public void testNextBooleanMatchesBooleanParseBoolean() {
+        FieldCursor fields = new FieldCursor("TRUE,false,yes,True", ',');
+        assertTrue(fields.nextBoolean());
+        assertFalse(fields.nextBoolean());
+        assertFalse(fields.nextBoolean());
+        assertTrue(fields.nextBoolean());
+    }
+
+    @Test
+    public void testNextDateParsesInPlace() {
+        FieldCursor fields = new FieldCursor("x, 10/01/2026 ,y", ',');
+        fields.next();
+        assertEquals(LocalDate.of(2026, 1, 10), fields.nextDate(AppConstants.DATE_FMT));
+        assertEquals("y", fields.nextString());
+    }
+}
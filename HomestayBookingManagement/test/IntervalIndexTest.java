@@ -0,0 +1,122 @@
+import org.junit.Test;
+
+import models.Tour;
+import repositories.indexes.IntervalIndex;
+
+import org.junit.Before;
+import static org.junit.Assert.*;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Unit Tests for IntervalIndex Class
+ * Tests per-homestay overlap queries used by tour conflict detection
+ */
+public class IntervalIndexTest {
+
+    private IntervalIndex<Tour> index;
+    private LocalDate base;
+
+    @Before
+    public void setUp() {
+        index = new IntervalIndex<>(Tour::getTourId, Tour::getHomeID,
+                Tour::getDepartureDate, Tour::getEndDate);
+        base = LocalDate.of(2030, 1, 10);
+    }
+
+    private Tour tour(String id, String homeId, int startOffset, int endOffset) {
+        return new Tour(id, "Tour " + id, "3 days 2 nights", 100.0, homeId,
+                base.plusDays(startOffset), base.plusDays(endOffset), 2, false);
+    }
+
+    // ===== OVERLAP QUERY TESTS =====
+
+    @Test
+    public void testFindOverlappingSameHomestay() {
+        // Arrange
+        index.add(tour("T00001", "HS0001", 0, 2));
+        index.add(tour("T00002", "HS0001", 5, 7));
+        index.add(tour("T00003", "HS0002", 0, 2));
+
+        // Act
+        List<Tour> result = index.findOverlapping("HS0001", base.plusDays(1), base.plusDays(3));
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals("T00001", result.get(0).getTourId());
+    }
+
+    @Test
+    public void testBoundaryDayCountsAsOverlap() {
+        // Arrange - Closed intervals, same rule as Tour.isOverlapWith
+        index.add(tour("T00001", "HS0001", 0, 2));
+
+        // Act & Assert
+        assertEquals(1, index.findOverlapping("HS0001", base.plusDays(2), base.plusDays(4)).size());
+        assertEquals(0, index.findOverlapping("HS0001", base.plusDays(3), base.plusDays(4)).size());
+    }
+
+    @Test
+    public void testHomestayKeyIsCaseInsensitive() {
+        // Arrange
+        index.add(tour("T00001", "HS0001", 0, 2));
+
+        // Act & Assert
+        assertEquals(1, index.findOverlapping("hs0001", base, base).size());
+    }
+
+    @Test
+    public void testResultsOrderedByDeparture() {
+        // Arrange
+        index.add(tour("T00003", "HS0001", 20, 22));
+        index.add(tour("T00001", "HS0001", 0, 2));
+        index.add(tour("T00002", "HS0001", 10, 12));
+
+        // Act
+        List<Tour> result = index.findOverlapping("HS0001", base, base.plusDays(30));
+
+        // Assert
+        assertEquals(3, result.size());
+        assertEquals("T00001", result.get(0).getTourId());
+        assertEquals("T00002", result.get(1).getTourId());
+        assertEquals("T00003", result.get(2).getTourId());
+    }
+
+    // ===== MAINTENANCE TESTS =====
+
+    @Test
+    public void testRemove() {
+        // Arrange
+        index.add(tour("T00001", "HS0001", 0, 2));
+
+        // Act
+        index.remove("t00001");
+
+        // Assert
+        assertTrue(index.findOverlapping("HS0001", base, base.plusDays(2)).isEmpty());
+    }
+
+    @Test
+    public void testUpdateAfterInPlaceMutation() {
+        // Arrange
+        Tour t = tour("T00001", "HS0001", 0, 2);
+        index.add(t);
+
+        // Act - Caller mutates first, then re-indexes
+        t.setHomeID("HS0002");
+        t.setDepartureDate(base.plusDays(10));
+        t.setEndDate(base.plusDays(12));
+        index.update(t);
+
+        // Assert
+        assertTrue(index.findOverlapping("HS0001", base, base.plusDays(2)).isEmpty());
+        assertEquals(1, index.findOverlapping("HS0002", base.plusDays(11), base.plusDays(11)).size());
+    }
+
+    @Test
+    public void testUnknownHomestay() {
+        // Act & Assert
+        assertTrue(index.findOverlapping("HS9999", base, base.plusDays(5)).isEmpty());
+        assertTrue(index.findOverlapping(null, base, base.plusDays(5)).isEmpty());
+    }
+}
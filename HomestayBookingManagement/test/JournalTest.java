@@ -0,0 +1,137 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import utilities.Journal;
+
+import static org.junit.Assert.*;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Unit Tests for Journal Class
+ * Tests record append/read-back (plain and tagged), torn-tail recovery and
+ * checkpoint truncation
+ */
+public class JournalTest {
+
+    private File file;
+    private Journal journal;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("tours", ".journal");
+        journal = new Journal(file, 1, 0);
+        journal.open();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        journal.close();
+        file.delete();
+    }
+
+    @Test
+    public void testAppendedRecordsReadBackInOrder() throws IOException {
+        // Arrange
+        journal.append(Journal.UPSERT, "T00001,Da Lat,3 days,300.0,HS0001,10/01/2026,12/01/2026,5,FALSE");
+        journal.append(Journal.DELETE, "T00002");
+        journal.commit();
+
+        // Act
+        List<Journal.Record> records = Journal.read(file);
+
+        // Assert
+        assertEquals(2, records.size());
+        assertEquals(Journal.UPSERT, records.get(0).op);
+        assertTrue(records.get(0).payload.startsWith("T00001,Da Lat"));
+        assertEquals(Journal.DELETE, records.get(1).op);
+        assertEquals("T00002", records.get(1).payload);
+    }
+
+    @Test
+    public void testTaggedRecordsReadBackWithTransactionId() throws IOException {
+        // Arrange
+        journal.append(7, Journal.UPSERT, "B00001,John Doe,T00001,01/01/2030,0123456789");
+        journal.append(0, Journal.DELETE, "T00002");
+        journal.append(Journal.TRANSACTION, "x,D,T00003"); // Malformed tag
+
+        // Act
+        List<Journal.Record> records = Journal.read(file);
+
+        // Assert
+        assertEquals(2, records.size());
+        assertEquals(7, records.get(0).txid);
+        assertEquals(Journal.UPSERT, records.get(0).op);
+        assertTrue(records.get(0).payload.startsWith("B00001,"));
+        assertEquals(0, records.get(1).txid);
+        assertEquals("T00002", records.get(1).payload);
+    }
+
+    @Test
+    public void testTornLastRecordIsIgnoredAndCutOnOpen() throws IOException {
+        // Arrange: one full record, then a crash mid-append
+        journal.append(Journal.DELETE, "T00001");
+        journal.close();
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write("U,T000".getBytes(StandardCharsets.UTF_8));
+        }
+
+        // Act
+        List<Journal.Record> records = Journal.read(file);
+        journal.open();
+        journal.append(Journal.DELETE, "T00003");
+
+        // Assert
+        assertEquals(1, records.size());
+        List<Journal.Record> after = Journal.read(file);
+        assertEquals(2, after.size());
+        assertEquals("T00003", after.get(1).payload);
+    }
+
+    @Test
+    public void testTruncateEmptiesJournal() throws IOException {
+        // Arrange
+        journal.append(Journal.DELETE, "T00001");
+
+        // Act
+        journal.truncate();
+
+        // Assert
+        assertEquals(0, journal.size());
+        assertTrue(Journal.read(file).isEmpty());
+    }
+
+    @Test
+    public void testDiscardBeforeKeepsRecordsAfterMark() throws IOException {
+        // Arrange: two records reached a snapshot, then one more arrived
+        journal.append(Journal.DELETE, "T00001");
+        journal.append(Journal.DELETE, "T00002");
+        long mark = journal.size();
+        journal.append(Journal.DELETE, "T00003");
+
+        // Act
+        journal.discardBefore(mark);
+        journal.append(Journal.DELETE, "T00004");
+
+        // Assert
+        List<Journal.Record> records = Journal.read(file);
+        assertEquals(2, records.size());
+        assertEquals("T00003", records.get(0).payload);
+        assertEquals("T00004", records.get(1).payload);
+    }
+
+    @Test
+    public void testUnicodePayloadRoundTrips() throws IOException {
+        journal.append(Journal.UPSERT, "B00001,Nguyễn Văn Đạt,T00001,10/01/2026,0901234567");
+        assertEquals("B00001,Nguyễn Văn Đạt,T00001,10/01/2026,0901234567", Journal.read(file).get(0).payload);
+    }
+
+    @Test
+    public void testFileForAppendsSuffix() {
+        assertEquals("Tours3.txt.journal", Journal.fileFor("Tours3.txt").getName());
+    }
+}
@@ -0,0 +1,178 @@
+import org.junit.Test;
+
+import models.Homestay;
+import models.Tour;
+import repositories.TourRepository;
+import repositories.indexes.PrimaryKeyIndex;
+
+import org.junit.Before;
+import static org.junit.Assert.*;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit Tests for PrimaryKeyIndex Class
+ * Tests int-decoded ID lookups, string fallback, insertion order and the
+ * repository operations backed by the index
+ */
+public class PrimaryKeyIndexTest {
+
+    private PrimaryKeyIndex<Homestay> index;
+
+    @Before
+    public void setUp() {
+        index = new PrimaryKeyIndex<>(Homestay::getHomeID, "HS", 4, 6);
+    }
+
+    private Homestay homestay(String id) {
+        return new Homestay(id, "Homestay " + id, 3, "Da Lat", 10);
+    }
+
+    // ===== LOOKUP TESTS =====
+
+    @Test
+    public void testGetIsCaseInsensitive() {
+        // Arrange
+        index.insert(homestay("HS0001"));
+
+        // Act & Assert
+        assertNotNull(index.get("hs0001"));
+        assertTrue(index.contains("Hs0001"));
+    }
+
+    @Test
+    public void testDigitWidthIsPartOfKey() {
+        // Arrange
+        index.insert(homestay("HS0001"));
+
+        // Act & Assert - Same numeric value, different ID
+        assertNull(index.get("HS00001"));
+        assertTrue(index.insert(homestay("HS00001")));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void testUndecodableIdFallsBackToStringKey() {
+        // Arrange
+        index.insert(homestay("LEGACY-7"));
+
+        // Act & Assert
+        assertNotNull(index.get("legacy-7"));
+        assertNull(index.get("HS0007"));
+    }
+
+    @Test
+    public void testDuplicateInsertRejected() {
+        // Arrange
+        index.insert(homestay("HS0001"));
+
+        // Act & Assert
+        assertFalse(index.insert(homestay("hs0001")));
+        assertEquals(1, index.size());
+    }
+
+    // ===== MUTATION TESTS =====
+
+    @Test
+    public void testReplaceKeepsPosition() {
+        // Arrange
+        index.insert(homestay("HS0001"));
+        index.insert(homestay("HS0002"));
+        Homestay renamed = new Homestay("HS0001", "Renamed", 3, "Da Lat", 10);
+
+        // Act
+        Homestay old = index.replace(renamed);
+
+        // Assert
+        assertNotNull(old);
+        assertEquals("Renamed", index.values().get(0).getHomeName());
+    }
+
+    @Test
+    public void testReplaceMissingReturnsNull() {
+        // Act & Assert
+        assertNull(index.replace(homestay("HS0009")));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testRemoveAndCompactionKeepOrder() {
+        // Arrange
+        for (int i = 1; i <= 100; i++) {
+            index.insert(homestay(String.format("HS%04d", i)));
+        }
+
+        // Act - Remove every even ID (triggers compaction)
+        for (int i = 2; i <= 100; i += 2) {
+            assertNotNull(index.remove(String.format("HS%04d", i)));
+        }
+
+        // Assert
+        List<Homestay> values = index.values();
+        assertEquals(50, values.size());
+        assertEquals("HS0001", values.get(0).getHomeID());
+        assertEquals("HS0099", values.get(49).getHomeID());
+        assertNotNull(index.get("HS0051"));
+        assertNull(index.get("HS0050"));
+    }
+
+    @Test
+    public void testRemoveIsCaseInsensitiveAndFreesId() {
+        // Arrange
+        index.insert(homestay("HS0001"));
+        index.insert(homestay("LEGACY-7"));
+
+        // Act
+        Homestay removed = index.remove("hs0001");
+        Homestay removedLegacy = index.remove("Legacy-7");
+
+        // Assert
+        assertEquals("HS0001", removed.getHomeID());
+        assertEquals("LEGACY-7", removedLegacy.getHomeID());
+        assertFalse(index.contains("HS0001"));
+        assertNull(index.remove("HS0001"));
+        assertTrue(index.insert(homestay("HS0001")));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testRebuildKeepsFirstDuplicate() {
+        // Arrange
+        Homestay first = homestay("HS0001");
+        Homestay duplicate = new Homestay("hs0001", "Duplicate", 3, "Da Lat", 10);
+
+        // Act
+        List<Homestay> skipped = index.rebuild(Arrays.asList(first, homestay("HS0002"), duplicate));
+
+        // Assert
+        assertEquals(1, skipped.size());
+        assertSame(duplicate, skipped.get(0));
+        assertSame(first, index.get("HS0001"));
+        assertEquals(2, index.size());
+    }
+
+    // ===== REPOSITORY TESTS =====
+
+    private Tour tour(String id) {
+        return new Tour(id, "Tour " + id, "2 days 1 night", 100.0, "HS0001",
+                LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 2), 2, false);
+    }
+
+    @Test
+    public void testRepositoryCrudIsCaseInsensitive() {
+        // Arrange
+        TourRepository repo = new TourRepository();
+        repo.save(tour("T00001"));
+
+        // Act & Assert
+        assertFalse(repo.save(tour("t00001")));
+        assertTrue(repo.exists("t00001"));
+        assertEquals("T00001", repo.findById("t00001").getTourId());
+        assertTrue(repo.update(tour("t00001")));
+        assertTrue(repo.delete("t00001"));
+        assertFalse(repo.exists("T00001"));
+        assertFalse(repo.delete("T00001"));
+        assertTrue(repo.findAll().isEmpty());
+    }
+}
@@ -0,0 +1,158 @@
+import org.junit.Test;
+
+import models.Tour;
+import repositories.TourRepository;
+import repositories.indexes.RankedIndex;
+
+import org.junit.Before;
+import static org.junit.Assert.*;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Unit Tests for RankedIndex Class
+ * Tests descending ranking, re-ranking on update and the rolling cutoff of
+ * TourRepository.topUpcomingByRevenue
+ */
+public class RankedIndexTest {
+
+    private RankedIndex<Tour> index;
+    private LocalDate today;
+
+    @Before
+    public void setUp() {
+        index = new RankedIndex<>(Tour::getTourId, Tour::getTotalAmount);
+        today = LocalDate.of(2030, 1, 10);
+    }
+
+    // Total amount = price * tourists
+    private Tour tour(String id, double price, int departureOffset) {
+        LocalDate departure = today.plusDays(departureOffset);
+        return new Tour(id, "Tour " + id, "2 days 1 night", price, "HS0001",
+                departure, departure.plusDays(1), 1, false);
+    }
+
+    private static List<String> ids(List<Tour> tours) {
+        return tours.stream().map(Tour::getTourId).collect(Collectors.toList());
+    }
+
+    // ===== RANKING TESTS =====
+
+    @Test
+    public void testTopIsDescendingByScore() {
+        // Arrange
+        index.add(tour("T00001", 100, 1));
+        index.add(tour("T00002", 300, 1));
+        index.add(tour("T00003", 200, 1));
+
+        // Act & Assert
+        assertEquals(Arrays.asList("T00002", "T00003", "T00001"), ids(index.top(10)));
+        assertEquals(Arrays.asList("T00002"), ids(index.top(1)));
+        assertTrue(index.top(0).isEmpty());
+    }
+
+    @Test
+    public void testEqualScoresOrderedById() {
+        // Arrange
+        index.add(tour("T00003", 100, 1));
+        index.add(tour("T00001", 100, 1));
+        index.add(tour("T00002", 100, 1));
+
+        // Act & Assert
+        assertEquals(Arrays.asList("T00001", "T00002", "T00003"), ids(index.top(3)));
+    }
+
+    @Test
+    public void testUpdateReRanks() {
+        // Arrange
+        Tour cheap = tour("T00001", 100, 1);
+        index.add(cheap);
+        index.add(tour("T00002", 200, 1));
+
+        // Act - Score changes in place, then the entity is re-indexed
+        cheap.setPrice(500);
+        index.update(cheap);
+
+        // Assert
+        assertEquals(Arrays.asList("T00001", "T00002"), ids(index.top(2)));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void testRemoveIsCaseInsensitive() {
+        // Arrange
+        index.add(tour("T00001", 100, 1));
+
+        // Act
+        index.remove("t00001");
+        index.remove("T09999"); // Unknown: no-op
+
+        // Assert
+        assertFalse(index.contains("T00001"));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testRebuildReplacesContents() {
+        // Arrange
+        index.add(tour("T00001", 100, 1));
+
+        // Act
+        index.rebuild(Arrays.asList(tour("T00002", 100, 1), tour("t00002", 200, 1)));
+
+        // Assert - The later duplicate wins: add() re-ranks the same ID
+        assertEquals(1, index.size());
+        assertFalse(index.contains("T00001"));
+        assertEquals(200, index.top(1).get(0).getPrice(), 0.001);
+    }
+
+    // ===== ROLLING CUTOFF TESTS =====
+
+    @Test
+    public void testCutoffRollsForwardEvictingDepartedTours() {
+        // Arrange - Ranked as of the real clock: all three depart later
+        TourRepository repo = new TourRepository();
+        LocalDate now = LocalDate.now();
+        repo.save(new Tour("T00001", "A", "1 day", 300, "HS0001", now.plusDays(1), now.plusDays(2), 1, false));
+        repo.save(new Tour("T00002", "B", "1 day", 200, "HS0001", now.plusDays(3), now.plusDays(4), 1, false));
+        repo.save(new Tour("T00003", "C", "1 day", 100, "HS0001", now.plusDays(5), now.plusDays(6), 1, false));
+
+        // Act & Assert - A day later T00001 departs today: no longer upcoming
+        assertEquals(Arrays.asList("T00002", "T00003"), ids(repo.topUpcomingByRevenue(10, now.plusDays(1))));
+        // Several days at once
+        assertEquals(Arrays.asList("T00003"), ids(repo.topUpcomingByRevenue(10, now.plusDays(4))));
+    }
+
+    @Test
+    public void testCutoffMovingBackRebuildsRanking() {
+        // Arrange
+        TourRepository repo = new TourRepository();
+        LocalDate now = LocalDate.now();
+        repo.save(new Tour("T00001", "A", "1 day", 300, "HS0001", now.plusDays(1), now.plusDays(2), 1, false));
+        repo.save(new Tour("T00002", "B", "1 day", 200, "HS0001", now.plusDays(3), now.plusDays(4), 1, false));
+        repo.topUpcomingByRevenue(10, now.plusDays(2));
+
+        // Act - Clock moved back
+        List<Tour> result = repo.topUpcomingByRevenue(10, now);
+
+        // Assert
+        assertEquals(Arrays.asList("T00001", "T00002"), ids(result));
+    }
+
+    @Test
+    public void testToursSavedAfterRollForwardRankedAgainstNewCutoff() {
+        // Arrange
+        TourRepository repo = new TourRepository();
+        LocalDate now = LocalDate.now();
+        repo.topUpcomingByRevenue(10, now.plusDays(3));
+
+        // Act - Departs before the advanced cutoff, then after it
+        repo.save(new Tour("T00001", "A", "1 day", 300, "HS0001", now.plusDays(2), now.plusDays(3), 1, false));
+        repo.save(new Tour("T00002", "B", "1 day", 200, "HS0001", now.plusDays(5), now.plusDays(6), 1, false));
+
+        // Assert
+        assertEquals(Arrays.asList("T00002"), ids(repo.topUpcomingByRevenue(10, now.plusDays(3))));
+    }
+}
@@ -0,0 +1,233 @@
+import org.junit.Test;
+
+import models.Booking;
+import models.Tour;
+import repositories.BookingRepository;
+import repositories.TourRepository;
+import repositories.indexes.SecondaryIndex;
+
+import org.junit.Before;
+import static org.junit.Assert.*;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Unit Tests for SecondaryIndex Class
+ * Tests grouping by foreign key, re-grouping on update, findByHomestayId and
+ * findByTourId
+ */
+public class SecondaryIndexTest {
+
+    private SecondaryIndex<Tour> index;
+
+    @Before
+    public void setUp() {
+        index = new SecondaryIndex<>(Tour::getTourId, Tour::getHomeID);
+    }
+
+    private Tour tour(String id, String homeId) {
+        return new Tour(id, "Tour " + id, "2 days 1 night", 100.0, homeId,
+                LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 2), 2, false);
+    }
+
+    private static List<String> ids(List<Tour> tours) {
+        return tours.stream().map(Tour::getTourId).collect(Collectors.toList());
+    }
+
+    // ===== LOOKUP TESTS =====
+
+    @Test
+    public void testGetGroupsInInsertionOrder() {
+        // Arrange
+        index.add(tour("T00002", "HS0001"));
+        index.add(tour("T00001", "HS0001"));
+        index.add(tour("T00003", "HS0002"));
+
+        // Act
+        List<Tour> result = index.get("HS0001");
+
+        // Assert
+        assertEquals(Arrays.asList("T00002", "T00001"), ids(result));
+        assertEquals(1, index.count("HS0002"));
+    }
+
+    @Test
+    public void testGroupKeyIsCaseInsensitive() {
+        // Arrange
+        index.add(tour("T00001", "hs0001"));
+
+        // Act & Assert
+        assertEquals(1, index.get("HS0001").size());
+        assertEquals(1, index.get("Hs0001").size());
+    }
+
+    @Test
+    public void testUnknownOrNullGroupIsEmpty() {
+        assertTrue(index.get("HS9999").isEmpty());
+        assertTrue(index.get(null).isEmpty());
+    }
+
+    @Test
+    public void testGetReturnsDefensiveCopy() {
+        // Arrange
+        index.add(tour("T00001", "HS0001"));
+
+        // Act
+        index.get("HS0001").clear();
+
+        // Assert
+        assertEquals(1, index.count("HS0001"));
+    }
+
+    // ===== MUTATION TESTS =====
+
+    @Test
+    public void testUpdateMovesEntityToNewGroup() {
+        // Arrange
+        index.add(tour("T00001", "HS0001"));
+
+        // Act
+        index.update(tour("t00001", "HS0002"));
+
+        // Assert
+        assertTrue(index.get("HS0001").isEmpty());
+        assertEquals(1, index.count("HS0002"));
+    }
+
+    @Test
+    public void testUpdateInSameGroupKeepsPosition() {
+        // Arrange
+        index.add(tour("T00001", "HS0001"));
+        index.add(tour("T00002", "HS0001"));
+
+        // Act
+        index.update(tour("T00001", "hs0001"));
+
+        // Assert
+        assertEquals(Arrays.asList("T00001", "T00002"), ids(index.get("HS0001")));
+    }
+
+    @Test
+    public void testUpdateOfMutatedEntityLeavesOldGroup() {
+        // Arrange - Caller changes the entity in place before re-indexing it
+        Tour tour = tour("T00001", "HS0001");
+        index.add(tour);
+
+        // Act
+        tour.setHomeID("HS0002");
+        index.update(tour);
+
+        // Assert
+        assertTrue(index.get("HS0001").isEmpty());
+        assertEquals(1, index.count("HS0002"));
+    }
+
+    @Test
+    public void testRemoveIsCaseInsensitive() {
+        // Arrange
+        index.add(tour("T00001", "HS0001"));
+        index.add(tour("T00002", "HS0001"));
+
+        // Act
+        index.remove("t00001");
+        index.remove("T09999"); // Unknown: no-op
+
+        // Assert
+        assertEquals(Arrays.asList("T00002"), ids(index.get("HS0001")));
+    }
+
+    @Test
+    public void testDuplicateIdReplacesEntry() {
+        // Arrange
+        index.add(tour("T00001", "HS0001"));
+
+        // Act
+        index.add(tour("t00001", "HS0001"));
+
+        // Assert
+        assertEquals(1, index.count("HS0001"));
+    }
+
+    @Test
+    public void testRebuildReplacesContents() {
+        // Arrange
+        index.add(tour("T00001", "HS0001"));
+
+        // Act
+        index.rebuild(Arrays.asList(tour("T00002", "HS0002"), tour("T00003", "HS0002")));
+
+        // Assert
+        assertTrue(index.get("HS0001").isEmpty());
+        assertEquals(2, index.count("HS0002"));
+    }
+
+    // ===== REPOSITORY TESTS =====
+
+    @Test
+    public void testRepositoryFindByHomestayIdFollowsWrites() {
+        // Arrange
+        TourRepository repo = new TourRepository();
+        repo.save(tour("T00001", "HS0001"));
+        repo.save(tour("T00002", "HS0001"));
+
+        // Act
+        repo.update(tour("T00002", "HS0002"));
+        repo.delete("T00001");
+
+        // Assert
+        assertTrue(repo.findByHomestayId("hs0001").isEmpty());
+        assertEquals(Arrays.asList("T00002"), ids(repo.findByHomestayId("HS0002")));
+    }
+
+    private static Booking booking(String id, String tourId) {
+        return new Booking(id, "John Doe", tourId, LocalDate.of(2029, 12, 1), "0123456789");
+    }
+
+    private static List<String> bookingIds(List<Booking> bookings) {
+        return bookings.stream().map(Booking::getBookingID).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testFindByTourIdAfterSave() {
+        // Arrange
+        BookingRepository repo = new BookingRepository();
+
+        // Act
+        repo.save(booking("B00001", "T00001"));
+        repo.save(booking("B00002", "T00002"));
+
+        // Assert
+        assertEquals(Arrays.asList("B00001"), bookingIds(repo.findByTourId("t00001")));
+        assertTrue(repo.findByTourId("T00003").isEmpty());
+    }
+
+    @Test
+    public void testFindByTourIdAfterTourChange() {
+        // Arrange
+        BookingRepository repo = new BookingRepository();
+        repo.save(booking("B00001", "T00001"));
+
+        // Act
+        repo.update(booking("B00001", "T00002"));
+
+        // Assert
+        assertTrue(repo.findByTourId("T00001").isEmpty());
+        assertEquals(Arrays.asList("B00001"), bookingIds(repo.findByTourId("T00002")));
+    }
+
+    @Test
+    public void testFindByTourIdAfterDelete() {
+        // Arrange
+        BookingRepository repo = new BookingRepository();
+        repo.save(booking("B00001", "T00001"));
+        repo.save(booking("B00002", "T00001"));
+
+        // Act
+        repo.delete("b00001");
+
+        // Assert
+        assertEquals(Arrays.asList("B00002"), bookingIds(repo.findByTourId("T00001")));
+    }
+}
@@ -0,0 +1,73 @@
+import org.junit.Test;
+
+import utilities.StripedLock;
+
+import static org.junit.Assert.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Unit Tests for StripedLock Class
+ * Tests key-to-stripe mapping, ordered multi-key locking and mutual exclusion
+ */
+public class StripedLockTest {
+
+    @Test
+    public void testStripeCountRoundsUpToPowerOfTwo() {
+        assertEquals(64, new StripedLock(50).stripeCount());
+        assertEquals(1, new StripedLock(1).stripeCount());
+    }
+
+    @Test
+    public void testSameIdMapsToSameStripeIgnoringCase() {
+        StripedLock locks = new StripedLock(64);
+        assertEquals(locks.stripeOf("T00001"), locks.stripeOf(" t00001 "));
+    }
+
+    @Test
+    public void testLockTakesEachStripeOnceInOrder() {
+        // Arrange
+        StripedLock locks = new StripedLock(1); // Every key shares one stripe
+
+        // Act
+        ReentrantLock[] held = locks.lock("T00002", "T00001");
+
+        // Assert
+        assertEquals(1, held.length);
+        assertEquals(1, held[0].getHoldCount());
+        StripedLock.unlock(held);
+        assertFalse(held[0].isLocked());
+    }
+
+    @Test
+    public void testOppositeKeyOrderDoesNotDeadlock() throws InterruptedException {
+        // Arrange
+        StripedLock locks = new StripedLock(64);
+        AtomicInteger counter = new AtomicInteger();
+        Runnable forward = () -> {
+            for (int i = 0; i < 20_000; i++) {
+                ReentrantLock[] held = locks.lock("T00001", "T00002");
+                counter.incrementAndGet();
+                StripedLock.unlock(held);
+            }
+        };
+        Runnable backward = () -> {
+            for (int i = 0; i < 20_000; i++) {
+                ReentrantLock[] held = locks.lock("T00002", "T00001");
+                counter.incrementAndGet();
+                StripedLock.unlock(held);
+            }
+        };
+
+        // Act
+        Thread a = new Thread(forward);
+        Thread b = new Thread(backward);
+        a.start();
+        b.start();
+        a.join();
+        b.join();
+
+        // Assert
+        assertEquals(40_000, counter.get());
+    }
+}
@@ -36,7 +36,26 @@ public class TestRunner {
                 ValidationTest.class,
                 BookingServiceTest.class,
                 TourServiceTest.class,
-                HomestayServiceTest.class
+                HomestayServiceTest.class,
+                IntervalIndexTest.class,
+                TrigramIndexTest.class,
+                TextNormalizerTest.class,
+                PrimaryKeyIndexTest.class,
+                SecondaryIndexTest.class,
+                DateIndexTest.class,
+                RankedIndexTest.class,
+                BitsetIndexTest.class,
+                FieldCursorTest.class,
+                DateCodecTest.class,
+                JournalTest.class,
+                TransactionLogTest.class,
+                ColumnarFileHandlerTest.class,
+                TextFileHandlerTest.class,
+                CsvBlockWriterTest.class,
+                StripedLockTest.class,
+                ConcurrentRepositoryTest.class,
+                VersionedMapTest.class,
+                UnitOfWorkTest.class
         };
 
         int totalTests = 0;
@@ -0,0 +1,449 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import utilities.AppConstants;
+import utilities.IFileService;
+import utilities.ImportReport;
+import utilities.Journal;
+import utilities.TextFileHandler;
+
+import static org.junit.Assert.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit Tests for TextFileHandler Class
+ * Tests dirty tracking (skipped saves, journal-only saves, full rewrites) and
+ * the import report (reject counts, line numbers, reject file) and the
+ * chunked parallel loader against the sequential one
+ */
+public class TextFileHandlerTest {
+
+    /**
+     * Minimal repository over "id,value" lines
+     */
+    private static class LineStore extends TextFileHandler<String> {
+        final List<String> rows = new ArrayList<>();
+        final String fileName;
+
+        LineStore(String fileName) {
+            this.fileName = fileName;
+        }
+
+        @Override
+        public String parseLine(String line) {
+            if (line.startsWith("#")) {
+                return null; // Header
+            }
+            if (line.startsWith("bad")) {
+                return reject(ImportReport.Category.INVALID_VALUE, line, "bad row");
+            }
+            return line;
+        }
+
+        void open() {
+            rows.clear();
+            loadSnapshot(rows, fileName);
+            replayAndOpenJournal(rows, fileName, row -> row.split(",")[0]);
+        }
+
+        void put(String id, String value) {
+            rows.removeIf(row -> row.startsWith(id + ","));
+            String row = id + "," + value;
+            rows.add(row);
+            journalUpsert(id, row);
+        }
+
+        boolean persist() {
+            return persist(() -> new ArrayList<>(rows), fileName);
+        }
+    }
+
+    private File file;
+    private LineStore store;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("lines", ".txt");
+        Files.write(file.toPath(), Arrays.asList("A,1", "B,2"), StandardCharsets.UTF_8);
+        store = new LineStore(file.getPath());
+        store.open();
+    }
+
+    @After
+    public void tearDown() {
+        store.closeJournal();
+        file.delete();
+        Journal.fileFor(file.getPath()).delete();
+        for (File f : rejectFiles()) {
+            f.delete();
+        }
+        snapshotFile().delete();
+    }
+
+    private File snapshotFile() {
+        return new File(file.getPath() + ".bin");
+    }
+
+    private List<File> rejectFiles() {
+        String prefix = file.getName() + AppConstants.REJECT_FILE_SUFFIX + ".";
+        File[] found = file.getAbsoluteFile().getParentFile().listFiles((dir, name) -> name.startsWith(prefix));
+        return found == null ? new ArrayList<>() : Arrays.asList(found);
+    }
+
+    private List<String> fileLines() throws IOException {
+        return Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testCleanStoreIsNotRewritten() throws IOException {
+        // Arrange: content the store would never write itself
+        Files.write(file.toPath(), Arrays.asList("untouched"), StandardCharsets.UTF_8);
+
+        // Act
+        boolean ok = store.persist();
+
+        // Assert
+        assertTrue(ok);
+        assertFalse(store.isDirty());
+        assertEquals(Arrays.asList("untouched"), fileLines());
+    }
+
+    @Test
+    public void testSmallChangeOnlyFlushesJournal() throws IOException {
+        // Arrange
+        store.put("B", "20");
+        store.put("B", "21");
+
+        // Act
+        store.persist();
+
+        // Assert: data file untouched, change recoverable from the journal
+        assertEquals(1, store.changedCount());
+        assertEquals(Arrays.asList("A,1", "B,2"), fileLines());
+        store.closeJournal();
+        LineStore reopened = new LineStore(file.getPath());
+        reopened.open();
+        assertTrue(reopened.rows.contains("B,21"));
+        reopened.closeJournal();
+    }
+
+    @Test
+    public void testMissingSnapshotIsWrittenInFull() throws IOException {
+        // Arrange
+        store.put("C", "3");
+        file.delete();
+
+        // Act
+        store.persist();
+
+        // Assert
+        assertFalse(store.isDirty());
+        assertFalse(store.hasPendingJournal());
+        assertEquals(Arrays.asList("A,1", "B,2", "C,3"), fileLines());
+    }
+
+    @Test
+    public void testManyChangesRewriteFileAndClearDirtyState() throws IOException {
+        // Arrange
+        for (int i = 0; i < 300; i++) {
+            store.put("N" + i, String.valueOf(i));
+        }
+
+        // Act
+        store.persist();
+
+        // Assert
+        assertFalse(store.isDirty());
+        assertFalse(store.hasPendingJournal());
+        assertEquals(302, fileLines().size());
+    }
+
+    @Test
+    public void testCommitJournalSucceedsWhileJournalIsOpen() {
+        // Arrange
+        store.put("C", "3");
+
+        // Act & Assert
+        assertTrue(store.commitJournal());
+    }
+
+    @Test
+    public void testJournalThatCannotOpenAsksForFullSave() throws IOException {
+        // Arrange: a directory where the journal file should be
+        store.closeJournal();
+        Journal.fileFor(file.getPath()).delete();
+        assertTrue(Journal.fileFor(file.getPath()).mkdir());
+        store.open();
+        store.put("C", "3");
+
+        // Act
+        boolean committed = store.commitJournal();
+        boolean persisted = store.persist();
+
+        // Assert: the caller is told to save, and the save rewrites the file
+        assertFalse(committed);
+        assertFalse(store.commitJournal()); // Stays degraded (logged once)
+        assertTrue(persisted);
+        assertEquals(Arrays.asList("A,1", "B,2", "C,3"), fileLines());
+    }
+
+    // ===== IMPORT REPORT =====
+
+    @Test
+    public void testRejectedLinesAreCountedWithLineNumbers() throws IOException {
+        // Arrange
+        Files.write(file.toPath(), Arrays.asList("#id,value", "A,1", "bad,2", "", "C,3", "bad,4"),
+                StandardCharsets.UTF_8);
+
+        // Act
+        boolean ok = store.load(new ArrayList<>(), file.getPath());
+        ImportReport report = store.getLastImport();
+
+        // Assert
+        assertTrue(ok);
+        assertEquals(6, report.getLineCount());
+        assertEquals(2, report.getParsedCount());
+        assertEquals(2, report.getRejectedCount(ImportReport.Category.INVALID_VALUE));
+        assertEquals(3, report.getRejections().get(0).lineNumber);
+        assertEquals(6, report.getRejections().get(1).lineNumber);
+        List<String> rejects = Files.readAllLines(report.getRejectFile().toPath(), StandardCharsets.UTF_8);
+        assertEquals(Arrays.asList("3\tINVALID_VALUE\tbad row\tbad,2", "6\tINVALID_VALUE\tbad row\tbad,4"), rejects);
+    }
+
+    @Test
+    public void testCleanLoadWritesNoRejectFile() throws IOException {
+        // Act
+        store.load(new ArrayList<>(), file.getPath());
+
+        // Assert
+        assertEquals(0, store.getLastImport().getRejectedCount());
+        assertNull(store.getLastImport().getRejectFile());
+        assertTrue(rejectFiles().isEmpty());
+    }
+
+    @Test
+    public void testRejectedRowSurvivesSaveAndCleanReload() throws IOException {
+        // Arrange: a load with a bad row, then a full save drops it from the data file
+        Files.write(file.toPath(), Arrays.asList("A,1", "bad,lost", "B,2"), StandardCharsets.UTF_8);
+        store.closeJournal();
+        store.open();
+        File first = store.getLastImport().getRejectFile();
+        file.delete();
+        assertTrue(store.persist());
+        assertEquals(Arrays.asList("A,1", "B,2"), fileLines());
+
+        // Act: restart on the now clean file, then another load with a bad row
+        store.closeJournal();
+        store.open();
+        List<File> afterCleanLoad = rejectFiles();
+        Files.write(file.toPath(), Arrays.asList("A,1", "bad,other"), StandardCharsets.UTF_8);
+        store.load(new ArrayList<>(), file.getPath());
+
+        // Assert: the first reject file is untouched, the second one is separate
+        assertEquals(Arrays.asList(first), afterCleanLoad);
+        assertEquals(Arrays.asList("2\tINVALID_VALUE\tbad row\tbad,lost"),
+                Files.readAllLines(first.toPath(), StandardCharsets.UTF_8));
+        assertEquals(2, rejectFiles().size());
+    }
+
+    @Test
+    public void testParallelLoadNumbersLinesLikeSequential() throws IOException {
+        // Arrange: large enough for the chunked loader, one bad line in 1000
+        List<String> content = new ArrayList<>();
+        for (int i = 0; i < 120_000; i++) {
+            content.add(i % 1000 == 7 ? "bad," + i : "R" + i + ",value");
+        }
+        Files.write(file.toPath(), content, StandardCharsets.UTF_8);
+        assertTrue(file.length() >= AppConstants.PARALLEL_LOAD_MIN_BYTES);
+
+        // Act
+        store.setLoadMode(TextFileHandler.LoadMode.SEQUENTIAL);
+        store.load(new ArrayList<>(), file.getPath());
+        ImportReport sequential = store.getLastImport();
+        store.setLoadMode(TextFileHandler.LoadMode.PARALLEL);
+        store.load(new ArrayList<>(), file.getPath());
+        ImportReport parallel = store.getLastImport();
+
+        // Assert
+        assertEquals(120_000, parallel.getLineCount());
+        assertEquals(sequential.getParsedCount(), parallel.getParsedCount());
+        assertEquals(120, parallel.getRejectedCount());
+        for (int i = 0; i < 120; i++) {
+            assertEquals(sequential.getRejections().get(i).lineNumber, parallel.getRejections().get(i).lineNumber);
+            assertEquals(i * 1000 + 8, parallel.getRejections().get(i).lineNumber);
+        }
+    }
+
+    // ===== PARALLEL LOAD =====
+
+    // Over PARALLEL_LOAD_MIN_BYTES, lines of varying length (so chunk cut
+    // points fall inside records), one bad row in the middle
+    private String bigContent(String eol, boolean finalEol) {
+        StringBuilder sb = new StringBuilder();
+        int lines = 60_000;
+        for (int i = 0; i < lines; i++) {
+            if (i > 0) {
+                sb.append(eol);
+            }
+            if (i == lines / 2) {
+                sb.append("bad,").append(i);
+                continue;
+            }
+            sb.append('R').append(i).append(",Đà Lạt ");
+            for (int j = 0; j < i % 41; j++) {
+                sb.append('x');
+            }
+        }
+        if (finalEol) {
+            sb.append(eol);
+        }
+        return sb.toString();
+    }
+
+    private void assertParallelMatchesSequential(String content) throws IOException {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        assertTrue(file.length() >= AppConstants.PARALLEL_LOAD_MIN_BYTES);
+        assertTrue(file.length() >= 2 * AppConstants.PARALLEL_LOAD_MIN_CHUNK_BYTES); // Several chunks
+
+        List<String> sequentialRows = new ArrayList<>();
+        store.setLoadMode(TextFileHandler.LoadMode.SEQUENTIAL);
+        assertTrue(store.load(sequentialRows, file.getPath()));
+        ImportReport sequential = store.getLastImport();
+
+        List<String> parallelRows = new ArrayList<>();
+        store.setLoadMode(TextFileHandler.LoadMode.PARALLEL);
+        assertTrue(store.load(parallelRows, file.getPath()));
+        ImportReport parallel = store.getLastImport();
+
+        assertEquals(sequentialRows, parallelRows);
+        assertEquals(sequential.getLineCount(), parallel.getLineCount());
+        assertEquals(1, sequential.getRejectedCount());
+        assertEquals(sequential.getRejectedCount(), parallel.getRejectedCount());
+        assertEquals(sequential.getRejections().get(0).lineNumber, parallel.getRejections().get(0).lineNumber);
+    }
+
+    @Test
+    public void testParallelLoadRecordsStraddlingChunkEdges() throws IOException {
+        assertParallelMatchesSequential(bigContent("\n", true));
+        assertEquals(30_001, store.getLastImport().getRejections().get(0).lineNumber);
+    }
+
+    @Test
+    public void testParallelLoadCrlf() throws IOException {
+        assertParallelMatchesSequential(bigContent("\r\n", true));
+        assertEquals(60_000, store.getLastImport().getLineCount());
+    }
+
+    @Test
+    public void testParallelLoadFinalLineWithoutNewline() throws IOException {
+        assertParallelMatchesSequential(bigContent("\n", false));
+        assertEquals(60_000, store.getLastImport().getLineCount());
+    }
+
+    @Test
+    public void testParallelLoadLoneCarriageReturn() throws IOException {
+        assertParallelMatchesSequential(bigContent("\r", false));
+        assertEquals(60_000, store.getLastImport().getLineCount());
+    }
+
+    // ===== SNAPSHOT FORMAT =====
+
+    /**
+     * Stand-in for a binary snapshot format: plain lines
+     */
+    private static class LineSnapshots implements IFileService<String> {
+        @Override
+        public boolean load(List<String> list, String fileName) {
+            try {
+                list.clear();
+                list.addAll(Files.readAllLines(new File(fileName).toPath(), StandardCharsets.UTF_8));
+                return true;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public boolean save(List<String> list, String fileName) {
+            try {
+                Files.write(new File(fileName).toPath(), list, StandardCharsets.UTF_8);
+                return true;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+    }
+
+    private LineStore snapshotStore() {
+        LineStore s = new LineStore(file.getPath());
+        s.setSnapshotStore(new LineSnapshots(), ".bin");
+        return s;
+    }
+
+    @Test
+    public void testSnapshotPreferredOverOlderCsv() throws IOException {
+        // Arrange
+        Files.write(snapshotFile().toPath(), Arrays.asList("A,1", "S,snapshot"), StandardCharsets.UTF_8);
+        assertTrue(file.setLastModified(snapshotFile().lastModified() - 10_000));
+        store.closeJournal();
+        LineStore reopened = snapshotStore();
+
+        // Act
+        reopened.open();
+
+        // Assert
+        assertEquals(Arrays.asList("A,1", "S,snapshot"), reopened.rows);
+        reopened.closeJournal();
+    }
+
+    @Test
+    public void testHandEditedCsvNewerThanSnapshotIsLoaded() throws IOException {
+        // Arrange - Checkpoint writes only the snapshot, then the CSV is edited by hand
+        store.closeJournal();
+        LineStore binary = snapshotStore();
+        binary.open();
+        binary.put("C", "3");
+        assertTrue(binary.persist());
+        binary.closeJournal();
+        assertTrue(snapshotFile().setLastModified(System.currentTimeMillis() - 10_000));
+        Files.write(file.toPath(), Arrays.asList("A,1", "B,2", "E,edited"), StandardCharsets.UTF_8);
+
+        // Act
+        LineStore reopened = snapshotStore();
+        reopened.open();
+
+        // Assert
+        assertEquals(Arrays.asList("A,1", "B,2", "E,edited"), reopened.rows);
+        reopened.closeJournal();
+    }
+
+    @Test
+    public void testJournalOfBypassedSnapshotIsDiscarded() throws IOException {
+        // Arrange - Journaled change on top of the snapshot, then the CSV is edited by hand
+        store.closeJournal();
+        LineStore binary = snapshotStore();
+        binary.open();
+        binary.put("C", "3");
+        assertTrue(binary.persist());
+        binary.put("E", "journaled");
+        binary.closeJournal();
+        assertTrue(snapshotFile().setLastModified(System.currentTimeMillis() - 10_000));
+        Files.write(file.toPath(), Arrays.asList("A,1", "E,edited"), StandardCharsets.UTF_8);
+
+        // Act
+        LineStore reopened = snapshotStore();
+        reopened.open();
+
+        // Assert - The stale record neither overwrites the edit now nor later
+        assertEquals(Arrays.asList("A,1", "E,edited"), reopened.rows);
+        assertFalse(reopened.hasPendingJournal());
+        reopened.closeJournal();
+    }
+}
@@ -0,0 +1,54 @@
+import org.junit.Test;
+
+import utilities.TextNormalizer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit Tests for TextNormalizer Utility Class
+ * Tests diacritic-insensitive search key folding for Vietnamese names
+ */
+public class TextNormalizerTest {
+
+    // ===== VALID CASES =====
+
+    @Test
+    public void testFoldAsciiLowerCases() {
+        assertEquals("nguyen van a", TextNormalizer.fold("Nguyen Van A"));
+    }
+
+    @Test
+    public void testFoldAlreadyLowerCaseAscii() {
+        assertEquals("john doe", TextNormalizer.fold("john doe"));
+    }
+
+    @Test
+    public void testFoldRemovesVietnameseDiacritics() {
+        assertEquals("nguyen", TextNormalizer.fold("Nguyễn"));
+        assertEquals("tran thi binh", TextNormalizer.fold("Trần Thị Bình"));
+        assertEquals("le hoa", TextNormalizer.fold("Lê Hoà"));
+    }
+
+    @Test
+    public void testFoldDStroke() {
+        assertEquals("da lat", TextNormalizer.fold("Đà Lạt"));
+        assertEquals("dung", TextNormalizer.fold("đủng"));
+    }
+
+    @Test
+    public void testFoldUpperCaseVietnamese() {
+        assertEquals("nguyen", TextNormalizer.fold("NGUYỄN"));
+    }
+
+    // ===== EDGE CASES =====
+
+    @Test
+    public void testFoldNull() {
+        assertEquals("", TextNormalizer.fold(null));
+    }
+
+    @Test
+    public void testFoldEmpty() {
+        assertEquals("", TextNormalizer.fold(""));
+    }
+}
@@ -10,6 +10,7 @@ import services.TourService;
 
 import org.junit.Before;
 import static org.junit.Assert.*;
+import java.lang.reflect.Proxy;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -269,6 +270,46 @@ public class TourServiceTest {
         assertTrue(result.get(0).getTotalAmount() >= result.get(1).getTotalAmount());
     }
     
+    // Tour repository that is not an AbstractTourRepository: only
+    // findByDateAfter answers, so the service takes its fallback path
+    private static ITourRepository plainRepository(List<Tour> upcoming) {
+        return (ITourRepository) Proxy.newProxyInstance(ITourRepository.class.getClassLoader(),
+                new Class<?>[] { ITourRepository.class },
+                (proxy, method, args) -> method.getName().equals("findByDateAfter") ? new ArrayList<>(upcoming) : null);
+    }
+    
+    @Test
+    public void testGetTopUpcomingByRevenueFallbackKeepsFirstK() {
+        // Arrange
+        List<Tour> upcomingTours = new ArrayList<>();
+        upcomingTours.add(new Tour("T00001", "High Revenue Tour", "3 days 2 nights", 
+                                 2000.0, "HS0001", futureDate, futureDate.plusDays(2), 5, false));
+        upcomingTours.add(new Tour("T00002", "Low Revenue Tour", "2 days 1 night", 
+                                 1000.0, "HS0001", futureDate.plusDays(5), futureDate.plusDays(6), 2, false));
+        TourService service = new TourService(plainRepository(upcomingTours), mockHomestayRepo);
+        
+        // Act
+        List<Tour> result = service.getTopUpcomingByRevenue(1);
+        
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals("T00001", result.get(0).getTourId());
+    }
+    
+    @Test
+    public void testGetTopUpcomingByRevenueWithNegativeKIsEmpty() {
+        // Arrange
+        List<Tour> upcomingTours = new ArrayList<>();
+        upcomingTours.add(new Tour("T00001", "Upcoming Tour", "3 days 2 nights", 
+                                 2000.0, "HS0001", futureDate, futureDate.plusDays(2), 5, false));
+        TourService service = new TourService(plainRepository(upcomingTours), mockHomestayRepo);
+        mockTourRepo.save(upcomingTours.get(0));
+        
+        // Act & Assert - Fallback and ranked index agree
+        assertTrue(service.getTopUpcomingByRevenue(-1).isEmpty());
+        assertTrue(tourService.getTopUpcomingByRevenue(-1).isEmpty());
+    }
+    
     @Test
     public void testGetExpiredTours() {
         // Arrange
@@ -344,6 +385,25 @@ public class TourServiceTest {
         assertEquals(0, result[0][1]); // No booked tours
     }
     
+    @Test
+    public void testGetStatisticsMatchesHomestayIdIgnoringCase() {
+        // Arrange - Tour refers to its homestay in lower case, as the repositories accept
+        List<Homestay> homestays = new ArrayList<>();
+        homestays.add(new Homestay("HS0001", "Homestay 1", 3, "Address 1", 10));
+        mockHomestayRepo.setHomestays(homestays);
+
+        List<Tour> tours = new ArrayList<>();
+        tours.add(new Tour("T00001", "Tour 1", "3 days 2 nights",
+                         1500.0, "hs0001", futureDate, futureDate.plusDays(2), 4, true));
+        mockTourRepo.setToursByHomestay("hs0001", tours);
+
+        // Act
+        Object[][] result = tourService.getStatistics();
+
+        // Assert
+        assertEquals(4, result[0][1]);
+    }
+
     @Test
     public void testGetStatisticsEmptyHomestays() {
         // Arrange
@@ -356,6 +416,29 @@ public class TourServiceTest {
         assertEquals(0, result.length);
     }
     
+    // ===== REFERENTIAL CHECK TESTS =====
+    
+    @Test
+    public void testFindToursWithUnknownHomestay() {
+        // Arrange
+        List<Homestay> homestays = new ArrayList<>();
+        homestays.add(new Homestay("HS0001", "Alee DaLat Homestay", 3, "12A/6 3rd February Street", 15));
+        mockHomestayRepo.setHomestays(homestays);
+        List<Tour> tours = new ArrayList<>();
+        tours.add(new Tour("T00001", "Test Tour", "3 days 2 nights",
+                1500.0, "HS0001", futureDate, futureDate.plusDays(2), 4, false));
+        tours.add(new Tour("T00002", "Orphan Tour", "3 days 2 nights",
+                1500.0, "HS0099", futureDate, futureDate.plusDays(2), 4, false));
+        mockTourRepo.setTours(tours);
+        
+        // Act
+        List<Tour> result = tourService.findToursWithUnknownHomestay();
+        
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals("T00002", result.get(0).getTourId());
+    }
+    
     // ===== FILE I/O TESTS =====
     
     @Test
@@ -456,6 +539,11 @@ public class TourServiceTest {
         @Override
         public boolean exists(String id) { return findById(id) != null; }
         
+        @Override
+        public repositories.interfaces.Snapshot<Tour> snapshot() {
+            return repositories.interfaces.Snapshot.of(new ArrayList<>(tours));
+        }
+        
         @Override
         public List<Tour> findByHomestayId(String homeId) {
             return tours.stream().filter(t -> t.getHomeID().equals(homeId)).collect(java.util.stream.Collectors.toList());
@@ -423,4 +423,27 @@ public class TourTest {
         // Assert
         assertEquals(Integer.MAX_VALUE, validTour.getNumberTourist());
     }
-}
\ No newline at end of file
+
+    // ===== RESERVATION TESTS =====
+
+    @Test
+    public void testTryReserveSucceedsOnlyOnce() {
+        // Act
+        boolean first = validTour.tryReserve();
+        boolean second = validTour.tryReserve();
+
+        // Assert
+        assertTrue(first);
+        assertFalse(second);
+        assertTrue(validTour.isBooked());
+    }
+
+    @Test
+    public void testReleaseOnlyWhenBooked() {
+        // Act & Assert
+        assertFalse(validTour.release());
+        validTour.setIsBooked(true);
+        assertTrue(validTour.release());
+        assertFalse(validTour.isBooked());
+    }
+}
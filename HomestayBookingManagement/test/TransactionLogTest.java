@@ -0,0 +1,236 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import utilities.Journal;
+import utilities.TextFileHandler;
+import utilities.TransactionLog;
+
+import static org.junit.Assert.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit Tests for TransactionLog Class
+ * Tests that replay honors commit markers across two journals (crash before
+ * the marker, rollback), transaction ID reuse, marker cleanup after
+ * checkpoints and the publish gate
+ */
+public class TransactionLogTest {
+
+    /**
+     * Minimal repository over "id,value" lines
+     */
+    private static class LineStore extends TextFileHandler<String> {
+        final List<String> rows = new ArrayList<>();
+        final String fileName;
+
+        LineStore(String fileName, TransactionLog log) {
+            this.fileName = fileName;
+            setTransactionLog(log);
+        }
+
+        @Override
+        public String parseLine(String line) {
+            return line;
+        }
+
+        void open() {
+            rows.clear();
+            loadSnapshot(rows, fileName);
+            replayAndOpenJournal(rows, fileName, row -> row.split(",")[0]);
+        }
+
+        void put(String id, String value) {
+            rows.removeIf(row -> row.startsWith(id + ","));
+            String row = id + "," + value;
+            rows.add(row);
+            journalUpsert(id, row);
+        }
+
+        boolean checkpoint() {
+            return checkpoint(() -> new ArrayList<>(rows), fileName);
+        }
+    }
+
+    private File logFile;
+    private File tourFile;
+    private File bookingFile;
+    private TransactionLog log;
+    private LineStore tours;
+    private LineStore bookings;
+
+    @Before
+    public void setUp() throws IOException {
+        logFile = File.createTempFile("transactions", ".journal");
+        tourFile = File.createTempFile("tours", ".txt");
+        bookingFile = File.createTempFile("bookings", ".txt");
+        Files.write(tourFile.toPath(), Arrays.asList("T1,free"), StandardCharsets.UTF_8);
+        Files.write(bookingFile.toPath(), Arrays.asList("B0,T9"), StandardCharsets.UTF_8);
+        open();
+    }
+
+    @After
+    public void tearDown() {
+        tours.closeJournal();
+        bookings.closeJournal();
+        log.close();
+        for (File f : Arrays.asList(logFile, tourFile, bookingFile)) {
+            f.delete();
+        }
+        Journal.fileFor(tourFile.getPath()).delete();
+        Journal.fileFor(bookingFile.getPath()).delete();
+    }
+
+    // Fresh log and stores over the same files, as after a restart
+    private void open() {
+        log = new TransactionLog(logFile);
+        tours = new LineStore(tourFile.getPath(), log);
+        bookings = new LineStore(bookingFile.getPath(), log);
+        tours.open();
+        bookings.open();
+    }
+
+    private void restart() {
+        tours.closeJournal();
+        bookings.closeJournal();
+        log.close();
+        open();
+    }
+
+    // One unit of work; without a marker it is a crash right before the commit point
+    private long unit(Runnable apply, boolean writeMarker) {
+        long stamp = log.beginPublish();
+        try {
+            long txid = log.enter();
+            try {
+                apply.run();
+            } finally {
+                log.leave();
+            }
+            if (writeMarker) {
+                assertTrue(log.commit(txid));
+            }
+            return txid;
+        } finally {
+            log.endPublish(stamp);
+        }
+    }
+
+    // ===== REPLAY =====
+
+    @Test
+    public void testCommittedUnitReplaysInBothJournals() {
+        // Arrange
+        unit(() -> {
+            tours.put("T1", "booked");
+            bookings.put("B1", "T1");
+        }, true);
+
+        // Act
+        restart();
+
+        // Assert
+        assertEquals(Arrays.asList("T1,booked"), tours.rows);
+        assertEquals(Arrays.asList("B0,T9", "B1,T1"), bookings.rows);
+    }
+
+    @Test
+    public void testUnitWithoutMarkerReplaysInNeitherJournal() {
+        // Arrange - Both journals hold the unit's records, the marker is missing
+        unit(() -> {
+            tours.put("T1", "booked");
+            bookings.put("B1", "T1");
+        }, false);
+        bookings.put("B2", "T8"); // Plain record after it
+
+        // Act
+        restart();
+
+        // Assert
+        assertEquals(Arrays.asList("T1,free"), tours.rows);
+        assertEquals(Arrays.asList("B0,T9", "B2,T8"), bookings.rows);
+    }
+
+    @Test
+    public void testRolledBackUnitIsSkipped() {
+        // Arrange - Applied, then undone: records and undo records, no marker
+        unit(() -> {
+            tours.put("T1", "booked");
+            tours.put("T1", "free");
+        }, false);
+        tours.put("T1", "renamed");
+
+        // Act
+        restart();
+
+        // Assert
+        assertEquals(Arrays.asList("T1,renamed"), tours.rows);
+    }
+
+    @Test
+    public void testUncommittedIdIsNotReused() {
+        // Arrange
+        long lost = unit(() -> tours.put("T1", "booked"), false);
+        restart();
+
+        // Act
+        long next = unit(() -> bookings.put("B1", "T1"), true);
+        restart();
+
+        // Assert - The lost unit stays lost after the next one commits
+        assertTrue(next > lost);
+        assertEquals(Arrays.asList("T1,free"), tours.rows);
+        assertEquals(Arrays.asList("B0,T9", "B1,T1"), bookings.rows);
+    }
+
+    // ===== CLEANUP =====
+
+    @Test
+    public void testMarkerIsDroppedOnceEveryJournalCheckpointed() throws IOException {
+        // Arrange
+        unit(() -> {
+            tours.put("T1", "booked");
+            bookings.put("B1", "T1");
+        }, true);
+
+        // Act & Assert - The booking journal still needs the marker
+        assertTrue(tours.checkpoint());
+        assertEquals(1, log.committedCount());
+        assertTrue(bookings.checkpoint());
+        assertEquals(0, log.committedCount());
+        assertEquals(0, logFile.length());
+
+        // Assert - Nothing lost
+        restart();
+        assertEquals(Arrays.asList("T1,booked"), tours.rows);
+        assertEquals(Arrays.asList("B0,T9", "B1,T1"), bookings.rows);
+    }
+
+    // ===== PUBLISH GATE =====
+
+    @Test
+    public void testReaderWaitsForPublishingUnit() throws InterruptedException {
+        // Arrange
+        List<String> seen = new ArrayList<>();
+        long stamp = log.beginPublish();
+        Thread reader = new Thread(() -> seen.add(log.read(() -> tours.rows.get(0))));
+
+        // Act
+        reader.start();
+        reader.join(100);
+        boolean waited = reader.isAlive();
+        tours.rows.set(0, "T1,booked");
+        log.endPublish(stamp);
+        reader.join();
+
+        // Assert
+        assertTrue(waited);
+        assertEquals(Arrays.asList("T1,booked"), seen);
+    }
+}
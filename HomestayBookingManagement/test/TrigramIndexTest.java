@@ -0,0 +1,108 @@
+import org.junit.Test;
+
+import models.Booking;
+import repositories.indexes.TrigramIndex;
+
+import org.junit.Before;
+import static org.junit.Assert.*;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Unit Tests for TrigramIndex Class
+ * Tests substring customer-name search and index maintenance
+ */
+public class TrigramIndexTest {
+
+    private TrigramIndex<Booking> index;
+    private LocalDate bookingDate;
+
+    @Before
+    public void setUp() {
+        index = new TrigramIndex<>(Booking::getBookingID, Booking::getFullName);
+        bookingDate = LocalDate.now().plusDays(1);
+        index.add(new Booking("B00001", "John Doe", "T00001", bookingDate, "0123456789"));
+        index.add(new Booking("B00002", "John Smith", "T00002", bookingDate, "0987654321"));
+        index.add(new Booking("B00003", "Jane Doe", "T00003", bookingDate, "0111222333"));
+    }
+
+    // ===== SEARCH TESTS =====
+
+    @Test
+    public void testSearchPartialMatchCaseInsensitive() {
+        // Act
+        List<Booking> result = index.search("JOHN");
+
+        // Assert
+        assertEquals(2, result.size());
+    }
+
+    @Test
+    public void testSearchAcrossWordBoundary() {
+        // Act
+        List<Booking> result = index.search("n do");
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals("B00001", result.get(0).getBookingID());
+    }
+
+    @Test
+    public void testSearchShortQueryFallsBackToScan() {
+        // Act - Shorter than one trigram
+        List<Booking> result = index.search("do");
+
+        // Assert
+        assertEquals(2, result.size());
+    }
+
+    @Test
+    public void testSearchTrigramsPresentButNotContiguous() {
+        // Act - "joh" and "doe" both exist, but "johdoe" is not a substring
+        List<Booking> result = index.search("johdoe");
+
+        // Assert
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    public void testSearchIgnoresDiacritics() {
+        // Arrange
+        index.add(new Booking("B00004", "Nguyễn Văn An", "T00004", bookingDate, "0123123123"));
+
+        // Act & Assert
+        assertEquals(1, index.search("nguyen van").size());
+        assertEquals(1, index.search("Nguyễn").size());
+    }
+
+    @Test
+    public void testSearchNoResults() {
+        // Act & Assert
+        assertTrue(index.search("Nobody").isEmpty());
+    }
+
+    // ===== MAINTENANCE TESTS =====
+
+    @Test
+    public void testUpdateRenamesRecord() {
+        // Arrange
+        Booking renamed = new Booking("B00002", "Mary Smith", "T00002", bookingDate, "0987654321");
+
+        // Act
+        index.update(renamed);
+
+        // Assert
+        assertEquals(1, index.search("john").size());
+        assertEquals(1, index.search("mary").size());
+    }
+
+    @Test
+    public void testRemove() {
+        // Act
+        index.remove("b00001");
+
+        // Assert
+        assertEquals(1, index.search("john").size());
+        assertEquals("B00002", index.search("john").get(0).getBookingID());
+    }
+}
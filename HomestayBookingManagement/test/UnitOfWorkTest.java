@@ -0,0 +1,217 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import models.Booking;
+import models.Tour;
+import repositories.BookingRepository;
+import repositories.TourRepository;
+import repositories.UnitOfWork;
+import services.BookingService;
+
+import static org.junit.Assert.*;
+import java.time.LocalDate;
+
+/**
+ * Unit Tests for UnitOfWork Class
+ * Tests validation before apply, rollback of partial commits and the
+ * BookingService operations built on top of it
+ */
+public class UnitOfWorkTest {
+
+    /**
+     * Booking repository whose save(), update() and journal commit can be
+     * made to fail
+     */
+    private static class FailingBookingRepository extends BookingRepository {
+        boolean failSave;
+        boolean failUpdate;
+        boolean failJournal;
+        int fullSaves;
+
+        @Override
+        public boolean save(Booking entity) {
+            return !failSave && super.save(entity);
+        }
+
+        @Override
+        public boolean update(Booking entity) {
+            return !failUpdate && super.update(entity);
+        }
+
+        @Override
+        public boolean commitJournal() {
+            return !failJournal && super.commitJournal();
+        }
+
+        @Override
+        public void saveToFile() {
+            fullSaves++; // Never touches the real data file
+        }
+    }
+
+    private TourRepository tours;
+    private FailingBookingRepository bookings;
+    private final LocalDate bookingDate = LocalDate.of(2030, 1, 1);
+
+    private static Tour tour(String id, boolean booked) {
+        return new Tour(id, "Tour " + id, "2 days 1 night", 100.0, "HS0001",
+                LocalDate.of(2030, 2, 1), LocalDate.of(2030, 2, 2), 2, booked);
+    }
+
+    private Booking booking(String id, String tourId) {
+        return new Booking(id, "John Doe", tourId, bookingDate, "0123456789");
+    }
+
+    @Before
+    public void setUp() {
+        tours = new TourRepository();
+        bookings = new FailingBookingRepository();
+        tours.save(tour("T00001", true));
+        tours.save(tour("T00002", false));
+        bookings.save(booking("B00001", "T00001"));
+    }
+
+    private UnitOfWork tx() {
+        return new UnitOfWork(tours, bookings);
+    }
+
+    // ===== VALIDATION =====
+
+    @Test
+    public void testInvalidStepAppliesNothing() {
+        // Arrange: the second step reserves a tour that is already booked
+        UnitOfWork tx = tx().saveBooking(booking("B00002", "T00002")).reserveTour("T00001");
+
+        // Act
+        boolean result = tx.commit();
+
+        // Assert
+        assertFalse(result);
+        assertEquals("Tour T00001 is already booked.", tx.getFailure());
+        assertNull(bookings.findById("B00002"));
+    }
+
+    @Test
+    public void testReleaseThenReserveInOneUnit() {
+        // Arrange
+        UnitOfWork tx = tx().releaseTour("T00001").reserveTour("T00001");
+
+        // Act
+        boolean result = tx.commit();
+
+        // Assert
+        assertTrue(result);
+        assertNull(tx.getFailure());
+        assertTrue(tours.findById("T00001").isBooked());
+    }
+
+    @Test
+    public void testMissingTourIsInvalid() {
+        UnitOfWork tx = tx().reserveTour("T99999");
+
+        assertFalse(tx.commit());
+        assertEquals("Tour T99999 does not exist.", tx.getFailure());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCommitTwiceThrows() {
+        UnitOfWork tx = tx().reserveTour("T00002");
+        tx.commit();
+
+        tx.commit();
+    }
+
+    // ===== PERSISTENCE =====
+
+    @Test
+    public void testCommitUsesJournalWhenItWorks() {
+        // Act
+        assertTrue(tx().saveBooking(booking("B00002", "T00002")).reserveTour("T00002").commit());
+
+        // Assert
+        assertEquals(0, bookings.fullSaves);
+    }
+
+    @Test
+    public void testCommitFallsBackToFullSaveWhenJournalFails() {
+        // Arrange
+        bookings.failJournal = true;
+
+        // Act
+        assertTrue(tx().saveBooking(booking("B00002", "T00002")).reserveTour("T00002").commit());
+
+        // Assert
+        assertEquals(1, bookings.fullSaves);
+    }
+
+    // ===== ROLLBACK =====
+
+    @Test
+    public void testFailedUpdateRollsBackTours() {
+        // Arrange: move B00001 from T00001 to T00002, but the update fails
+        bookings.failUpdate = true;
+        UnitOfWork tx = tx()
+                .reserveTour("T00002")
+                .updateBooking(booking("B00001", "T00002"))
+                .releaseTour("T00001");
+
+        // Act
+        boolean result = tx.commit();
+
+        // Assert
+        assertFalse(result);
+        assertEquals("Could not update booking B00001.", tx.getFailure());
+        assertFalse(tours.findById("T00002").isBooked());
+        assertTrue(tours.findById("T00001").isBooked());
+        assertEquals("T00001", bookings.findById("B00001").getTourID());
+    }
+
+    @Test
+    public void testFailedSaveReleasesReservedTour() {
+        // Arrange
+        bookings.failSave = true;
+        UnitOfWork tx = tx().reserveTour("T00002").saveBooking(booking("B00002", "T00002"));
+
+        // Act
+        boolean result = tx.commit();
+
+        // Assert
+        assertFalse(result);
+        assertEquals("Could not save booking B00002.", tx.getFailure());
+        assertFalse(tours.findById("T00002").isBooked());
+    }
+
+    // ===== BOOKING SERVICE =====
+
+    @Test
+    public void testServiceUpdateFailureRestoresBothTours() {
+        // Arrange
+        BookingService service = new BookingService(bookings, tours);
+        bookings.failUpdate = true;
+        Booking oldBooking = bookings.findById("B00001").copy();
+
+        // Act
+        boolean result = service.updateBookingWithValidation(booking("B00001", "T00002"), oldBooking);
+
+        // Assert
+        assertFalse(result);
+        assertTrue(tours.findById("T00001").isBooked());
+        assertFalse(tours.findById("T00002").isBooked());
+    }
+
+    @Test
+    public void testServiceUpdateMovesBookingBetweenTours() {
+        // Arrange
+        BookingService service = new BookingService(bookings, tours);
+        Booking oldBooking = bookings.findById("B00001").copy();
+
+        // Act
+        boolean result = service.updateBookingWithValidation(booking("B00001", "T00002"), oldBooking);
+
+        // Assert
+        assertTrue(result);
+        assertFalse(tours.findById("T00001").isBooked());
+        assertTrue(tours.findById("T00002").isBooked());
+        assertEquals("T00002", bookings.findById("B00001").getTourID());
+    }
+}
@@ -0,0 +1,202 @@
+import org.junit.Test;
+
+import models.Tour;
+import repositories.TourRepository;
+import repositories.indexes.VersionedMap;
+import repositories.interfaces.Snapshot;
+
+import static org.junit.Assert.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Unit Tests for VersionedMap Class
+ * Tests snapshot isolation, ordering, structural sharing against a TreeMap
+ * model and concurrent publishing
+ */
+public class VersionedMapTest {
+
+    private static Tour tour(String id, int tourists) {
+        return new Tour(id, "Tour " + id, "2 days 1 night", 100.0, "HS0001",
+                LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 2), tourists, false);
+    }
+
+    private static VersionedMap<Tour> newMap() {
+        return new VersionedMap<>(Tour::getTourId, Tour::copy);
+    }
+
+    private static List<String> ids(Iterable<Tour> tours) {
+        List<String> ids = new ArrayList<>();
+        for (Tour t : tours) {
+            ids.add(t.getTourId());
+        }
+        return ids;
+    }
+
+    // ===== SNAPSHOT ISOLATION =====
+
+    @Test
+    public void testPinnedSnapshotIgnoresLaterWrites() {
+        // Arrange
+        VersionedMap<Tour> map = newMap();
+        map.put(tour("T00001", 2));
+        map.put(tour("T00002", 3));
+        Snapshot<Tour> pinned = map.snapshot();
+
+        // Act
+        map.put(tour("T00003", 4));
+        map.put(tour("T00001", 9));
+        map.remove("t00002");
+
+        // Assert
+        assertEquals(Arrays.asList("T00001", "T00002"), ids(pinned));
+        assertEquals(2, pinned.asList().get(0).getNumberTourist());
+        assertEquals(Arrays.asList("T00001", "T00003"), ids(map.snapshot()));
+        assertTrue(map.snapshot().version() > pinned.version());
+    }
+
+    @Test
+    public void testInPlaceChangeOfLiveEntityDoesNotLeak() {
+        // Arrange
+        VersionedMap<Tour> map = newMap();
+        Tour live = tour("T00001", 2);
+        map.put(live);
+        Snapshot<Tour> pinned = map.snapshot();
+
+        // Act
+        live.setNumberTourist(7);
+        live.tryReserve();
+
+        // Assert
+        Tour seen = pinned.asList().get(0);
+        assertEquals(2, seen.getNumberTourist());
+        assertFalse(seen.isBooked());
+    }
+
+    // ===== STRUCTURE =====
+
+    @Test
+    public void testRandomWritesMatchTreeMapModel() {
+        // Arrange
+        VersionedMap<Tour> map = newMap();
+        TreeMap<String, Integer> model = new TreeMap<>();
+        Random random = new Random(42);
+
+        // Act
+        for (int i = 0; i < 5000; i++) {
+            String id = String.format("T%05d", random.nextInt(800));
+            if (random.nextInt(4) == 0) {
+                map.remove(id);
+                model.remove(id);
+            } else {
+                int tourists = random.nextInt(50) + 1;
+                map.put(tour(id, tourists));
+                model.put(id, tourists);
+            }
+        }
+
+        // Assert: in-order iteration, positional access and size agree
+        Snapshot<Tour> snapshot = map.snapshot();
+        assertEquals(model.size(), snapshot.size());
+        assertEquals(new ArrayList<>(model.keySet()), ids(snapshot));
+        List<Tour> list = snapshot.asList();
+        int i = 0;
+        for (Integer tourists : model.values()) {
+            assertEquals(tourists.intValue(), list.get(i++).getNumberTourist());
+        }
+    }
+
+    @Test
+    public void testRebuildSortsAndKeepsFirstDuplicate() {
+        VersionedMap<Tour> map = newMap();
+
+        map.rebuild(Arrays.asList(tour("T00003", 1), tour("T00001", 2), tour("t00003", 3)));
+
+        assertEquals(Arrays.asList("T00001", "T00003"), ids(map.snapshot()));
+        assertEquals(1, map.get("T00003").getNumberTourist());
+    }
+
+    @Test
+    public void testInsertionOrderKeepsFileOrder() {
+        // Arrange - Loaded out of ID order, with a duplicate
+        VersionedMap<Tour> map = newMap();
+        map.rebuild(Arrays.asList(tour("T00003", 1), tour("T00001", 1), tour("t00003", 9), tour("T00002", 1)));
+
+        // Act - Update keeps its place, new and re-added rows go last
+        map.put(tour("T00001", 5));
+        map.put(tour("T00000", 1));
+        map.remove("T00003");
+        map.put(tour("T00003", 2));
+
+        // Assert
+        assertEquals(Arrays.asList("T00000", "T00001", "T00002", "T00003"), ids(map.snapshot()));
+        assertEquals(Arrays.asList("T00001", "T00002", "T00000", "T00003"), ids(map.snapshot().inInsertionOrder()));
+        assertEquals(5, map.get("T00001").getNumberTourist());
+    }
+
+    @Test
+    public void testConcurrentWritersLoseNoUpdate() throws InterruptedException {
+        // Arrange
+        VersionedMap<Tour> map = newMap();
+        List<Thread> writers = new ArrayList<>();
+        for (int w = 0; w < 4; w++) {
+            int worker = w;
+            writers.add(new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    map.put(tour(String.format("T%05d", worker * 1000 + i), 1));
+                }
+            }));
+        }
+
+        // Act
+        for (Thread t : writers) {
+            t.start();
+        }
+        for (Thread t : writers) {
+            t.join();
+        }
+
+        // Assert
+        assertEquals(4000, map.size());
+        assertEquals(4000, map.snapshot().version());
+    }
+
+    // ===== REPOSITORY =====
+
+    @Test
+    public void testRepositorySavesRowsInFindAllOrder() {
+        // Arrange
+        TourRepository repo = new TourRepository();
+        repo.save(tour("T00002", 2));
+        repo.save(tour("T00001", 2));
+        repo.save(tour("T00003", 2));
+
+        // Act
+        repo.update(tour("T00002", 4));
+        repo.delete("T00001");
+        repo.save(tour("T00001", 2));
+
+        // Assert - The rows a save writes follow findAll(), not the ID order
+        assertEquals(ids(repo.findAll()), ids(repo.snapshot().inInsertionOrder()));
+        assertEquals(Arrays.asList("T00002", "T00003", "T00001"), ids(repo.findAll()));
+    }
+
+    @Test
+    public void testRepositorySnapshotIsStableAcrossReservation() {
+        // Arrange
+        TourRepository repo = new TourRepository();
+        repo.save(tour("T00001", 2));
+        Snapshot<Tour> before = repo.snapshot();
+
+        // Act
+        repo.tryReserve("T00001");
+
+        // Assert
+        assertFalse(before.asList().get(0).isBooked());
+        assertTrue(repo.snapshot().asList().get(0).isBooked());
+    }
+}